@@ -0,0 +1,445 @@
+package net.e175.klaus.solarpositioning.bench;
+
+import static java.lang.Math.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import net.e175.klaus.solarpositioning.ChebyshevEphemeris;
+import net.e175.klaus.solarpositioning.GrenaAlgorithm;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarEventSearch;
+import net.e175.klaus.solarpositioning.SolarPosition;
+import net.e175.klaus.solarpositioning.SolarPositionAlgorithm;
+import net.e175.klaus.solarpositioning.SolarPositionSeries;
+import net.e175.klaus.solarpositioning.SolarPositions;
+import net.e175.klaus.solarpositioning.SunEvents;
+import net.e175.klaus.solarpositioning.SunriseResult;
+import net.e175.klaus.solarpositioning.VectorSPA;
+
+/**
+ * Speed versus accuracy of every position algorithm and sunrise method, over the reference data
+ * sets used by the library's tests. Prints one table per data set with maximum and RMS error next
+ * to time and allocated bytes per operation.
+ *
+ * <p>Besides the {@link SolarPositionAlgorithm}s, positions are calculated with {@link
+ * SolarPositions} at several error budgets, {@link VectorSPA} (vectorized only if the {@code
+ * solarpositioning-vector} artifact is usable, see there), {@link ChebyshevEphemeris} with several
+ * segment lengths and degrees, and {@link SolarPositionSeries}. Chebyshev ephemerides are fitted to
+ * one segment around each reference point beforehand, so their timings cover evaluation only.
+ * Series end at each reference point, as far from the last recalculation of all terms as possible,
+ * and their timings are per generated position.
+ *
+ * <p>Timings come from a simple loop after warm-up, good enough to compare algorithms with each
+ * other; use the JMH benchmarks for precise numbers. Usage: {@code java -cp target/benchmarks.jar
+ * net.e175.klaus.solarpositioning.bench.AccuracyReport [data directory]}, the data directory
+ * defaulting to the library's {@code src/test/resources/test}.
+ */
+public final class AccuracyReport {
+
+  private static final long WARMUP_NANOS = 500_000_000L;
+  private static final long MEASUREMENT_NANOS = 1_000_000_000L;
+
+  /** Parameters the reference data was generated with. */
+  private static final double DELTA_T = 0;
+
+  private static final double PRESSURE = 1000;
+  private static final double TEMPERATURE = 10;
+
+  private static final int GRENA_FIRST_YEAR = 2010;
+  private static final int GRENA_LAST_YEAR = 2110;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /** Receives the results of timed operations, so that they cannot be eliminated. */
+  private static volatile double blackhole;
+
+  private AccuracyReport() {}
+
+  private record PositionCase(Instant instant, ObserverSite site, double azimuth, double zenith) {}
+
+  @FunctionalInterface
+  private interface PositionMethod {
+    SolarPosition calculate(int index);
+  }
+
+  /** One row of the position table, calculating the position of the case at the given index. */
+  private record PositionRow(
+      String name, Predicate<PositionCase> applies, int positionsPerCall, PositionMethod method) {}
+
+  private record SunriseCase(
+      ZonedDateTime dateTime,
+      double latitude,
+      double longitude,
+      String type,
+      LocalTime sunrise,
+      LocalTime transit,
+      LocalTime sunset) {}
+
+  /** Result of one sunrise calculation, with times in milliseconds and -1 for missing ones. */
+  private record Sunrise(String type, long sunrise, long transit, long sunset) {}
+
+  @FunctionalInterface
+  private interface SunriseMethod {
+    Sunrise calculate(SunriseCase c, SPA.Horizon horizon);
+  }
+
+  public static void main(final String[] args) throws IOException {
+    final Path directory = Path.of(args.length > 0 ? args[0] : "../src/test/resources/test");
+
+    reportPositions(directory.resolve("azimuth_zenith/spa_reference_testdata.csv"));
+
+    reportSunrise(
+        directory.resolve("sunrise/spa_reference_testdata.csv"), SPA.Horizon.SUNRISE_SUNSET, true);
+    reportSunrise(
+        directory.resolve("sunrise/usno_reference_testdata.csv"),
+        SPA.Horizon.SUNRISE_SUNSET,
+        false);
+    reportSunrise(
+        directory.resolve("sunrise/usno_reference_testdata_civil.csv"),
+        SPA.Horizon.CIVIL_TWILIGHT,
+        false);
+    reportSunrise(
+        directory.resolve("sunrise/usno_reference_testdata_extreme.csv"),
+        SPA.Horizon.SUNRISE_SUNSET,
+        false);
+  }
+
+  private static void reportPositions(final Path file) throws IOException {
+    final List<PositionCase> cases = new ArrayList<>();
+    for (final String[] fields : readCsv(file)) {
+      cases.add(
+          new PositionCase(
+              Instant.parse(fields[0]),
+              new ObserverSite(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), 0),
+              Double.parseDouble(fields[3]),
+              Double.parseDouble(fields[4])));
+    }
+
+    System.out.printf("%n%s (angular error in degrees)%n", file);
+    System.out.printf(
+        "%-24s %6s %12s %12s %10s %8s%n", "algorithm", "points", "max", "rms", "ns/op", "B/op");
+
+    for (final PositionRow row : positionRows(cases)) {
+      final int[] valid =
+          IntStream.range(0, cases.size()).filter(i -> row.applies.test(cases.get(i))).toArray();
+
+      final Stats stats = new Stats();
+      for (final int i : valid) {
+        final PositionCase c = cases.get(i);
+        final SolarPosition position = row.method.calculate(i);
+        stats.add(angularDistance(position.azimuth(), position.zenithAngle(), c.azimuth, c.zenith));
+      }
+
+      final Cost cost = measure(valid.length, i -> row.method.calculate(valid[i]).zenithAngle());
+
+      System.out.printf(
+          "%-24s %6d %12.7f %12.7f %10.1f %8.1f%n",
+          row.name,
+          stats.count,
+          stats.max,
+          stats.rms(),
+          cost.nanos / row.positionsPerCall,
+          cost.bytes / row.positionsPerCall);
+    }
+  }
+
+  private static List<PositionRow> positionRows(final List<PositionCase> cases) {
+    final Predicate<PositionCase> all = c -> true;
+    final List<PositionRow> rows = new ArrayList<>();
+
+    final List<SolarPositionAlgorithm> algorithms =
+        new ArrayList<>(List.of(GrenaAlgorithm.values()));
+    algorithms.addAll(List.of(SPA.Accuracy.values()));
+    for (final SolarPositionAlgorithm algorithm : algorithms) {
+      rows.add(
+          new PositionRow(
+              name(algorithm),
+              algorithm instanceof GrenaAlgorithm ? AccuracyReport::inGrenaRange : all,
+              1,
+              i -> {
+                final PositionCase c = cases.get(i);
+                return algorithm.calculateSolarPosition(
+                    c.instant, c.site, DELTA_T, PRESSURE, TEMPERATURE);
+              }));
+    }
+
+    for (final double maxError : new double[] {0.01, 0.003, 0.0012, 0.00002}) {
+      rows.add(
+          new PositionRow(
+              "SolarPositions <= " + maxError,
+              all,
+              1,
+              i -> {
+                final PositionCase c = cases.get(i);
+                return SolarPositions.calculate(
+                    c.instant, c.site, DELTA_T, PRESSURE, TEMPERATURE, maxError, null);
+              }));
+    }
+
+    final List<ZonedDateTime> dateTimes =
+        cases.stream().map(c -> c.instant.atZone(ZoneOffset.UTC)).toList();
+    rows.add(
+        new PositionRow(
+            VectorSPA.isVectorized() ? "VectorSPA" : "VectorSPA (scalar)",
+            all,
+            1,
+            i ->
+                VectorSPA.calculateSolarPosition(
+                    dateTimes.get(i), cases.get(i).site, DELTA_T, PRESSURE, TEMPERATURE)));
+
+    for (final Duration segment :
+        new Duration[] {Duration.ofDays(1), Duration.ofDays(8), Duration.ofDays(32)}) {
+      for (final int degree : new int[] {3, 5, 8}) {
+        final List<ChebyshevEphemeris> ephemerides =
+            dateTimes.stream()
+                .map(
+                    dateTime -> {
+                      final ZonedDateTime start = dateTime.minus(segment.dividedBy(3));
+                      return ChebyshevEphemeris.fit(
+                          start, start.plus(segment), DELTA_T, segment, degree);
+                    })
+                .toList();
+        rows.add(
+            new PositionRow(
+                "Chebyshev " + segment.toDays() + "d, degree " + degree,
+                all,
+                1,
+                i ->
+                    ephemerides
+                        .get(i)
+                        .calculateSolarPosition(
+                            dateTimes.get(i), cases.get(i).site, PRESSURE, TEMPERATURE)));
+      }
+    }
+
+    final int length = SolarPositionSeries.ANCHOR_INTERVAL;
+    final double[] azimuth = new double[length];
+    final double[] zenithAngle = new double[length];
+    rows.add(
+        new PositionRow(
+            "SolarPositionSeries",
+            all,
+            length,
+            i -> {
+              final SolarPositionSeries series =
+                  SolarPositionSeries.of(
+                      dateTimes.get(i).minusMinutes(length - 1),
+                      Duration.ofMinutes(1),
+                      length,
+                      cases.get(i).site,
+                      DELTA_T,
+                      PRESSURE,
+                      TEMPERATURE);
+              series.next(azimuth, zenithAngle);
+              return new SolarPosition(azimuth[length - 1], zenithAngle[length - 1]);
+            }));
+
+    return rows;
+  }
+
+  private static boolean inGrenaRange(final PositionCase c) {
+    final int year = c.instant.atZone(ZoneOffset.UTC).getYear();
+    return year >= GRENA_FIRST_YEAR && year <= GRENA_LAST_YEAR;
+  }
+
+  private static String name(final SolarPositionAlgorithm algorithm) {
+    return (algorithm instanceof GrenaAlgorithm ? "Grena " : "SPA ") + algorithm;
+  }
+
+  /** Angle between two positions on the sky, in degrees. */
+  private static double angularDistance(
+      final double azimuth1, final double zenith1, final double azimuth2, final double zenith2) {
+    final double z1 = toRadians(zenith1);
+    final double z2 = toRadians(zenith2);
+    final double cosDistance =
+        cos(z1) * cos(z2) + sin(z1) * sin(z2) * cos(toRadians(azimuth1 - azimuth2));
+    return toDegrees(acos(min(1, max(-1, cosDistance))));
+  }
+
+  private static void reportSunrise(
+      final Path file, final SPA.Horizon horizon, final boolean withTransit) throws IOException {
+    final List<SunriseCase> cases = new ArrayList<>();
+    for (final String[] fields : readCsv(file)) {
+      // SPA reference data has a transit column instead of the day type
+      cases.add(
+          new SunriseCase(
+              ZonedDateTime.parse(fields[0]),
+              Double.parseDouble(fields[1]),
+              Double.parseDouble(fields[2]),
+              withTransit ? null : fields[3],
+              parseTime(fields[withTransit ? 3 : 4]),
+              withTransit ? parseTime(fields[4]) : null,
+              parseTime(fields[5])));
+    }
+
+    System.out.printf("%n%s (%s, time error in seconds)%n", file, horizon);
+    System.out.printf(
+        "%-24s %6s %8s %12s %12s %10s %8s%n",
+        "method", "days", "wrong", "max", "rms", "ns/op", "B/op");
+
+    report("SPA", cases, horizon, AccuracyReport::spaSunrise);
+    report("SPA + elevation search", cases, horizon, AccuracyReport::searchSunrise);
+  }
+
+  private static void report(
+      final String name,
+      final List<SunriseCase> cases,
+      final SPA.Horizon horizon,
+      final SunriseMethod method) {
+    final Stats stats = new Stats();
+    int wrongType = 0;
+    for (final SunriseCase c : cases) {
+      final Sunrise result = method.calculate(c, horizon);
+      if (c.type != null && !c.type.equals(result.type)) {
+        wrongType++;
+        continue;
+      }
+      addTimeError(stats, c, c.sunrise, result.sunrise);
+      addTimeError(stats, c, c.transit, result.transit);
+      addTimeError(stats, c, c.sunset, result.sunset);
+    }
+
+    final Cost cost = measure(cases.size(), i -> method.calculate(cases.get(i), horizon).transit);
+
+    System.out.printf(
+        "%-24s %6d %8d %12.1f %12.1f %10.1f %8.1f%n",
+        name, cases.size(), wrongType, stats.max, stats.rms(), cost.nanos, cost.bytes);
+  }
+
+  /**
+   * Add the error of a calculated time against a reference time of day. References only give the
+   * time of day in UTC, while events may fall on the previous or next day, so compare modulo a day.
+   */
+  private static void addTimeError(
+      final Stats stats, final SunriseCase c, final LocalTime reference, final long epochMillis) {
+    if (reference == null || epochMillis < 0) {
+      return;
+    }
+    final long referenceMillis =
+        c.dateTime.truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli()
+            + reference.toSecondOfDay() * 1000L;
+    stats.add(abs(IEEEremainder(epochMillis - referenceMillis, 86_400_000.0)) / 1000.0);
+  }
+
+  private static Sunrise spaSunrise(final SunriseCase c, final SPA.Horizon horizon) {
+    final SunriseResult result =
+        SPA.calculateSunriseTransitSet(c.dateTime, c.latitude, c.longitude, DELTA_T, horizon);
+    final long transit = result.transit().toInstant().toEpochMilli();
+    if (result instanceof SunriseResult.RegularDay regular) {
+      return new Sunrise(
+          "NORMAL",
+          regular.sunrise().toInstant().toEpochMilli(),
+          transit,
+          regular.sunset().toInstant().toEpochMilli());
+    }
+    return new Sunrise(
+        result instanceof SunriseResult.AllDay ? "ALL_DAY" : "ALL_NIGHT", -1, transit, -1);
+  }
+
+  private static Sunrise searchSunrise(final SunriseCase c, final SPA.Horizon horizon) {
+    final ZonedDateTime start = c.dateTime.truncatedTo(ChronoUnit.DAYS);
+    final ObserverSite site = new ObserverSite(c.latitude, c.longitude, 0);
+    final SunEvents events =
+        SolarEventSearch.findElevationCrossings(
+            start,
+            start.plusDays(1),
+            site,
+            DELTA_T,
+            Double.NaN,
+            Double.NaN,
+            horizon.elevation(),
+            Duration.ofSeconds(1));
+
+    long sunrise = -1;
+    long sunset = -1;
+    for (int i = 0; i < events.size(); i++) {
+      if (events.type(i) == SunEvents.RISING && sunrise < 0) {
+        sunrise = events.epochMillis(i);
+      } else if (events.type(i) == SunEvents.SETTING && sunset < 0) {
+        sunset = events.epochMillis(i);
+      }
+    }
+    if (events.size() > 0) {
+      return new Sunrise("NORMAL", sunrise, -1, sunset);
+    }
+
+    // no crossing at all: decide between polar day and night by the elevation at local noon
+    final ZonedDateTime noon = start.plusSeconds(round(43200 - c.longitude * 240));
+    final double elevation = 90 - SPA.calculateSolarPosition(noon, site, DELTA_T).zenithAngle();
+    return new Sunrise(elevation > horizon.elevation() ? "ALL_DAY" : "ALL_NIGHT", -1, -1, -1);
+  }
+
+  private static LocalTime parseTime(final String field) {
+    return field.isBlank() ? null : LocalTime.parse(field.strip());
+  }
+
+  private static List<String[]> readCsv(final Path file) throws IOException {
+    final List<String[]> rows = new ArrayList<>();
+    for (final String line : Files.readAllLines(file)) {
+      if (!line.isBlank() && !line.startsWith("#")) {
+        rows.add(line.split(",", -1));
+      }
+    }
+    return rows;
+  }
+
+  private record Cost(double nanos, double bytes) {}
+
+  /** Time and allocation per operation, cycling through the given number of inputs. */
+  private static Cost measure(final int size, final IntToDoubleFunction operation) {
+    double sum = 0;
+    final long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+    while (System.nanoTime() < warmupEnd) {
+      for (int i = 0; i < size; i++) {
+        sum += operation.applyAsDouble(i);
+      }
+    }
+
+    long operations = 0;
+    final long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+    final long start = System.nanoTime();
+    long elapsed;
+    do {
+      for (int i = 0; i < size; i++) {
+        sum += operation.applyAsDouble(i);
+      }
+      operations += size;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < MEASUREMENT_NANOS);
+    final long bytes = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+
+    blackhole = sum;
+    return new Cost((double) elapsed / operations, (double) bytes / operations);
+  }
+
+  private static final class Stats {
+    private int count;
+    private double max;
+    private double sumOfSquares;
+
+    void add(final double error) {
+      count++;
+      max = max(max, error);
+      sumOfSquares += error * error;
+    }
+
+    double rms() {
+      return count > 0 ? sqrt(sumOfSquares / count) : 0;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package net.e175.klaus.solarpositioning.bench;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so that allocation per operation ({@code
+ * gc.alloc.rate.norm}) is reported next to the timings. Accepts the usual JMH command line options,
+ * e.g. a benchmark name pattern or {@code -f 1 -wi 3 -i 5} for a quicker run.
+ */
+public final class BenchmarkMain {
+
+  private BenchmarkMain() {}
+
+  public static void main(final String[] args)
+      throws IOException, RunnerException, CommandLineOptionException {
+    final CommandLineOptions commandLine = new CommandLineOptions(args);
+    if (commandLine.shouldHelp() || commandLine.shouldList()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+    new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build())
+        .run();
+  }
+}
@@ -0,0 +1,103 @@
+package net.e175.klaus.solarpositioning.bench;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.e175.klaus.solarpositioning.Grena3;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-call latency and batch throughput of the position algorithms. Single calls cycle through
+ * precalculated dates so that the JIT cannot fold them into constants.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SolarPositionBenchmark {
+
+  static final int BATCH_SIZE = 1024;
+
+  private static final double LATITUDE = 48.21;
+  private static final double LONGITUDE = 16.37;
+  private static final double ELEVATION = 190;
+  private static final double DELTA_T = 69;
+  private static final double PRESSURE = 1010;
+  private static final double TEMPERATURE = 11;
+
+  private final ObserverSite site = new ObserverSite(LATITUDE, LONGITUDE, ELEVATION);
+
+  private final ZonedDateTime[] dates = new ZonedDateTime[BATCH_SIZE];
+  private final long[] epochMillis = new long[BATCH_SIZE];
+  private final double[] azimuth = new double[BATCH_SIZE];
+  private final double[] zenithAngle = new double[BATCH_SIZE];
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final long start = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+    final long range = 10L * 365 * 24 * 3600 * 1000;
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      epochMillis[i] = start + (long) (random.nextDouble() * range);
+      dates[i] = Instant.ofEpochMilli(epochMillis[i]).atZone(ZoneOffset.ofHours(1));
+    }
+  }
+
+  private ZonedDateTime nextDate() {
+    next = (next + 1) & (BATCH_SIZE - 1);
+    return dates[next];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public SolarPosition spa() {
+    return SPA.calculateSolarPosition(
+        nextDate(), LATITUDE, LONGITUDE, ELEVATION, DELTA_T, PRESSURE, TEMPERATURE);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public SolarPosition grena3() {
+    return Grena3.calculateSolarPosition(
+        nextDate(), LATITUDE, LONGITUDE, DELTA_T, PRESSURE, TEMPERATURE);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(BATCH_SIZE)
+  public double[] spaBatch() {
+    SPA.calculateSolarPositions(
+        epochMillis, site, DELTA_T, PRESSURE, TEMPERATURE, azimuth, zenithAngle);
+    return zenithAngle;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(BATCH_SIZE)
+  public double[] grena3Batch() {
+    Grena3.calculateSolarPositions(
+        epochMillis, site, DELTA_T, PRESSURE, TEMPERATURE, azimuth, zenithAngle);
+    return zenithAngle;
+  }
+}
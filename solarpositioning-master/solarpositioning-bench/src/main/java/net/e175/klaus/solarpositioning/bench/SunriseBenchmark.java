@@ -0,0 +1,92 @@
+package net.e175.klaus.solarpositioning.bench;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SunriseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-day latency of both sunrise variants, and throughput when calculating a calendar of
+ * consecutive days.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SunriseBenchmark {
+
+  static final int DAYS = 366;
+
+  private static final double LATITUDE = 48.21;
+  private static final double LONGITUDE = 16.37;
+  private static final double DELTA_T = 69;
+
+  private static final SPA.Horizon[] HORIZONS = {
+    SPA.Horizon.SUNRISE_SUNSET,
+    SPA.Horizon.CIVIL_TWILIGHT,
+    SPA.Horizon.NAUTICAL_TWILIGHT,
+    SPA.Horizon.ASTRONOMICAL_TWILIGHT
+  };
+
+  private final ZonedDateTime[] days = new ZonedDateTime[DAYS];
+  private final long[] rows = new long[DAYS * SunriseResult.ROW_LENGTH];
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    final ZonedDateTime start =
+        ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneId.of("Europe/Vienna"));
+    for (int i = 0; i < DAYS; i++) {
+      days[i] = start.plusDays(i);
+    }
+  }
+
+  private ZonedDateTime nextDay() {
+    next = next + 1 < DAYS ? next + 1 : 0;
+    return days[next];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public SunriseResult sunriseTransitSet() {
+    return SPA.calculateSunriseTransitSet(nextDay(), LATITUDE, LONGITUDE, DELTA_T);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Map<SPA.Horizon, SunriseResult> sunriseTransitSetHorizons() {
+    return SPA.calculateSunriseTransitSet(nextDay(), LATITUDE, LONGITUDE, DELTA_T, HORIZONS);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(DAYS)
+  public long[] sunriseTransitSetsCalendar() {
+    SPA.calculateSunriseTransitSets(
+        days[0],
+        days[0].plusDays(DAYS),
+        LATITUDE,
+        LONGITUDE,
+        DELTA_T,
+        SPA.Horizon.SUNRISE_SUNSET,
+        rows);
+    return rows;
+  }
+}
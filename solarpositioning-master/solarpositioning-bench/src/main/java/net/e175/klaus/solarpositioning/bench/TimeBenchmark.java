@@ -0,0 +1,59 @@
+package net.e175.klaus.solarpositioning.bench;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import net.e175.klaus.solarpositioning.DeltaT;
+import net.e175.klaus.solarpositioning.JulianDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Latency of the time scale helpers that every position calculation goes through. */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimeBenchmark {
+
+  private static final int SIZE = 1024;
+
+  private final LocalDate[] localDates = new LocalDate[SIZE];
+  private final ZonedDateTime[] dates = new ZonedDateTime[SIZE];
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    final ZonedDateTime start = ZonedDateTime.of(1900, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+    for (int i = 0; i < SIZE; i++) {
+      dates[i] = start.plusDays(67L * i).plusSeconds(3607L * i);
+      localDates[i] = dates[i].toLocalDate();
+    }
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & (SIZE - 1);
+    return next;
+  }
+
+  @Benchmark
+  public double deltaTEstimate() {
+    return DeltaT.estimate(localDates[nextIndex()]);
+  }
+
+  @Benchmark
+  public JulianDate julianDate() {
+    return new JulianDate(dates[nextIndex()], 69);
+  }
+}
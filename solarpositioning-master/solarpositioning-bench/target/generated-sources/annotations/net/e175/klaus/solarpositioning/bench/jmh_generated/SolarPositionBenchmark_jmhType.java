@@ -0,0 +1,4 @@
+package net.e175.klaus.solarpositioning.bench.jmh_generated;
+public class SolarPositionBenchmark_jmhType extends SolarPositionBenchmark_jmhType_B3 {
+}
+
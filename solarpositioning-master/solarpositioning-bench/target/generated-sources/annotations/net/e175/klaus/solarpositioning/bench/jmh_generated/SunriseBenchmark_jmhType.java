@@ -0,0 +1,4 @@
+package net.e175.klaus.solarpositioning.bench.jmh_generated;
+public class SunriseBenchmark_jmhType extends SunriseBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.e175.klaus.solarpositioning.bench.jmh_generated;
+public class TimeBenchmark_jmhType extends TimeBenchmark_jmhType_B3 {
+}
+
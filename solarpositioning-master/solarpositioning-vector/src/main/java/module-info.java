@@ -0,0 +1,8 @@
+/** Vector API kernel for {@code VectorSPA}, see the solarpositioning module. */
+module net.e175.klaus.solarpositioning.vector {
+  requires net.e175.klaus.solarpositioning;
+  requires jdk.incubator.vector;
+
+  provides net.e175.klaus.solarpositioning.SpaSeriesKernel with
+      net.e175.klaus.solarpositioning.vector.VectorSeriesKernel;
+}
@@ -0,0 +1,223 @@
+package net.e175.klaus.solarpositioning.vector;
+
+import static jdk.incubator.vector.VectorOperators.COS;
+import static jdk.incubator.vector.VectorOperators.SIN;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import net.e175.klaus.solarpositioning.SpaSeriesKernel;
+
+/**
+ * SPA series summation using the incubating Vector API. Not meant to be used directly: {@code
+ * VectorSPA} finds it through {@link java.util.ServiceLoader}.
+ *
+ * <p>A single point in time is summed with the vector lanes running over the terms of each series.
+ * Blocks of several points in time are summed with one point in time per lane instead.
+ */
+public final class VectorSeriesKernel implements SpaSeriesKernel {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+  private static final int LANES = SPECIES.length();
+
+  private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+
+  private Terms termsL;
+  private Terms termsB;
+  private Terms termsR;
+
+  private int nutationTerms;
+  private double[] nutationA;
+  private double[] nutationB;
+  private double[] nutationC;
+  private double[] nutationD;
+
+  /** Gather offsets of one point in time's consecutive nutation arguments. */
+  private final int[] stride = new int[LANES];
+
+  /** Create an uninitialized kernel, as required by {@link java.util.ServiceLoader}. */
+  public VectorSeriesKernel() {
+    for (int i = 0; i < LANES; i++) {
+      stride[i] = i * LANES;
+    }
+  }
+
+  /** Periodic terms of one heliocentric coordinate series, flattened into columns. */
+  private static final class Terms {
+    final double[] a;
+    final double[] b;
+    final double[] c;
+    final int[] groupEnds;
+
+    Terms(final double[][][] terms) {
+      int rows = 0;
+      for (final double[][] group : terms) {
+        rows += group.length;
+      }
+      a = new double[rows];
+      b = new double[rows];
+      c = new double[rows];
+      groupEnds = new int[terms.length];
+
+      int k = 0;
+      for (int g = 0; g < terms.length; g++) {
+        for (final double[] row : terms[g]) {
+          a[k] = row[0];
+          b[k] = row[1];
+          c[k] = row[2];
+          k++;
+        }
+        groupEnds[g] = k;
+      }
+    }
+  }
+
+  @Override
+  public void initialize(
+      final double[][][] termsL,
+      final double[][][] termsB,
+      final double[][][] termsR,
+      final double[][] termsPE) {
+    this.termsL = new Terms(termsL);
+    this.termsB = new Terms(termsB);
+    this.termsR = new Terms(termsR);
+
+    this.nutationTerms = termsPE.length;
+    this.nutationA = column(termsPE, 0);
+    this.nutationB = column(termsPE, 1);
+    this.nutationC = column(termsPE, 2);
+    this.nutationD = column(termsPE, 3);
+  }
+
+  @Override
+  public int blockSize() {
+    return LANES;
+  }
+
+  @Override
+  public void sum(
+      final int count,
+      final double[] jme,
+      final double[] jce,
+      final double[] nutationArguments,
+      final double[] l,
+      final double[] b,
+      final double[] r,
+      final double[] deltaPsi,
+      final double[] deltaEpsilon) {
+    if (count == 1) {
+      l[0] = sumLBR(jme[0], termsL);
+      b[0] = sumLBR(jme[0], termsB);
+      r[0] = sumLBR(jme[0], termsR);
+      sumNutation(jce[0], nutationArguments, deltaPsi, deltaEpsilon);
+      return;
+    }
+
+    // unused lanes of a partial block just compute leftovers from the previous block
+    final DoubleVector vJme = DoubleVector.fromArray(SPECIES, jme, 0);
+    sumLBR(vJme, termsL).intoArray(l, 0);
+    sumLBR(vJme, termsB).intoArray(b, 0);
+    sumLBR(vJme, termsR).intoArray(r, 0);
+
+    final DoubleVector vJce = DoubleVector.fromArray(SPECIES, jce, 0);
+    DoubleVector psi = DoubleVector.zero(SPECIES);
+    DoubleVector epsilon = DoubleVector.zero(SPECIES);
+    for (int t = 0; t < nutationTerms; t++) {
+      final DoubleVector x =
+          DoubleVector.fromArray(SPECIES, nutationArguments, t * LANES).mul(DEGREES_TO_RADIANS);
+      psi = vJce.mul(nutationB[t]).add(nutationA[t]).mul(x.lanewise(SIN)).add(psi);
+      epsilon = vJce.mul(nutationD[t]).add(nutationC[t]).mul(x.lanewise(COS)).add(epsilon);
+    }
+    psi.div(36000000).intoArray(deltaPsi, 0);
+    epsilon.div(36000000).intoArray(deltaEpsilon, 0);
+  }
+
+  /** Sum a series over its terms, for one point in time. */
+  private static double sumLBR(final double jme, final Terms terms) {
+    double sum = 0;
+    for (int g = terms.groupEnds.length - 1; g >= 0; g--) {
+      final int start = g == 0 ? 0 : terms.groupEnds[g - 1];
+      final int end = terms.groupEnds[g];
+
+      DoubleVector group = DoubleVector.zero(SPECIES);
+      int i = start;
+      for (; i <= end - LANES; i += LANES) {
+        final DoubleVector argument =
+            DoubleVector.fromArray(SPECIES, terms.c, i)
+                .mul(jme)
+                .add(DoubleVector.fromArray(SPECIES, terms.b, i));
+        group = DoubleVector.fromArray(SPECIES, terms.a, i).mul(argument.lanewise(COS)).add(group);
+      }
+      double groupSum = group.reduceLanes(VectorOperators.ADD);
+      for (; i < end; i++) {
+        groupSum += terms.a[i] * Math.cos(terms.b[i] + terms.c[i] * jme);
+      }
+
+      sum = groupSum + jme * sum;
+    }
+    return sum / 1e8;
+  }
+
+  /** Sum the nutation terms for the first point in time of a block. */
+  private void sumNutation(
+      final double jce,
+      final double[] nutationArguments,
+      final double[] deltaPsi,
+      final double[] deltaEpsilon) {
+    DoubleVector psi = DoubleVector.zero(SPECIES);
+    DoubleVector epsilon = DoubleVector.zero(SPECIES);
+    int i = 0;
+    for (; i <= nutationTerms - LANES; i += LANES) {
+      final DoubleVector x =
+          DoubleVector.fromArray(SPECIES, nutationArguments, i * LANES, stride, 0)
+              .mul(DEGREES_TO_RADIANS);
+      psi =
+          DoubleVector.fromArray(SPECIES, nutationB, i)
+              .mul(jce)
+              .add(DoubleVector.fromArray(SPECIES, nutationA, i))
+              .mul(x.lanewise(SIN))
+              .add(psi);
+      epsilon =
+          DoubleVector.fromArray(SPECIES, nutationD, i)
+              .mul(jce)
+              .add(DoubleVector.fromArray(SPECIES, nutationC, i))
+              .mul(x.lanewise(COS))
+              .add(epsilon);
+    }
+    double psiSum = psi.reduceLanes(VectorOperators.ADD);
+    double epsilonSum = epsilon.reduceLanes(VectorOperators.ADD);
+    for (; i < nutationTerms; i++) {
+      final double x = Math.toRadians(nutationArguments[i * LANES]);
+      psiSum += (nutationA[i] + nutationB[i] * jce) * Math.sin(x);
+      epsilonSum += (nutationC[i] + nutationD[i] * jce) * Math.cos(x);
+    }
+    deltaPsi[0] = psiSum / 36000000;
+    deltaEpsilon[0] = epsilonSum / 36000000;
+  }
+
+  /** Sum a series over its terms, for one point in time per lane. */
+  private static DoubleVector sumLBR(final DoubleVector jme, final Terms terms) {
+    DoubleVector sum = DoubleVector.zero(SPECIES);
+    for (int g = terms.groupEnds.length - 1; g >= 0; g--) {
+      final int start = g == 0 ? 0 : terms.groupEnds[g - 1];
+      final int end = terms.groupEnds[g];
+
+      DoubleVector group = DoubleVector.zero(SPECIES);
+      for (int i = start; i < end; i++) {
+        final DoubleVector argument = jme.mul(terms.c[i]).add(terms.b[i]);
+        group = argument.lanewise(COS).mul(terms.a[i]).add(group);
+      }
+
+      sum = jme.mul(sum).add(group);
+    }
+    return sum.div(1e8);
+  }
+
+  private static double[] column(final double[][] rows, final int index) {
+    final double[] column = new double[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      column[i] = rows[i][index];
+    }
+    return column;
+  }
+}
@@ -0,0 +1,60 @@
+package net.e175.klaus.solarpositioning.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarPosition;
+import net.e175.klaus.solarpositioning.VectorSPA;
+import org.junit.jupiter.api.Test;
+
+class VectorSeriesKernelTest {
+
+  private static final double TOLERANCE = 1e-8;
+
+  private static final ObserverSite SITE = new ObserverSite(39.742476, -105.1786, 1830.14);
+
+  @Test
+  void testKernelIsUsed() {
+    // the build adds the incubator module to the test JVM
+    assertTrue(VectorSPA.isVectorized());
+  }
+
+  @Test
+  void testAgainstSpa() {
+    final long[] epochMillis = randomEpochMillis(1003);
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    VectorSPA.calculateSolarPositions(epochMillis, SITE, 67, 820, 11, azimuth, zenithAngle);
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      ZonedDateTime time = Instant.ofEpochMilli(epochMillis[i]).atZone(ZoneOffset.UTC);
+      SolarPosition expected = SPA.calculateSolarPosition(time, SITE, 67, 820, 11);
+      SolarPosition single = VectorSPA.calculateSolarPosition(time, SITE, 67, 820, 11);
+
+      assertEquals(expected.azimuth(), azimuth[i], TOLERANCE, time.toString());
+      assertEquals(expected.zenithAngle(), zenithAngle[i], TOLERANCE, time.toString());
+      assertEquals(expected.azimuth(), single.azimuth(), TOLERANCE, time.toString());
+      assertEquals(expected.zenithAngle(), single.zenithAngle(), TOLERANCE, time.toString());
+    }
+  }
+
+  private static long[] randomEpochMillis(int count) {
+    final SplittableRandom random = new SplittableRandom(3);
+    final long minSeconds =
+        ZonedDateTime.of(-2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long maxSeconds =
+        ZonedDateTime.of(6000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+
+    final long[] epochMillis = new long[count];
+    for (int i = 0; i < count; i++) {
+      epochMillis[i] = random.nextLong(minSeconds, maxSeconds) * 1000 + random.nextInt(1000);
+    }
+    return epochMillis;
+  }
+}
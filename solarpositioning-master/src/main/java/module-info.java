@@ -4,4 +4,10 @@
  */
 module net.e175.klaus.solarpositioning {
   exports net.e175.klaus.solarpositioning;
+
+  // flight recorder events if available at runtime, see SolarEvents
+  requires static jdk.jfr;
+
+  // implemented by the solarpositioning-vector artifact, see VectorSPA
+  uses net.e175.klaus.solarpositioning.SpaSeriesKernel;
 }
@@ -0,0 +1,301 @@
+package net.e175.klaus.solarpositioning;
+
+import static java.lang.Math.*;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Fast approximation of the SPA ephemeris over a fixed time window, using piecewise Chebyshev
+ * polynomials.
+ *
+ * <p>On creation, the geocentric right ascension, declination, radius vector, and the nutation part
+ * of the apparent sidereal time (equation of the equinoxes) are sampled from the full SPA algorithm
+ * and fitted segment by segment. Afterwards, each evaluation costs a few dozen multiply-adds
+ * instead of several hundred trigonometric function calls, making this attractive for dense time
+ * series.
+ *
+ * <p>With the default settings (segments of one day, polynomial degree 8), the fitted ephemeris
+ * deviates from SPA by less than 1e-8 degrees in right ascension, declination and sidereal time,
+ * and topocentric positions agree with SPA to about 1e-7 degrees. This is far below SPA's own
+ * uncertainty of +/-0.0003 degrees. Longer segments or lower degrees trade accuracy for memory and
+ * fitting time; deviations in right ascension, measured in 128-day windows every 250 years from
+ * -2000 to 6000, stayed below:
+ *
+ * <ul>
+ *   <li>1 day, degree 8: 4e-9°
+ *   <li>8 days, degree 8: 6e-9°
+ *   <li>8 days, degree 5: 5e-7°
+ *   <li>32 days, degree 8: 5e-5°
+ * </ul>
+ *
+ * <p>As with the {@link ZonedDateTime}-based SPA methods, any fraction of a second is ignored.
+ * Delta T is fixed for the whole window. Instances are immutable and thread-safe.
+ *
+ * @see SPA#calculateEphemeris(ZonedDateTime, double)
+ */
+public final class ChebyshevEphemeris {
+
+  private static final Duration DEFAULT_SEGMENT_LENGTH = Duration.ofDays(1);
+  private static final int DEFAULT_DEGREE = 8;
+  private static final int MAX_DEGREE = 30;
+  private static final Duration MAX_SEGMENT_LENGTH = Duration.ofDays(32);
+
+  // fitted quantities, in order of their coefficient blocks
+  private static final int ALPHA = 0;
+  private static final int DELTA = 1;
+  private static final int R = 2;
+  private static final int EQUATION_OF_EQUINOXES = 3;
+  private static final int QUANTITIES = 4;
+
+  private final double startJd;
+  private final double endJd;
+  private final double segmentDays;
+  private final int segmentCount;
+  private final int degree;
+  private final double[] coefficients;
+
+  private ChebyshevEphemeris(
+      final double startJd,
+      final double endJd,
+      final double segmentDays,
+      final int segmentCount,
+      final int degree,
+      final double deltaT) {
+    this.startJd = startJd;
+    this.endJd = endJd;
+    this.segmentDays = segmentDays;
+    this.segmentCount = segmentCount;
+    this.degree = degree;
+    this.coefficients = new double[segmentCount * QUANTITIES * (degree + 1)];
+
+    final int n = degree + 1;
+    final double[] ephemeris = new double[SPA.EPHEMERIS_SIZE];
+    final double[][] samples = new double[QUANTITIES][n];
+
+    final SolarEvents.EphemerisCacheRefill event = SolarEvents.ephemerisCacheRefill();
+    for (int s = 0; s < segmentCount; s++) {
+      final double halfSpan = segmentDays / 2;
+      final double mid = startJd + s * segmentDays + halfSpan;
+
+      // sample at Chebyshev nodes, in chronological order
+      for (int k = 0; k < n; k++) {
+        final double jd = mid - halfSpan * cos(PI * (k + 0.5) / n);
+        SPA.calculateEphemeris(jd, deltaT, ephemeris, 0);
+
+        samples[ALPHA][k] = ephemeris[1];
+        samples[DELTA][k] = ephemeris[2];
+        samples[R][k] = ephemeris[3];
+        samples[EQUATION_OF_EQUINOXES][k] =
+            ephemeris[0]
+                - SPA.calculateMeanSiderealTimeAtGreenwich(jd, JulianDate.julianCentury(jd));
+      }
+
+      // right ascension wraps around at 360°, so unwrap relative to the first sample
+      final double[] alpha = samples[ALPHA];
+      for (int k = 1; k < n; k++) {
+        alpha[k] += 360.0 * rint((alpha[0] - alpha[k]) / 360.0);
+      }
+
+      for (int q = 0; q < QUANTITIES; q++) {
+        final int offset = offset(s, q);
+        for (int j = 0; j < n; j++) {
+          double sum = 0;
+          for (int k = 0; k < n; k++) {
+            // nodes were sampled in reverse order, hence the sign flip for odd j
+            sum += samples[q][k] * cos(PI * j * (k + 0.5) / n);
+          }
+          final double sign = (j % 2 == 0) ? 1.0 : -1.0;
+          coefficients[offset + j] = sign * sum * 2.0 / n;
+        }
+        coefficients[offset] /= 2.0;
+      }
+    }
+    event.finish("ChebyshevEphemeris", SPA.Accuracy.FULL, segmentCount * n);
+  }
+
+  /**
+   * Fit an ephemeris for the given time window, using segments of one day and the default
+   * polynomial degree.
+   *
+   * @param start Start of the time window (inclusive).
+   * @param end End of the time window (inclusive).
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @return Fitted ephemeris
+   * @throws IllegalArgumentException if end is before start, or if the time window is too long
+   */
+  public static ChebyshevEphemeris fit(
+      final ZonedDateTime start, final ZonedDateTime end, final double deltaT) {
+    return fit(start, end, deltaT, DEFAULT_SEGMENT_LENGTH, DEFAULT_DEGREE);
+  }
+
+  /**
+   * Fit an ephemeris for the given time window.
+   *
+   * @param start Start of the time window (inclusive).
+   * @param end End of the time window (inclusive).
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param segmentLength Length of each fitted segment, at least one minute and at most 32 days.
+   * @param degree Degree of the fitted polynomials, between 1 and 30.
+   * @return Fitted ephemeris
+   * @throws IllegalArgumentException if end is before start, for unsupported segment lengths or
+   *     degrees, or if the time window is too long to hold all coefficients in one array
+   */
+  public static ChebyshevEphemeris fit(
+      final ZonedDateTime start,
+      final ZonedDateTime end,
+      final double deltaT,
+      final Duration segmentLength,
+      final int degree) {
+    if (end.isBefore(start)) {
+      throw new IllegalArgumentException("end is before start");
+    }
+    if (segmentLength.compareTo(Duration.ofMinutes(1)) < 0
+        || segmentLength.compareTo(MAX_SEGMENT_LENGTH) > 0) {
+      throw new IllegalArgumentException("unsupported segment length");
+    }
+    if (degree < 1 || degree > MAX_DEGREE) {
+      throw new IllegalArgumentException("unsupported degree");
+    }
+
+    final double startJd = JulianDate.calcJulianDate(start.toEpochSecond());
+    final double endJd = JulianDate.calcJulianDate(end.toEpochSecond());
+    final double segmentDays = segmentLength.getSeconds() / 86400.0;
+    final long segmentCount = max(1, (long) ceil((endJd - startJd) / segmentDays));
+    try {
+      Math.toIntExact(Math.multiplyExact(segmentCount, QUANTITIES * (degree + 1)));
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("time window too long", e);
+    }
+
+    return new ChebyshevEphemeris(startJd, endJd, segmentDays, (int) segmentCount, degree, deltaT);
+  }
+
+  /**
+   * Evaluate the fitted ephemeris.
+   *
+   * @param date Point in time within the fitted window.
+   * @return Geocentric solar coordinates and sidereal time, approximating {@link
+   *     SPA#calculateEphemeris(ZonedDateTime, double)}
+   * @throws IllegalArgumentException if the date is outside the fitted window
+   */
+  public SpaEphemeris calculateEphemeris(final ZonedDateTime date) {
+    final double[] ephemeris = new double[SPA.EPHEMERIS_SIZE];
+    calculateEphemeris(JulianDate.calcJulianDate(date.toEpochSecond()), ephemeris, 0);
+    return new SpaEphemeris(ephemeris[0], ephemeris[1], ephemeris[2], ephemeris[3]);
+  }
+
+  /**
+   * Calculate topocentric solar position using the fitted ephemeris.
+   *
+   * @param date Point in time within the fitted window.
+   * @param site Observer's location.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException if the date is outside the fitted window
+   * @see SolarPosition
+   */
+  public SolarPosition calculateSolarPosition(
+      final ZonedDateTime date,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature) {
+    return SPA.calculateSolarPosition(
+        calculateEphemeris(date), site, pressure, temperature, SolarMetrics.Source.CHEBYSHEV);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time using the fitted
+   * ephemeris, writing the results into caller-supplied arrays. No objects are allocated per
+   * element.
+   *
+   * @param epochMillis Points in time within the fitted window, in milliseconds since
+   *     1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException if any point in time is outside the fitted window, or for too
+   *     short output arrays
+   */
+  public void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    MathUtil.checkOutputLength(epochMillis.length, azimuth, zenithAngle);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final double[] ephemeris = new double[SPA.EPHEMERIS_SIZE];
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double jd = JulianDate.calcJulianDate(Math.floorDiv(epochMillis[i], 1000L));
+      calculateEphemeris(jd, ephemeris, 0);
+      SPA.calculateTopocentricSolarPosition(
+          ephemeris[0],
+          ephemeris[1],
+          ephemeris[2],
+          ephemeris[3],
+          site,
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          i);
+    }
+    event.finish(SPA.Accuracy.FULL, 1, epochMillis.length);
+    SolarMetrics.positionsCalculated(
+        SPA.Accuracy.FULL, SolarMetrics.Source.CHEBYSHEV, epochMillis.length, start);
+  }
+
+  /**
+   * Evaluate the fitted ephemeris for a Julian date, writing nu, alpha, delta and R into
+   * consecutive elements of the given array, as {@link SPA#calculateEphemeris(double, double,
+   * double[], int)} does.
+   */
+  void calculateEphemeris(final double jd, final double[] ephemeris, final int offset) {
+    if (!(jd >= startJd && jd <= endJd)) {
+      throw new IllegalArgumentException("date outside of fitted time window");
+    }
+
+    final int s = min((int) ((jd - startJd) / segmentDays), segmentCount - 1);
+    final double x = 2.0 * (jd - startJd - s * segmentDays) / segmentDays - 1.0;
+
+    ephemeris[offset] =
+        SPA.calculateMeanSiderealTimeAtGreenwich(jd, JulianDate.julianCentury(jd))
+            + evaluate(offset(s, EQUATION_OF_EQUINOXES), x);
+    ephemeris[offset + 1] = SPA.limitDegreesTo360(evaluate(offset(s, ALPHA), x));
+    ephemeris[offset + 2] = evaluate(offset(s, DELTA), x);
+    ephemeris[offset + 3] = evaluate(offset(s, R), x);
+  }
+
+  private int offset(final int segment, final int quantity) {
+    return (segment * QUANTITIES + quantity) * (degree + 1);
+  }
+
+  /** Evaluate a Chebyshev series using Clenshaw's recurrence. */
+  private double evaluate(final int offset, final double x) {
+    double b1 = 0;
+    double b2 = 0;
+    for (int j = degree; j >= 1; j--) {
+      final double b0 = 2.0 * x * b1 - b2 + coefficients[offset + j];
+      b2 = b1;
+      b1 = b0;
+    }
+    return x * b1 - b2 + coefficients[offset];
+  }
+}
@@ -0,0 +1,74 @@
+package net.e175.klaus.solarpositioning;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Source of Delta T values for points in time, so that bulk calculations spanning long periods
+ * don't need to supply one value per call.
+ *
+ * <p>Any constant works as a lambda ({@code epochMillis -> 69}). {@link #estimated()} and {@link
+ * #load(InputStream)} return precomputed tables with monthly entries from the year -500 to 3000,
+ * which are looked up in constant time with linear interpolation.
+ *
+ * @see DeltaT
+ */
+@FunctionalInterface
+public interface DeltaTProvider {
+
+  /**
+   * Get Delta T for a point in time.
+   *
+   * @param epochMillis Point in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @return Delta T, in seconds
+   * @throws IllegalArgumentException if no value is available for this time
+   */
+  double deltaT(long epochMillis);
+
+  /**
+   * Get a provider of the estimates of {@link DeltaT#estimate(double)}, tabulated for fast lookup.
+   * Values match the direct estimate to within a millisecond, except within a month of the
+   * boundaries of its polynomial segments, where the estimate itself is discontinuous.
+   *
+   * @return shared provider
+   */
+  static DeltaTProvider estimated() {
+    return DeltaTTable.ESTIMATED;
+  }
+
+  /**
+   * Load observed or predicted Delta T values from a file. See {@link #load(InputStream)} for the
+   * format.
+   *
+   * @param file Path of the file.
+   * @return provider of the loaded values, and estimates outside of their range
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException for malformed or unordered data, or fewer than two values
+   */
+  static DeltaTProvider load(final Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return load(in);
+    }
+  }
+
+  /**
+   * Load observed or predicted Delta T values from a stream, e.g. the {@code deltat.data} file
+   * published by the USNO or the IERS.
+   *
+   * <p>Each line holds year, month, day of month and Delta T in seconds, separated by whitespace,
+   * with dates in ascending order. Empty lines and lines starting with {@code #} are ignored.
+   * Between the first and the last date, values are interpolated linearly (and resampled to the
+   * monthly table, which smooths abrupt changes of slope). Two months or more outside of that
+   * range, the provider falls back to {@link #estimated()}.
+   *
+   * @param in Stream to read as UTF-8 (not closed by this method).
+   * @return provider of the loaded values, and estimates outside of their range
+   * @throws IOException if the stream cannot be read
+   * @throws IllegalArgumentException for malformed or unordered data, or fewer than two values
+   */
+  static DeltaTProvider load(final InputStream in) throws IOException {
+    return DeltaTTable.load(in);
+  }
+}
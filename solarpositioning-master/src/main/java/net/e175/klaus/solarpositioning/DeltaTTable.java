@@ -0,0 +1,132 @@
+package net.e175.klaus.solarpositioning;
+
+import static java.lang.Math.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Delta T values at uniform steps of one mean Gregorian month, from the year {@value #FIRST_YEAR}
+ * to {@value #LAST_YEAR}. Years are mapped linearly to time, starting at 2000-01-01T00:00:00Z.
+ */
+final class DeltaTTable implements DeltaTProvider {
+
+  static final int FIRST_YEAR = -500;
+  static final int LAST_YEAR = 3000;
+
+  /** Length of the mean Gregorian year, in seconds. */
+  private static final long SECONDS_PER_YEAR = 31556952;
+
+  private static final long STEP = SECONDS_PER_YEAR / 12;
+
+  private static final long EPOCH_SECOND_2000 = 946684800;
+
+  private static final long START = EPOCH_SECOND_2000 + (FIRST_YEAR - 2000) * SECONDS_PER_YEAR;
+
+  private static final int SIZE = (LAST_YEAR - FIRST_YEAR) * 12 + 1;
+
+  // lookups multiply rather than divide
+  private static final double STEPS_PER_MILLI = 1.0 / (1000.0 * STEP);
+  private static final double START_STEPS = (double) START / STEP;
+
+  static final DeltaTTable ESTIMATED = new DeltaTTable(estimates());
+
+  private final double[] table;
+
+  private DeltaTTable(final double[] table) {
+    this.table = table;
+  }
+
+  private static double[] estimates() {
+    final double[] table = new double[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      table[i] = DeltaT.estimate(FIRST_YEAR + i / 12.0);
+    }
+    return table;
+  }
+
+  @Override
+  public double deltaT(final long epochMillis) {
+    final double position = epochMillis * STEPS_PER_MILLI - START_STEPS;
+    if (position >= 0 && position < SIZE - 1) {
+      final int i = (int) position;
+      final double fraction = position - i;
+      return table[i] + fraction * (table[i + 1] - table[i]);
+    }
+    return DeltaT.estimate(decimalYear(epochMillis / 1000.0));
+  }
+
+  private static double decimalYear(final double epochSecond) {
+    return 2000 + (epochSecond - EPOCH_SECOND_2000) / SECONDS_PER_YEAR;
+  }
+
+  static DeltaTTable load(final InputStream in) throws IOException {
+    double[] times = new double[1024];
+    double[] values = new double[1024];
+    int size = 0;
+
+    final BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+
+      final String[] parts = line.split("\\s+");
+      final double time;
+      final double value;
+      try {
+        if (parts.length != 4) {
+          throw new IllegalArgumentException();
+        }
+        final LocalDate date =
+            LocalDate.of(
+                Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        time = date.toEpochDay() * 86400.0;
+        value = Double.parseDouble(parts[3]);
+      } catch (IllegalArgumentException | DateTimeException e) {
+        throw new IllegalArgumentException("malformed delta T data in line " + lineNumber, e);
+      }
+      if (size > 0 && time <= times[size - 1]) {
+        throw new IllegalArgumentException("dates not in ascending order in line " + lineNumber);
+      }
+
+      if (size == times.length) {
+        times = Arrays.copyOf(times, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      times[size] = time;
+      values[size] = value;
+      size++;
+    }
+    if (size < 2) {
+      throw new IllegalArgumentException("need at least two delta T values, got " + size);
+    }
+
+    // resample the loaded values onto the grid, keeping estimates outside their range; the grid
+    // points just outside are extrapolated, so lookups are interpolated right up to the ends
+    final double[] table = ESTIMATED.table.clone();
+    final int first = (int) max(0, floor((times[0] - START) / STEP));
+    final int last = (int) min(SIZE - 1, ceil((times[size - 1] - START) / STEP));
+    int j = 0;
+    for (int i = first; i <= last; i++) {
+      final double time = START + (double) i * STEP;
+      while (j < size - 2 && times[j + 1] < time) {
+        j++;
+      }
+      table[i] =
+          values[j] + (time - times[j]) / (times[j + 1] - times[j]) * (values[j + 1] - values[j]);
+    }
+    return new DeltaTTable(table);
+  }
+}
@@ -2,7 +2,7 @@ package net.e175.klaus.solarpositioning;
 
 import static java.lang.Math.*;
 
-import java.time.ZoneOffset;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 
 /**
@@ -15,6 +15,7 @@ import java.time.ZonedDateTime;
  * procedure.
  *
  * @author Klaus Brunner
+ * @see GrenaAlgorithm
  */
 public final class Grena3 {
 
@@ -50,6 +51,26 @@ public final class Grena3 {
     return calculateSolarPosition(date, latitude, longitude, deltaT, Double.NaN, Double.NaN);
   }
 
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This method does not perform refraction correction. The site's elevation is not used by this
+   * algorithm.
+   *
+   * @param date Observer's local date and time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final ZonedDateTime date, final ObserverSite site, final double deltaT) {
+    return calculateSolarPosition(date, site, deltaT, Double.NaN, Double.NaN);
+  }
+
   /**
    * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
    * time on a certain point of the Earth's surface.
@@ -82,8 +103,318 @@ public final class Grena3 {
       final double pressure,
       final double temperature) {
     MathUtil.checkLatLonRange(latitude, longitude);
+    return calculateSolarPosition(
+        calcT(date), longitude, sin(toRadians(latitude)), deltaT, pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This is equivalent to {@link #calculateSolarPosition(ZonedDateTime, double, double, double,
+   * double, double)}, but skips validation and trigonometry of the observer's coordinates, which
+   * have been done once when creating the {@link ObserverSite}. The site's elevation is not used by
+   * this algorithm.
+   *
+   * @param date Observer's local date and time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final ZonedDateTime date,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        calcT(date), site.longitude(), site.sinPhi, deltaT, pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This gives the same results as {@link #calculateSolarPosition(ZonedDateTime, double, double,
+   * double, double, double)} for the same point in time, but avoids time zone and calendar
+   * conversions.
+   *
+   * @param instant Point in time.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final Instant instant,
+      final double latitude,
+      final double longitude,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    MathUtil.checkLatLonRange(latitude, longitude);
+    return calculateSolarPosition(
+        calcT(instant.getEpochSecond()),
+        longitude,
+        sin(toRadians(latitude)),
+        deltaT,
+        pressure,
+        temperature);
+  }
 
-    final double t = calcT(date);
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This gives the same results as {@link #calculateSolarPosition(ZonedDateTime, ObserverSite,
+   * double, double, double)} for the same point in time, but avoids time zone and calendar
+   * conversions. The site's elevation is not used by this algorithm.
+   *
+   * @param instant Point in time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final Instant instant,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        calcT(instant.getEpochSecond()),
+        site.longitude(),
+        site.sinPhi,
+        deltaT,
+        pressure,
+        temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This is equivalent to {@link #calculateSolarPosition(Instant, ObserverSite, double, double,
+   * double)}, with Delta T taken from a provider. The site's elevation is not used by this
+   * algorithm.
+   *
+   * @param instant Point in time.
+   * @param site Observer's location.
+   * @param deltaT Provider of Delta T values. See {@link DeltaTProvider#estimated()}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final Instant instant,
+      final ObserverSite site,
+      final DeltaTProvider deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        instant, site, deltaT.deltaT(instant.toEpochMilli()), pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, writing the results into caller-supplied arrays.
+   *
+   * <p>This is equivalent to calling {@link #calculateSolarPosition(ZonedDateTime, ObserverSite,
+   * double, double, double)} for each element, and yields identical results, but does not allocate
+   * any objects per element. The site's elevation is not used by this algorithm.
+   *
+   * <p>As with the {@link ZonedDateTime}-based methods, any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    MathUtil.checkOutputLength(epochMillis.length, azimuth, zenithAngle);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double t = calcT(Math.floorDiv(epochMillis[i], 1000L));
+      calculateSolarPosition(
+          t, site.longitude(), site.sinPhi, deltaT, pressure, temperature, azimuth, zenithAngle, i);
+    }
+    event.finish(GrenaAlgorithm.ALGORITHM_3, 1, epochMillis.length);
+    SolarMetrics.positionsCalculated(
+        GrenaAlgorithm.ALGORITHM_3, SolarMetrics.Source.DIRECT, epochMillis.length, start);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, with Delta T taken from a provider for each of them.
+   *
+   * <p>Results are identical to those of {@link #calculateSolarPositions(long[], ObserverSite,
+   * double, double, double, double[], double[])} called with the provider's value for each point in
+   * time. The site's elevation is not used by this algorithm.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Provider of Delta T values. See {@link DeltaTProvider#estimated()}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final DeltaTProvider deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    MathUtil.checkOutputLength(epochMillis.length, azimuth, zenithAngle);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double t = calcT(Math.floorDiv(epochMillis[i], 1000L));
+      calculateSolarPosition(
+          t,
+          site.longitude(),
+          site.sinPhi,
+          deltaT.deltaT(epochMillis[i]),
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          i);
+    }
+    event.finish(GrenaAlgorithm.ALGORITHM_3, 1, epochMillis.length);
+    SolarMetrics.positionsCalculated(
+        GrenaAlgorithm.ALGORITHM_3, SolarMetrics.Source.DIRECT, epochMillis.length, start);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, passing each result to a sink instead of creating {@link SolarPosition}
+   * objects.
+   *
+   * <p>Results are identical to those of {@link #calculateSolarPositions(long[], ObserverSite,
+   * double, double, double, double[], double[])}. The site's elevation is not used by this
+   * algorithm.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param sink Receiver of the results, called in order with the index into {@code epochMillis}.
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final SolarPositionSink sink) {
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final double[] azimuth = new double[1];
+    final double[] zenithAngle = new double[1];
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double t = calcT(Math.floorDiv(epochMillis[i], 1000L));
+      calculateSolarPosition(
+          t, site.longitude(), site.sinPhi, deltaT, pressure, temperature, azimuth, zenithAngle, 0);
+      sink.accept(i, azimuth[0], zenithAngle[0]);
+    }
+    event.finish(GrenaAlgorithm.ALGORITHM_3, 1, epochMillis.length);
+    SolarMetrics.positionsCalculated(
+        GrenaAlgorithm.ALGORITHM_3, SolarMetrics.Source.DIRECT, epochMillis.length, start);
+  }
+
+  private static SolarPosition calculateSolarPosition(
+      final double t,
+      final double longitude,
+      final double sinPhi,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    final long start = SolarMetrics.start();
+    final double[] azimuth = new double[1];
+    final double[] zenithAngle = new double[1];
+
+    calculateSolarPosition(
+        t, longitude, sinPhi, deltaT, pressure, temperature, azimuth, zenithAngle, 0);
+
+    SolarMetrics.positionsCalculated(
+        GrenaAlgorithm.ALGORITHM_3, SolarMetrics.Source.DIRECT, 1, start);
+    return new SolarPosition(azimuth[0], zenithAngle[0]);
+  }
+
+  /**
+   * Calculate topocentric solar position for a time as returned by {@link #calcT(long)}, for an
+   * observer at the given longitude (in degrees) and sine of latitude, writing the result at the
+   * given index of the output arrays.
+   */
+  static void calculateSolarPosition(
+      final double t,
+      final double longitude,
+      final double sinPhi,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle,
+      final int index) {
     final double tE = t + 1.1574e-5 * deltaT;
     final double omegaAtE = 0.0172019715 * tE;
 
@@ -107,14 +438,31 @@ public final class Grena3 {
 
     final double delta = asin(sLambda * sEpsilon);
 
-    double H = 1.7528311 + 6.300388099 * t + toRadians(longitude) - alpha;
+    final double H = 1.7528311 + 6.300388099 * t + toRadians(longitude) - alpha;
+
+    calculateTopocentricSolarPosition(
+        delta, H, sinPhi, pressure, temperature, azimuth, zenithAngle, index);
+  }
+
+  /**
+   * Steps following the "short procedure", shared by all of Grena's algorithms: parallax and
+   * refraction correction, from geocentric declination and hour angle (both in radians).
+   */
+  static void calculateTopocentricSolarPosition(
+      final double delta,
+      double H,
+      final double sinPhi,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle,
+      final int index) {
     H = ((H + PI) % (2 * PI)) - PI;
     if (H < -PI) {
       H += 2 * PI;
     }
 
-    // end of "short procedure"
-    final double sPhi = sin(toRadians(latitude));
+    final double sPhi = sinPhi;
     final double cPhi = sqrt((1 - sPhi * sPhi));
     final double sDelta = sin(delta);
     final double cDelta = sqrt(1 - sDelta * sDelta);
@@ -137,16 +485,31 @@ public final class Grena3 {
 
     final double z = PI / 2 - eP - deltaRe;
 
-    return new SolarPosition(toDegrees(gamma + PI) % 360.0, toDegrees(z));
+    azimuth[index] = toDegrees(gamma + PI) % 360.0;
+    zenithAngle[index] = toDegrees(z);
   }
 
   private static double calcT(ZonedDateTime date) {
-    ZonedDateTime utc = date.withZoneSameInstant(ZoneOffset.UTC);
+    return calcT(date.toEpochSecond());
+  }
+
+  /** Days since 2060-01-01T00:00:00Z, ignoring fractions of a second. */
+  static double calcT(final long epochSecond) {
+    final int date = JulianDate.civilFromEpochDay(Math.floorDiv(epochSecond, 86400L));
+    final int secondOfDay = (int) Math.floorMod(epochSecond, 86400L);
+
+    return calcT(
+        date >> 9,
+        (date >> 5) & 15,
+        date & 31,
+        secondOfDay / 3600,
+        (secondOfDay / 60) % 60,
+        secondOfDay % 60);
+  }
 
-    int m = utc.getMonthValue();
-    int y = utc.getYear();
-    final int d = utc.getDayOfMonth();
-    final double h = utc.getHour() + utc.getMinute() / 60d + utc.getSecond() / (60d * 60);
+  private static double calcT(
+      int y, int m, final int d, final int hour, final int minute, final int second) {
+    final double h = hour + minute / 60d + second / (60d * 60);
 
     if (m <= 2) {
       m += 12;
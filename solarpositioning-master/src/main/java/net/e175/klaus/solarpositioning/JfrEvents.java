@@ -0,0 +1,147 @@
+package net.e175.klaus.solarpositioning;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder implementations of the {@link SolarEvents}. Only loaded if the {@code jdk.jfr}
+ * module is available.
+ */
+final class JfrEvents {
+
+  private static final String CATEGORY = "Solar Positioning";
+
+  private JfrEvents() {}
+
+  static SolarEvents.PositionBatch positionBatch() {
+    final PositionBatchEvent event = new PositionBatchEvent();
+    event.begin();
+    return event;
+  }
+
+  static SolarEvents.SunriseRange sunriseRange() {
+    final SunriseRangeEvent event = new SunriseRangeEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Whether the cache refill event is recorded. Refills can happen once per day of a long range,
+   * and once a recording has run, the flight recorder's instrumentation keeps even disabled events
+   * from being optimized away, so they aren't created at all unless enabled.
+   */
+  static boolean ephemerisCacheRefillEnabled() {
+    return FlightRecorder.isInitialized() && RefillType.TYPE.isEnabled();
+  }
+
+  static SolarEvents.EphemerisCacheRefill ephemerisCacheRefill() {
+    final EphemerisCacheRefillEvent event = new EphemerisCacheRefillEvent();
+    event.begin();
+    return event;
+  }
+
+  /** Looks up the event type only once the flight recorder is initialized anyway. */
+  private static final class RefillType {
+    static final EventType TYPE = EventType.getEventType(EphemerisCacheRefillEvent.class);
+  }
+
+  @Name("net.e175.klaus.solarpositioning.PositionBatch")
+  @Label("Solar Position Batch")
+  @Description("Topocentric solar positions calculated for a number of sites and points in time")
+  @Category(CATEGORY)
+  @Enabled(false)
+  @StackTrace(false)
+  static final class PositionBatchEvent extends Event implements SolarEvents.PositionBatch {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Site Count")
+    int siteCount;
+
+    @Label("Time Count")
+    int timeCount;
+
+    @Override
+    public void finish(
+        final SolarPositionAlgorithm algorithm, final int siteCount, final int timeCount) {
+      if (shouldCommit()) {
+        this.algorithm = SolarEvents.name(algorithm);
+        this.siteCount = siteCount;
+        this.timeCount = timeCount;
+        commit();
+      }
+    }
+  }
+
+  @Name("net.e175.klaus.solarpositioning.SunriseRange")
+  @Label("Sunrise Range")
+  @Description("Sunrise, transit and sunset times calculated for a number of sites and days")
+  @Category(CATEGORY)
+  @Enabled(false)
+  @StackTrace(false)
+  static final class SunriseRangeEvent extends Event implements SolarEvents.SunriseRange {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Horizon")
+    String horizon;
+
+    @Label("Site Count")
+    int siteCount;
+
+    @Label("Time Count")
+    @Description("Number of days")
+    int timeCount;
+
+    @Override
+    public void finish(final SPA.Horizon horizon, final int siteCount, final int timeCount) {
+      if (shouldCommit()) {
+        this.algorithm = SolarEvents.name(SPA.Accuracy.FULL);
+        this.horizon = horizon.name();
+        this.siteCount = siteCount;
+        this.timeCount = timeCount;
+        commit();
+      }
+    }
+  }
+
+  @Name("net.e175.klaus.solarpositioning.EphemerisCacheRefill")
+  @Label("Ephemeris Cache Refill")
+  @Description("Observer-independent values calculated on a cache miss")
+  @Category(CATEGORY)
+  @Enabled(false)
+  @StackTrace(false)
+  static final class EphemerisCacheRefillEvent extends Event
+      implements SolarEvents.EphemerisCacheRefill {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Time Count")
+    @Description("Number of points in time or segments calculated")
+    int timeCount;
+
+    @Override
+    public void finish(
+        final String cache, final SolarPositionAlgorithm algorithm, final int timeCount) {
+      if (shouldCommit()) {
+        this.cache = cache;
+        this.algorithm = SolarEvents.name(algorithm);
+        this.timeCount = timeCount;
+        commit();
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package net.e175.klaus.solarpositioning;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -12,6 +13,30 @@ import java.time.ZonedDateTime;
  * @author Klaus Brunner
  */
 public record JulianDate(double julianDate, double deltaT) {
+
+  /** Index of the Julian day (JD) in arrays filled by {@link #calculateTimeScales}. */
+  public static final int JD = 0;
+
+  /** Index of the Julian ephemeris day (JDE) in arrays filled by {@link #calculateTimeScales}. */
+  public static final int JDE = 1;
+
+  /** Index of the Julian century (JC) in arrays filled by {@link #calculateTimeScales}. */
+  public static final int JC = 2;
+
+  /**
+   * Index of the Julian ephemeris century (JCE) in arrays filled by {@link #calculateTimeScales}.
+   */
+  public static final int JCE = 3;
+
+  /**
+   * Index of the Julian ephemeris millennium (JME) in arrays filled by {@link
+   * #calculateTimeScales}.
+   */
+  public static final int JME = 4;
+
+  /** Number of values written by {@link #calculateTimeScales}. */
+  public static final int TIME_SCALES_SIZE = 5;
+
   /**
    * Construct a Julian date, assuming deltaT to be 0.
    *
@@ -37,24 +62,134 @@ public record JulianDate(double julianDate, double deltaT) {
         deltaT);
   }
 
+  /**
+   * Construct a Julian date for an instant, observing deltaT. This gives the same result as {@link
+   * #JulianDate(ZonedDateTime, double)} for the same point in time, but avoids time zone and
+   * calendar conversions.
+   *
+   * @param instant point in time; any fraction of a second is ignored
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link #JulianDate(ZonedDateTime, double)}.
+   */
+  public JulianDate(final Instant instant, final double deltaT) {
+    this(calcJulianDate(instant.getEpochSecond()), deltaT);
+  }
+
+  /**
+   * Create a Julian date from milliseconds since the epoch, observing deltaT. This gives the same
+   * result as {@link #JulianDate(ZonedDateTime, double)} for the same point in time, without
+   * creating any java.time objects.
+   *
+   * @param epochMillis milliseconds since 1970-01-01T00:00:00Z; any fraction of a second is ignored
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link #JulianDate(ZonedDateTime, double)}.
+   * @return Julian date
+   */
+  public static JulianDate ofEpochMillis(final long epochMillis, final double deltaT) {
+    return new JulianDate(calcJulianDate(Math.floorDiv(epochMillis, 1000L)), deltaT);
+  }
+
+  /**
+   * Calculate all time scales for a point in time at once, writing them into a caller-supplied
+   * array at indexes {@link #JD}, {@link #JDE}, {@link #JC}, {@link #JCE} and {@link #JME}
+   * (relative to the offset). The values are identical to those of the accessors of {@link
+   * #ofEpochMillis(long, double)}, but no objects are created, so the array can be reused in loops.
+   *
+   * @param epochMillis milliseconds since 1970-01-01T00:00:00Z; any fraction of a second is ignored
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link #JulianDate(ZonedDateTime, double)}.
+   * @param timeScales Output array, with room for {@value #TIME_SCALES_SIZE} values at the offset.
+   * @param offset Index of the first value to write.
+   */
+  public static void calculateTimeScales(
+      final long epochMillis, final double deltaT, final double[] timeScales, final int offset) {
+    calculateTimeScales(
+        calcJulianDate(Math.floorDiv(epochMillis, 1000L)), deltaT, timeScales, offset);
+  }
+
+  /**
+   * Calculate all time scales for a Julian date at once, writing them into a caller-supplied array
+   * at indexes {@link #JD}, {@link #JDE}, {@link #JC}, {@link #JCE} and {@link #JME} (relative to
+   * the offset). The values are identical to those of the accessors of {@code new
+   * JulianDate(julianDate, deltaT)}.
+   *
+   * @param julianDate Julian date.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link #JulianDate(ZonedDateTime, double)}.
+   * @param timeScales Output array, with room for {@value #TIME_SCALES_SIZE} values at the offset.
+   * @param offset Index of the first value to write.
+   */
+  public static void calculateTimeScales(
+      final double julianDate, final double deltaT, final double[] timeScales, final int offset) {
+    final double jce = julianEphemerisCentury(julianDate, deltaT);
+
+    timeScales[offset + JD] = julianDate;
+    timeScales[offset + JDE] = julianDate + deltaT / 86400.0;
+    timeScales[offset + JC] = julianCentury(julianDate);
+    timeScales[offset + JCE] = jce;
+    timeScales[offset + JME] = jce / 10.0;
+  }
+
   static ZonedDateTime createUtcDateTime(final ZonedDateTime fromDateTime) {
     return fromDateTime.withZoneSameInstant(ZoneOffset.UTC);
   }
 
   private static double calcJulianDate(LocalDateTime localDateTime) {
-    int y = localDateTime.getYear();
-    int m = localDateTime.getMonthValue();
+    return calcJulianDate(
+        localDateTime.getYear(),
+        localDateTime.getMonthValue(),
+        localDateTime.getDayOfMonth(),
+        localDateTime.getHour(),
+        localDateTime.getMinute(),
+        localDateTime.getSecond());
+  }
+
+  /**
+   * Calculate the Julian date for an instant given in seconds since the epoch, without going
+   * through java.time objects. The result is identical to the one obtained via {@link
+   * #JulianDate(ZonedDateTime, double)} for the same instant.
+   */
+  static double calcJulianDate(final long epochSecond) {
+    final int date = civilFromEpochDay(Math.floorDiv(epochSecond, 86400L));
+    final int secondOfDay = (int) Math.floorMod(epochSecond, 86400L);
 
+    return calcJulianDate(
+        date >> 9,
+        (date >> 5) & 15,
+        date & 31,
+        secondOfDay / 3600,
+        (secondOfDay / 60) % 60,
+        secondOfDay % 60);
+  }
+
+  /**
+   * Convert days since the epoch to a proleptic Gregorian calendar date, packed into an int as
+   * {@code year << 9 | month << 5 | day} to avoid allocation. Unpack with {@code date >> 9}, {@code
+   * (date >> 5) & 15} and {@code date & 31}.
+   */
+  static int civilFromEpochDay(final long epochDay) {
+    // see Hinnant, "chrono-Compatible Low-Level Date Algorithms"
+    final long z = epochDay + 719468;
+    final long era = Math.floorDiv(z, 146097L);
+    final long doe = z - era * 146097;
+    final long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    final long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    final long mp = (5 * doy + 2) / 153;
+    final int d = (int) (doy - (153 * mp + 2) / 5 + 1);
+    final int m = (int) (mp < 10 ? mp + 3 : mp - 9);
+    final int y = (int) (yoe + era * 400 + (m <= 2 ? 1 : 0));
+
+    return y << 9 | m << 5 | d;
+  }
+
+  private static double calcJulianDate(
+      int y, int m, final int day, final int hour, final int minute, final int second) {
     if (m < 3) {
       y = y - 1;
       m = m + 12;
     }
 
-    final double d =
-        localDateTime.getDayOfMonth()
-            + (localDateTime.getHour()
-                    + (localDateTime.getMinute() + localDateTime.getSecond() / 60.0) / 60.0)
-                / 24.0;
+    final double d = day + (hour + (minute + second / 60.0) / 60.0) / 24.0;
     final double jd =
         Math.floor(365.25 * (y + 4716.0)) + Math.floor(30.6001 * (m + 1)) + d - 1524.5;
     final double a = Math.floor(y / 100.0);
@@ -63,16 +198,24 @@ public record JulianDate(double julianDate, double deltaT) {
     return jd + b;
   }
 
+  static double julianCentury(final double julianDate) {
+    return (julianDate - 2451545.0) / 36525.0;
+  }
+
+  static double julianEphemerisCentury(final double julianDate, final double deltaT) {
+    return (julianDate + deltaT / 86400.0 - 2451545.0) / 36525.0;
+  }
+
   public double julianEphemerisDay() {
     return julianDate + deltaT / 86400.0;
   }
 
   public double julianCentury() {
-    return (julianDate - 2451545.0) / 36525.0;
+    return julianCentury(julianDate);
   }
 
   public double julianEphemerisCentury() {
-    return (julianEphemerisDay() - 2451545.0) / 36525.0;
+    return julianEphemerisCentury(julianDate, deltaT);
   }
 
   public double julianEphemerisMillennium() {
@@ -26,10 +26,17 @@ final class MathUtil {
 
   static void checkLatLonRange(double latitude, double longitude) {
     if (latitude < -90.0 || latitude > 90.0 || longitude < -180.0 || longitude > 180.0) {
+      SolarMetrics.inputRejected();
       throw new IllegalArgumentException("latitude/longitude out of range");
     }
   }
 
+  static void checkOutputLength(int length, double[] first, double[] second) {
+    if (first.length < length || second.length < length) {
+      throw new IllegalArgumentException("output array too short");
+    }
+  }
+
   static boolean checkRefractionParamsUsable(double pressure, double temperature) {
     return Double.isFinite(pressure)
         && Double.isFinite(temperature)
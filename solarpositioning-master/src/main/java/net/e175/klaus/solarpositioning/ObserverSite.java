@@ -0,0 +1,107 @@
+package net.e175.klaus.solarpositioning;
+
+import static java.lang.Math.*;
+
+/**
+ * An observer's location on the Earth's surface. Coordinates are validated once on construction,
+ * and site-dependent terms used by the position algorithms are precalculated, so repeated
+ * calculations for the same site are cheaper than with the latitude/longitude-based methods.
+ *
+ * <p>Instances are immutable and may be shared freely.
+ *
+ * @see SPA#calculateSolarPosition(java.time.ZonedDateTime, ObserverSite, double, double, double)
+ * @see Grena3#calculateSolarPosition(java.time.ZonedDateTime, ObserverSite, double, double, double)
+ */
+public final class ObserverSite {
+  private final double latitude;
+  private final double longitude;
+  private final double elevation;
+
+  /** Latitude in radians. */
+  final double phi;
+
+  final double sinPhi;
+  final double cosPhi;
+
+  /** Observer's position relative to the Earth's axis, used for parallax correction in SPA. */
+  final double parallaxX;
+
+  final double parallaxY;
+
+  /**
+   * Create an observer site.
+   *
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param elevation Observer's elevation, in meters.
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   */
+  public ObserverSite(final double latitude, final double longitude, final double elevation) {
+    MathUtil.checkLatLonRange(latitude, longitude);
+
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.elevation = elevation;
+
+    this.phi = toRadians(latitude);
+    this.sinPhi = sin(phi);
+    this.cosPhi = cos(phi);
+
+    final double u = atan(0.99664719 * tan(phi));
+    this.parallaxX = cos(u) + elevation * cosPhi / 6378140;
+    this.parallaxY = 0.99664719 * sin(u) + (elevation * sinPhi) / 6378140;
+  }
+
+  /**
+   * Create an observer site at sea level.
+   *
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   */
+  public ObserverSite(final double latitude, final double longitude) {
+    this(latitude, longitude, 0);
+  }
+
+  /**
+   * @return Observer's latitude, in degrees (negative south of equator).
+   */
+  public double latitude() {
+    return latitude;
+  }
+
+  /**
+   * @return Observer's longitude, in degrees (negative west of Greenwich).
+   */
+  public double longitude() {
+    return longitude;
+  }
+
+  /**
+   * @return Observer's elevation, in meters.
+   */
+  public double elevation() {
+    return elevation;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return o instanceof ObserverSite other
+        && Double.compare(latitude, other.latitude) == 0
+        && Double.compare(longitude, other.longitude) == 0
+        && Double.compare(elevation, other.elevation) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Double.hashCode(latitude);
+    result = 31 * result + Double.hashCode(longitude);
+    return 31 * result + Double.hashCode(elevation);
+  }
+
+  @Override
+  public String toString() {
+    return "ObserverSite[latitude=%s, longitude=%s, elevation=%s]"
+        .formatted(latitude, longitude, elevation);
+  }
+}
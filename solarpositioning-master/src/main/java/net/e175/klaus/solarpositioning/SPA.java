@@ -2,10 +2,20 @@ package net.e175.klaus.solarpositioning;
 
 import static java.lang.Math.*;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Calculate topocentric solar position and sunrise/sunset/twilight times using the NREL SPA
@@ -22,9 +32,18 @@ import java.util.Map;
 public final class SPA {
 
   private static final int MS_PER_DAY = 24 * 60 * 60 * 1000;
+  private static final long SECONDS_PER_DAY = 24 * 60 * 60;
 
   private static final double SUNRISE_SUNSET = -0.83337;
 
+  /** Aberration constant, in arc seconds. */
+  private static final double ABERRATION_CONSTANT = 20.4898;
+
+  /** Maximum absolute Julian ephemeris millennium/century within SPA's range of -2000 to 6000. */
+  private static final double MAX_JME = 4;
+
+  private static final double MAX_JCE = 40;
+
   private SPA() {}
 
   /**
@@ -48,6 +67,118 @@ public final class SPA {
     }
   }
 
+  /**
+   * Accuracy levels for solar position calculation. Lower levels skip the smallest periodic terms
+   * of the Earth heliocentric longitude, latitude, and radius vector series as well as of the
+   * nutation series, which makes calculation faster.
+   *
+   * <p>Additional errors given below are the maximum deviations from {@link #FULL} in zenith angle
+   * and in azimuth as projected onto the sky (azimuth itself is ill-defined near the zenith), as
+   * measured for random points in time between the years -2000 and 6000. Speedups are relative to
+   * {@link #FULL} and were measured for {@link #calculateSolarPositions(long[], ObserverSite,
+   * double, double, double, Accuracy, double[], double[])}.
+   *
+   * <p>As {@link SolarPositionAlgorithm}s, the levels calculate positions just like the static
+   * methods of {@link SPA} taking an {@code Accuracy}.
+   */
+  public enum Accuracy implements SolarPositionAlgorithm {
+    /** The complete SPA algorithm, with uncertainties of +/-0.0003 degrees. */
+    FULL(0),
+    /** Additional error of up to 0.00002 degrees, about 3 times faster. */
+    HIGH(0.00001),
+    /** Additional error of up to 0.001 degrees, about 6 times faster. */
+    MEDIUM(0.0001);
+
+    final double[][][] termsL;
+    final double[][][] termsB;
+    final double[][][] termsR;
+    final double[][] termsPE;
+    final double[][] termsY;
+
+    Accuracy(double threshold) {
+      this.termsL = truncateLBRTerms(TERMS_L, toDegrees(1e-8), threshold);
+      this.termsB = truncateLBRTerms(TERMS_B, toDegrees(1e-8), threshold);
+      this.termsR = truncateLBRTerms(TERMS_R, 1e-8 * ABERRATION_CONSTANT / 3600, threshold);
+
+      final boolean[] keep = new boolean[TERMS_PE.length];
+      int kept = 0;
+      for (int i = 0; i < TERMS_PE.length; i++) {
+        final double[] row = TERMS_PE[i];
+        final double psi = abs(row[0]) + abs(row[1]) * MAX_JCE;
+        final double epsilon = abs(row[2]) + abs(row[3]) * MAX_JCE;
+        keep[i] = max(psi, epsilon) / 36000000 >= threshold;
+        kept += keep[i] ? 1 : 0;
+      }
+
+      this.termsPE = new double[kept][];
+      this.termsY = new double[kept][];
+      for (int i = 0, j = 0; i < TERMS_PE.length; i++) {
+        if (keep[i]) {
+          this.termsPE[j] = TERMS_PE[i];
+          this.termsY[j] = TERMS_Y[i];
+          j++;
+        }
+      }
+    }
+
+    /**
+     * Drop rows whose maximum contribution over the supported time range, converted to degrees
+     * using the given scale, is below the threshold.
+     */
+    private static double[][][] truncateLBRTerms(
+        double[][][] terms, double degreesPerUnit, double threshold) {
+      final double[][][] truncated = new double[terms.length][][];
+      for (int i = 0; i < terms.length; i++) {
+        final double scale = degreesPerUnit * pow(MAX_JME, i);
+        truncated[i] =
+            Arrays.stream(terms[i])
+                .filter(row -> abs(row[0]) * scale >= threshold)
+                .toArray(double[][]::new);
+      }
+      return truncated;
+    }
+
+    @Override
+    public SolarPosition calculateSolarPosition(
+        final Instant instant,
+        final ObserverSite site,
+        final double deltaT,
+        final double pressure,
+        final double temperature) {
+      return SPA.calculateSolarPosition(
+          JulianDate.calcJulianDate(instant.getEpochSecond()),
+          deltaT,
+          site,
+          pressure,
+          temperature,
+          this);
+    }
+
+    @Override
+    public void calculateSolarPositions(
+        final long[] epochMillis,
+        final ObserverSite site,
+        final double deltaT,
+        final double pressure,
+        final double temperature,
+        final double[] azimuth,
+        final double[] zenithAngle) {
+      SPA.calculateSolarPositions(
+          epochMillis, site, deltaT, pressure, temperature, this, azimuth, zenithAngle);
+    }
+
+    @Override
+    public void calculateSolarPositions(
+        final long[] epochMillis,
+        final ObserverSite site,
+        final double deltaT,
+        final double pressure,
+        final double temperature,
+        final SolarPositionSink sink) {
+      SPA.calculateSolarPositions(epochMillis, site, deltaT, pressure, temperature, this, sink);
+    }
+  }
+
   /**
    * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
    * time on a certain point of the Earth's surface.
@@ -80,24 +211,842 @@ public final class SPA {
       final double deltaT,
       final double pressure,
       final double temperature) {
-    MathUtil.checkLatLonRange(latitude, longitude);
+    return calculateSolarPosition(
+        date, new ObserverSite(latitude, longitude, elevation), deltaT, pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This follows the SPA algorithm described in Reda, I.; Andreas, A. (2003): Solar Position
+   * Algorithm for Solar Radiation Applications. NREL Report No. TP-560-34302, Revised January 2008.
+   * The algorithm is supposed to work for the years -2000 to 6000, with uncertainties of +/-0.0003
+   * degrees.
+   *
+   * <p>This method does not perform refraction correction.
+   *
+   * @param date Observer's local date and time.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param elevation Observer's elevation, in meters.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final ZonedDateTime date,
+      final double latitude,
+      final double longitude,
+      final double elevation,
+      final double deltaT) {
+    return calculateSolarPosition(
+        date, latitude, longitude, elevation, deltaT, Double.NaN, Double.NaN);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This is equivalent to {@link #calculateSolarPosition(ZonedDateTime, double, double, double,
+   * double, double, double)}, but skips validation and trigonometry of the observer's coordinates,
+   * which have been done once when creating the {@link ObserverSite}.
+   *
+   * @param date Observer's local date and time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final ZonedDateTime date,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(date, site, deltaT, pressure, temperature, Accuracy.FULL);
+  }
+
+  /**
+   * Calculate topocentric solar position with a reduced accuracy level: the location of the sun on
+   * the sky for a certain point in time on a certain point of the Earth's surface.
+   *
+   * @param date Observer's local date and time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param accuracy Accuracy level, trading speed for additional error. See {@link Accuracy}.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final ZonedDateTime date,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final Accuracy accuracy) {
+    return calculateSolarPosition(
+        JulianDate.calcJulianDate(date.toEpochSecond()),
+        deltaT,
+        site,
+        pressure,
+        temperature,
+        accuracy);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This method does not perform refraction correction.
+   *
+   * @param date Observer's local date and time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final ZonedDateTime date, final ObserverSite site, final double deltaT) {
+    return calculateSolarPosition(date, site, deltaT, Double.NaN, Double.NaN);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This gives the same results as {@link #calculateSolarPosition(ZonedDateTime, double, double,
+   * double, double, double, double)} for the same point in time, but avoids time zone and calendar
+   * conversions. As with the {@link ZonedDateTime}-based methods, any fraction of a second is
+   * ignored.
+   *
+   * @param instant Point in time.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param elevation Observer's elevation, in meters.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final Instant instant,
+      final double latitude,
+      final double longitude,
+      final double elevation,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        instant, new ObserverSite(latitude, longitude, elevation), deltaT, pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This gives the same results as {@link #calculateSolarPosition(ZonedDateTime, ObserverSite,
+   * double, double, double)} for the same point in time, but avoids time zone and calendar
+   * conversions. As with the {@link ZonedDateTime}-based methods, any fraction of a second is
+   * ignored.
+   *
+   * @param instant Point in time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final Instant instant,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        JulianDate.calcJulianDate(instant.getEpochSecond()), deltaT, site, pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>This is equivalent to {@link #calculateSolarPosition(Instant, ObserverSite, double, double,
+   * double)}, with Delta T taken from a provider.
+   *
+   * @param instant Point in time.
+   * @param site Observer's location.
+   * @param deltaT Provider of Delta T values. See {@link DeltaTProvider#estimated()}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final Instant instant,
+      final ObserverSite site,
+      final DeltaTProvider deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        instant, site, deltaT.deltaT(instant.toEpochMilli()), pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * <p>Unlike the {@link ZonedDateTime}- and {@link Instant}-based methods, this uses the Julian
+   * date as given, including any fraction of a second.
+   *
+   * @param julianDate Point in time as Julian date, including delta T. See {@link
+   *     JulianDate#ofEpochMillis(long, double)}.
+   * @param site Observer's location.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final JulianDate julianDate,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        julianDate.julianDate(), julianDate.deltaT(), site, pressure, temperature);
+  }
+
+  private static SolarPosition calculateSolarPosition(
+      final double julianDate,
+      final double deltaT,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(julianDate, deltaT, site, pressure, temperature, Accuracy.FULL);
+  }
+
+  private static SolarPosition calculateSolarPosition(
+      final double julianDate,
+      final double deltaT,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature,
+      final Accuracy accuracy) {
+    final long start = SolarMetrics.start();
+    final double[] ephemeris = new double[EPHEMERIS_SIZE];
+    final double[] azimuth = new double[1];
+    final double[] zenithAngle = new double[1];
+
+    calculateEphemeris(julianDate, deltaT, accuracy, ephemeris, 0);
+    calculateTopocentricSolarPosition(
+        ephemeris[0],
+        ephemeris[1],
+        ephemeris[2],
+        ephemeris[3],
+        site,
+        pressure,
+        temperature,
+        azimuth,
+        zenithAngle,
+        0);
+
+    SolarMetrics.positionsCalculated(accuracy, SolarMetrics.Source.DIRECT, 1, start);
+    return new SolarPosition(azimuth[0], zenithAngle[0]);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, writing the results into caller-supplied arrays.
+   *
+   * <p>This is equivalent to calling {@link #calculateSolarPosition(ZonedDateTime, double, double,
+   * double, double, double, double)} for each element, and yields identical results, but does not
+   * allocate any objects per element. Output arrays may be reused across calls.
+   *
+   * <p>As with the {@link ZonedDateTime}-based methods, any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param elevation Observer's elevation, in meters.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException for nonsensical latitude/longitude or too short output arrays
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final double latitude,
+      final double longitude,
+      final double elevation,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    calculateSolarPositions(
+        epochMillis,
+        new ObserverSite(latitude, longitude, elevation),
+        deltaT,
+        pressure,
+        temperature,
+        azimuth,
+        zenithAngle);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, writing the results into caller-supplied arrays.
+   *
+   * <p>This is equivalent to calling {@link #calculateSolarPosition(ZonedDateTime, ObserverSite,
+   * double, double, double)} for each element, and yields identical results, but does not allocate
+   * any objects per element. Output arrays may be reused across calls.
+   *
+   * <p>As with the {@link ZonedDateTime}-based methods, any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    calculateSolarPositions(
+        epochMillis, site, deltaT, pressure, temperature, Accuracy.FULL, azimuth, zenithAngle);
+  }
+
+  /**
+   * Calculate topocentric solar positions with a reduced accuracy level for a series of points in
+   * time at one point of the Earth's surface, writing the results into caller-supplied arrays.
+   *
+   * <p>As with the {@link ZonedDateTime}-based methods, any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param accuracy Accuracy level, trading speed for additional error. See {@link Accuracy}.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final Accuracy accuracy,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    MathUtil.checkOutputLength(epochMillis.length, azimuth, zenithAngle);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final double[] ephemeris = new double[EPHEMERIS_SIZE];
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double jd = JulianDate.calcJulianDate(Math.floorDiv(epochMillis[i], 1000L));
+      calculateEphemeris(jd, deltaT, accuracy, ephemeris, 0);
+      calculateTopocentricSolarPosition(
+          ephemeris[0],
+          ephemeris[1],
+          ephemeris[2],
+          ephemeris[3],
+          site,
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          i);
+    }
+    event.finish(accuracy, 1, epochMillis.length);
+    SolarMetrics.positionsCalculated(
+        accuracy, SolarMetrics.Source.DIRECT, epochMillis.length, start);
+  }
 
-    // calculate Julian (ephemeris) date and millennium
-    final JulianDate jd = new JulianDate(date, deltaT);
-    final double jme = jd.julianEphemerisMillennium();
-    final double jce = jd.julianEphemerisCentury();
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, with Delta T taken from a provider for each of them.
+   *
+   * <p>Results are identical to those of {@link #calculateSolarPositions(long[], ObserverSite,
+   * double, double, double, double[], double[])} called with the provider's value for each point in
+   * time. As with the {@link ZonedDateTime}-based methods, any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Provider of Delta T values. See {@link DeltaTProvider#estimated()}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final DeltaTProvider deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    MathUtil.checkOutputLength(epochMillis.length, azimuth, zenithAngle);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final double[] ephemeris = new double[EPHEMERIS_SIZE];
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double jd = JulianDate.calcJulianDate(Math.floorDiv(epochMillis[i], 1000L));
+      calculateEphemeris(jd, deltaT.deltaT(epochMillis[i]), ephemeris, 0);
+      calculateTopocentricSolarPosition(
+          ephemeris[0],
+          ephemeris[1],
+          ephemeris[2],
+          ephemeris[3],
+          site,
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          i);
+    }
+    event.finish(Accuracy.FULL, 1, epochMillis.length);
+    SolarMetrics.positionsCalculated(
+        Accuracy.FULL, SolarMetrics.Source.DIRECT, epochMillis.length, start);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, passing each result to a sink instead of creating {@link SolarPosition}
+   * objects.
+   *
+   * <p>Results are identical to those of {@link #calculateSolarPositions(long[], ObserverSite,
+   * double, double, double, double[], double[])}. As with the {@link ZonedDateTime}-based methods,
+   * any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param sink Receiver of the results, called in order with the index into {@code epochMillis}.
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final SolarPositionSink sink) {
+    calculateSolarPositions(epochMillis, site, deltaT, pressure, temperature, Accuracy.FULL, sink);
+  }
+
+  /**
+   * Calculate topocentric solar positions with a reduced accuracy level for a series of points in
+   * time at one point of the Earth's surface, passing each result to a sink.
+   *
+   * <p>As with the {@link ZonedDateTime}-based methods, any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param accuracy Accuracy level, trading speed for additional error. See {@link Accuracy}.
+   * @param sink Receiver of the results, called in order with the index into {@code epochMillis}.
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final Accuracy accuracy,
+      final SolarPositionSink sink) {
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final double[] ephemeris = new double[EPHEMERIS_SIZE];
+    final double[] azimuth = new double[1];
+    final double[] zenithAngle = new double[1];
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double jd = JulianDate.calcJulianDate(Math.floorDiv(epochMillis[i], 1000L));
+      calculateEphemeris(jd, deltaT, accuracy, ephemeris, 0);
+      calculateTopocentricSolarPosition(
+          ephemeris[0],
+          ephemeris[1],
+          ephemeris[2],
+          ephemeris[3],
+          site,
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          0);
+      sink.accept(i, azimuth[0], zenithAngle[0]);
+    }
+    event.finish(accuracy, 1, epochMillis.length);
+    SolarMetrics.positionsCalculated(
+        accuracy, SolarMetrics.Source.DIRECT, epochMillis.length, start);
+  }
+
+  /**
+   * Calculate the observer-independent part of the SPA algorithm for a certain point in time: the
+   * geocentric position of the sun and the apparent sidereal time.
+   *
+   * <p>The result can be turned into topocentric positions for any number of observers using {@link
+   * #calculateSolarPosition(SpaEphemeris, double, double, double, double, double)}, which is much
+   * cheaper than calling {@link #calculateSolarPosition(ZonedDateTime, double, double, double,
+   * double, double, double)} for each of them. Results are identical.
+   *
+   * @param date Point in time.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @return Geocentric solar coordinates and sidereal time
+   */
+  public static SpaEphemeris calculateEphemeris(final ZonedDateTime date, final double deltaT) {
+    return calculateEphemeris(date, deltaT, Accuracy.FULL);
+  }
+
+  /**
+   * Calculate the observer-independent part of the SPA algorithm with a reduced accuracy level.
+   *
+   * @param date Point in time.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param accuracy Accuracy level, trading speed for additional error. See {@link Accuracy}.
+   * @return Geocentric solar coordinates and sidereal time
+   */
+  public static SpaEphemeris calculateEphemeris(
+      final ZonedDateTime date, final double deltaT, final Accuracy accuracy) {
+    final double[] ephemeris = new double[EPHEMERIS_SIZE];
+
+    calculateEphemeris(
+        JulianDate.calcJulianDate(date.toEpochSecond()), deltaT, accuracy, ephemeris, 0);
+
+    return new SpaEphemeris(ephemeris[0], ephemeris[1], ephemeris[2], ephemeris[3]);
+  }
+
+  /**
+   * Calculate topocentric solar position from a previously calculated ephemeris: the location of
+   * the sun on the sky for the ephemeris' point in time on a certain point of the Earth's surface.
+   *
+   * @param ephemeris Geocentric solar coordinates, see {@link #calculateEphemeris(ZonedDateTime,
+   *     double)}.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param elevation Observer's elevation, in meters.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final SpaEphemeris ephemeris,
+      final double latitude,
+      final double longitude,
+      final double elevation,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        ephemeris, new ObserverSite(latitude, longitude, elevation), pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar position from a previously calculated ephemeris, without refraction
+   * correction.
+   *
+   * @param ephemeris Geocentric solar coordinates, see {@link #calculateEphemeris(ZonedDateTime,
+   *     double)}.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param elevation Observer's elevation, in meters.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final SpaEphemeris ephemeris,
+      final double latitude,
+      final double longitude,
+      final double elevation) {
+    return calculateSolarPosition(
+        ephemeris, latitude, longitude, elevation, Double.NaN, Double.NaN);
+  }
+
+  /**
+   * Calculate topocentric solar position from a previously calculated ephemeris: the location of
+   * the sun on the sky for the ephemeris' point in time on a certain point of the Earth's surface.
+   *
+   * @param ephemeris Geocentric solar coordinates, see {@link #calculateEphemeris(ZonedDateTime,
+   *     double)}.
+   * @param site Observer's location.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  public static SolarPosition calculateSolarPosition(
+      final SpaEphemeris ephemeris,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(
+        ephemeris, site, pressure, temperature, SolarMetrics.Source.EPHEMERIS);
+  }
+
+  /** Like the public method, reporting positions to {@link SolarMetrics} from the given source. */
+  static SolarPosition calculateSolarPosition(
+      final SpaEphemeris ephemeris,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature,
+      final SolarMetrics.Source source) {
+    final long start = SolarMetrics.start();
+    final double[] azimuth = new double[1];
+    final double[] zenithAngle = new double[1];
+
+    calculateTopocentricSolarPosition(
+        ephemeris.apparentSiderealTime(),
+        ephemeris.rightAscension(),
+        ephemeris.declination(),
+        ephemeris.radiusVector(),
+        site,
+        pressure,
+        temperature,
+        azimuth,
+        zenithAngle,
+        0);
+
+    SolarMetrics.positionsCalculated(Accuracy.FULL, source, 1, start);
+    return new SolarPosition(azimuth[0], zenithAngle[0]);
+  }
+
+  /**
+   * Calculate topocentric solar positions for many observers at the ephemeris' point in time,
+   * writing the results into caller-supplied arrays. No objects are allocated per observer.
+   *
+   * @param ephemeris Geocentric solar coordinates, see {@link #calculateEphemeris(ZonedDateTime,
+   *     double)}.
+   * @param sites Observers' locations.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code sites}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code sites}.
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  public static void calculateSolarPositions(
+      final SpaEphemeris ephemeris,
+      final ObserverSite[] sites,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    MathUtil.checkOutputLength(sites.length, azimuth, zenithAngle);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    for (int i = 0; i < sites.length; i++) {
+      calculateTopocentricSolarPosition(
+          ephemeris.apparentSiderealTime(),
+          ephemeris.rightAscension(),
+          ephemeris.declination(),
+          ephemeris.radiusVector(),
+          sites[i],
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          i);
+    }
+    event.finish(Accuracy.FULL, sites.length, 1);
+    SolarMetrics.positionsCalculated(
+        Accuracy.FULL, SolarMetrics.Source.EPHEMERIS, sites.length, start);
+  }
+
+  /**
+   * Calculate topocentric solar positions for many observers at the ephemeris' point in time,
+   * passing each result to a sink instead of creating {@link SolarPosition} objects.
+   *
+   * @param ephemeris Geocentric solar coordinates, see {@link #calculateEphemeris(ZonedDateTime,
+   *     double)}.
+   * @param sites Observers' locations.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param sink Receiver of the results, called in order with the index into {@code sites}.
+   */
+  public static void calculateSolarPositions(
+      final SpaEphemeris ephemeris,
+      final ObserverSite[] sites,
+      final double pressure,
+      final double temperature,
+      final SolarPositionSink sink) {
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final double[] azimuth = new double[1];
+    final double[] zenithAngle = new double[1];
+
+    for (int i = 0; i < sites.length; i++) {
+      calculateTopocentricSolarPosition(
+          ephemeris.apparentSiderealTime(),
+          ephemeris.rightAscension(),
+          ephemeris.declination(),
+          ephemeris.radiusVector(),
+          sites[i],
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          0);
+      sink.accept(i, azimuth[0], zenithAngle[0]);
+    }
+    event.finish(Accuracy.FULL, sites.length, 1);
+    SolarMetrics.positionsCalculated(
+        Accuracy.FULL, SolarMetrics.Source.EPHEMERIS, sites.length, start);
+  }
+
+  /** Number of values written by {@link #calculateEphemeris(double, double, double[], int)}. */
+  static final int EPHEMERIS_SIZE = 4;
+
+  /**
+   * Calculate the observer-independent part of SPA, writing nu, alpha, delta (all in degrees) and R
+   * into consecutive elements of the given array.
+   */
+  static void calculateEphemeris(
+      final double julianDate, final double deltaT, final double[] ephemeris, final int offset) {
+    calculateEphemeris(julianDate, deltaT, Accuracy.FULL, ephemeris, offset);
+  }
+
+  static void calculateEphemeris(
+      final double julianDate,
+      final double deltaT,
+      final Accuracy accuracy,
+      final double[] ephemeris,
+      final int offset) {
+    // calculate Julian (ephemeris) century and millennium
+    final double jc = JulianDate.julianCentury(julianDate);
+    final double jce = JulianDate.julianEphemerisCentury(julianDate, deltaT);
+    final double jme = jce / 10.0;
 
     // calculate Earth heliocentric longitude, L
-    final double[] lTerms = calculateLBRTerms(jme, TERMS_L);
-    final double lDegrees = limitDegreesTo360(toDegrees(calculateLBRPolynomial(jme, lTerms)));
+    final double l = calculateLBRPolynomial(jme, accuracy.termsL);
 
     // calculate Earth heliocentric latitude, B
-    final double[] bTerms = calculateLBRTerms(jme, TERMS_B);
-    final double bDegrees = limitDegreesTo360(toDegrees(calculateLBRPolynomial(jme, bTerms)));
+    final double b = calculateLBRPolynomial(jme, accuracy.termsB);
 
     // calculate Earth radius vector, R
-    final double[] rTerms = calculateLBRTerms(jme, TERMS_R);
-    final double r = calculateLBRPolynomial(jme, rTerms);
+    final double r = calculateLBRPolynomial(jme, accuracy.termsR);
+
+    // calculate nutation
+    final double deltaPsi = calculateDeltaPsi(jce, accuracy.termsPE, accuracy.termsY);
+    final double deltaEpsilon = calculateDeltaEpsilon(jce, accuracy.termsPE, accuracy.termsY);
+
+    calculateEphemeris(julianDate, jc, jme, l, b, r, deltaPsi, deltaEpsilon, ephemeris, offset);
+  }
+
+  /**
+   * Finish ephemeris calculation from Earth heliocentric coordinates (L and B in radians, R in AU)
+   * and nutation in longitude and obliquity (in degrees).
+   */
+  static void calculateEphemeris(
+      final double julianDate,
+      final double jc,
+      final double jme,
+      final double l,
+      final double b,
+      final double r,
+      final double deltaPsi,
+      final double deltaEpsilon,
+      final double[] ephemeris,
+      final int offset) {
+    final double lDegrees = limitDegreesTo360(toDegrees(l));
+    final double bDegrees = limitDegreesTo360(toDegrees(b));
     assert r != 0;
 
     // calculate geocentric longitude, theta
@@ -106,26 +1055,20 @@ public final class SPA {
     final double betaDegrees = -bDegrees;
     final double beta = toRadians(betaDegrees);
 
-    // calculate nutation
-    final double[] xTerms = calculateNutationTerms(jce);
-    final double[] deltaPsiI = calculateDeltaPsiI(jce, xTerms);
-    final double[] deltaEpsilonI = calculateDeltaEpsilonI(jce, xTerms);
-    final double deltaPsi = calculateDeltaPsiEpsilon(deltaPsiI);
-    final double deltaEpsilon = calculateDeltaPsiEpsilon(deltaEpsilonI);
-
     // calculate the true obliquity of the ecliptic
-    final double epsilonDegrees = calculateTrueObliquityOfEcliptic(jd, deltaEpsilon);
+    final double epsilonDegrees = calculateTrueObliquityOfEcliptic(jme, deltaEpsilon);
     final double epsilon = toRadians(epsilonDegrees);
 
     // calculate aberration correction
-    final double deltaTau = -20.4898 / (3600 * r);
+    final double deltaTau = -ABERRATION_CONSTANT / (3600 * r);
 
     // calculate the apparent sun longitude
     final double lambdaDegrees = thetaDegrees + deltaPsi + deltaTau;
     final double lambda = toRadians(lambdaDegrees);
 
     // Calculate the apparent sidereal time at Greenwich
-    final double nuDegrees = calculateApparentSiderealTimeAtGreenwich(jd, deltaPsi, epsilonDegrees);
+    final double nuDegrees =
+        calculateApparentSiderealTimeAtGreenwich(julianDate, jc, deltaPsi, epsilonDegrees);
 
     // Calculate the geocentric sun right ascension
     final double alphaDegrees = calculateGeocentricSunRightAscension(beta, epsilon, lambda);
@@ -133,61 +1076,68 @@ public final class SPA {
     // Calculate geocentric sun declination
     final double deltaDegrees = toDegrees(calculateGeocentricSunDeclination(beta, epsilon, lambda));
 
-    // Calculate observer local hour angle
-    final double hDegrees = limitDegreesTo360(nuDegrees + longitude - alphaDegrees);
-    final double h = toRadians(hDegrees);
+    ephemeris[offset] = nuDegrees;
+    ephemeris[offset + 1] = alphaDegrees;
+    ephemeris[offset + 2] = deltaDegrees;
+    ephemeris[offset + 3] = r;
+  }
 
-    // Calculate the topocentric sun right ascension and sun declination
-    final double xiDegrees = 8.794 / (3600 * r);
-    final double xi = toRadians(xiDegrees);
-    final double phi = toRadians(latitude);
-    final double delta = toRadians(deltaDegrees);
-    final double u = atan(0.99664719 * tan(phi));
-    final double x = cos(u) + elevation * cos(phi) / 6378140;
-    final double y = 0.99664719 * sin(u) + (elevation * sin(phi)) / 6378140;
+  /**
+   * Calculate the apparent sun longitude lambda (in degrees, not limited to 0..360) for a Julian
+   * ephemeris century, as in {@link #calculateEphemeris(double, double, Accuracy, double[], int)}.
+   */
+  static double calculateApparentSunLongitude(final double jce, final Accuracy accuracy) {
+    final double jme = jce / 10.0;
 
-    final double x1 = cos(delta) - x * sin(xi) * cos(h);
-    final double deltaAlphaDegrees = toDegrees(atan2(-x * sin(xi) * sin(h), x1));
-    final double deltaPrime =
-        atan2((sin(delta) - y * sin(xi)) * cos(toRadians(deltaAlphaDegrees)), x1);
+    // calculate Earth heliocentric longitude, L, and radius vector, R
+    final double lDegrees =
+        limitDegreesTo360(toDegrees(calculateLBRPolynomial(jme, accuracy.termsL)));
+    final double r = calculateLBRPolynomial(jme, accuracy.termsR);
 
-    // Calculate the topocentric local hour angle,
-    final double hPrimeDegrees = hDegrees - deltaAlphaDegrees;
-    final double hPrime = toRadians(hPrimeDegrees);
+    // calculate geocentric longitude, theta
+    final double thetaDegrees = limitDegreesTo360(lDegrees + 180);
+
+    // calculate nutation in longitude and aberration correction
+    final double deltaPsi = calculateDeltaPsi(jce, accuracy.termsPE, accuracy.termsY);
+    final double deltaTau = -ABERRATION_CONSTANT / (3600 * r);
 
-    return calculateTopocentricSolarPosition(pressure, temperature, phi, deltaPrime, hPrime);
+    return thetaDegrees + deltaPsi + deltaTau;
   }
 
-  /**
-   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
-   * time on a certain point of the Earth's surface.
-   *
-   * <p>This follows the SPA algorithm described in Reda, I.; Andreas, A. (2003): Solar Position
-   * Algorithm for Solar Radiation Applications. NREL Report No. TP-560-34302, Revised January 2008.
-   * The algorithm is supposed to work for the years -2000 to 6000, with uncertainties of +/-0.0003
-   * degrees.
-   *
-   * <p>This method does not perform refraction correction.
-   *
-   * @param date Observer's local date and time.
-   * @param latitude Observer's latitude, in degrees (negative south of equator).
-   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
-   * @param elevation Observer's elevation, in meters.
-   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
-   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
-   *     and {@link DeltaT}.
-   * @return Topocentric solar position (azimuth measured eastward from north)
-   * @throws IllegalArgumentException for nonsensical latitude/longitude
-   * @see SolarPosition
-   */
-  public static SolarPosition calculateSolarPosition(
-      final ZonedDateTime date,
-      final double latitude,
-      final double longitude,
-      final double elevation,
-      final double deltaT) {
-    return calculateSolarPosition(
-        date, latitude, longitude, elevation, deltaT, Double.NaN, Double.NaN);
+  static void calculateTopocentricSolarPosition(
+      final double nuDegrees,
+      final double alphaDegrees,
+      final double deltaDegrees,
+      final double r,
+      final ObserverSite site,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle,
+      final int index) {
+    // Calculate observer local hour angle
+    final double hDegrees = limitDegreesTo360(nuDegrees + site.longitude() - alphaDegrees);
+    final double h = toRadians(hDegrees);
+
+    // Calculate the topocentric sun right ascension and sun declination
+    final double xiDegrees = 8.794 / (3600 * r);
+    final double xi = toRadians(xiDegrees);
+    final double delta = toRadians(deltaDegrees);
+    final double x = site.parallaxX;
+    final double y = site.parallaxY;
+
+    final double x1 = cos(delta) - x * sin(xi) * cos(h);
+    final double deltaAlphaDegrees = toDegrees(atan2(-x * sin(xi) * sin(h), x1));
+    final double deltaPrime =
+        atan2((sin(delta) - y * sin(xi)) * cos(toRadians(deltaAlphaDegrees)), x1);
+
+    // Calculate the topocentric local hour angle,
+    final double hPrimeDegrees = hDegrees - deltaAlphaDegrees;
+    final double hPrime = toRadians(hPrimeDegrees);
+
+    azimuth[index] = calculateTopocentricAzimuthAngle(site, deltaPrime, hPrime);
+    zenithAngle[index] =
+        calculateTopocentricZenithAngle(pressure, temperature, site, deltaPrime, hPrime);
   }
 
   private enum Type {
@@ -196,8 +1146,6 @@ public final class SPA {
     ALL_NIGHT
   }
 
-  private record AlphaDelta(double alpha, double delta) {}
-
   /**
    * Calculate the times of sunrise, sun transit (solar noon), and sunset for a given day. The
    * calculation is based on the astronomical definition of sunrise and sunset, using a refraction
@@ -218,7 +1166,7 @@ public final class SPA {
     return calculateSunriseTransitSet(day, latitude, longitude, deltaT, Horizon.SUNRISE_SUNSET);
   }
 
-  private record RiseSetParams(double nuDegrees, AlphaDelta[] alphaDeltas, double[] m) {}
+  private record RiseSetParams(double nuDegrees, double[] alphaDeltas, double[] m) {}
 
   /**
    * Calculate the times of sunrise, sun transit (solar noon), and sunset for a given day. The
@@ -243,17 +1191,21 @@ public final class SPA {
       final double longitude,
       final double deltaT,
       final Horizon horizon) {
+    final long start = SolarMetrics.start();
     final RiseSetParams params = calcRiseSetParams(day, latitude, longitude);
 
-    return calcRiseAndSet(
-        day,
-        longitude,
-        deltaT,
-        horizon,
-        toRadians(latitude),
-        params.nuDegrees,
-        params.alphaDeltas,
-        params.m);
+    final SunriseResult result =
+        calcRiseAndSet(
+            day,
+            longitude,
+            deltaT,
+            horizon,
+            toRadians(latitude),
+            params.nuDegrees,
+            params.alphaDeltas,
+            params.m);
+    SolarMetrics.sunrisesCalculated(1, start);
+    return result;
   }
 
   /**
@@ -280,8 +1232,83 @@ public final class SPA {
       final double longitude,
       final double deltaT,
       final Horizon... horizons) {
+    final long start = SolarMetrics.start();
+    final Map<Horizon, SunriseResult> result =
+        calcRiseAndSet(
+            day,
+            latitude,
+            longitude,
+            deltaT,
+            calcRiseSetParams(day, latitude, longitude),
+            horizons);
+    SolarMetrics.sunrisesCalculated(1, start);
+    return result;
+  }
 
+  /**
+   * Calculate the sun's transit and its rising and setting through any number of elevation
+   * thresholds for a given day, as one time-sorted list. This is a faster alternative to {@link
+   * #calculateSunriseTransitSet(ZonedDateTime, double, double, double, Horizon...)}, as the
+   * interpolation terms are shared by all thresholds. Times are identical to those returned for
+   * each {@link Horizon} separately.
+   *
+   * @param day Day for which events are to be calculated. The time of day is ignored.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param elevations Elevation thresholds, in degrees. Use {@link Horizon#elevation()} for the
+   *     usual definitions of sunrise/sunset and twilight.
+   * @return Transit and all crossings of the thresholds, sorted by time
+   * @throws IllegalArgumentException for nonsensical latitude/longitude
+   */
+  public static SunEvents calculateSunEvents(
+      final ZonedDateTime day,
+      final double latitude,
+      final double longitude,
+      final double deltaT,
+      final double... elevations) {
+    final long start = SolarMetrics.start();
     final RiseSetParams params = calcRiseSetParams(day, latitude, longitude);
+    final RiseSetInterpolation interpolation =
+        new RiseSetInterpolation(deltaT, params.nuDegrees, params.alphaDeltas);
+    interpolation.site(longitude, toRadians(latitude), params.m[0]);
+    final long dayStartMillis = day.truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli();
+
+    final int capacity = 1 + 2 * elevations.length;
+    final long[] epochMillis = new long[capacity];
+    final int[] types = new int[capacity];
+    final double[] eventElevations = new double[capacity];
+
+    epochMillis[0] = dayStartMillis + (int) (MS_PER_DAY * interpolation.transit());
+    types[0] = SunEvents.TRANSIT;
+    eventElevations[0] = Double.NaN;
+    int size = 1;
+
+    final double[] rts = new double[3];
+    for (final double elevation : elevations) {
+      if (interpolation.riseAndSet(elevation, rts) == Type.NORMAL) {
+        epochMillis[size] = dayStartMillis + (int) (MS_PER_DAY * rts[0]);
+        types[size] = SunEvents.RISING;
+        eventElevations[size++] = elevation;
+        epochMillis[size] = dayStartMillis + (int) (MS_PER_DAY * rts[2]);
+        types[size] = SunEvents.SETTING;
+        eventElevations[size++] = elevation;
+      }
+    }
+
+    SolarMetrics.sunrisesCalculated(1, start);
+    return new SunEvents(epochMillis, types, eventElevations, size);
+  }
+
+  private static Map<Horizon, SunriseResult> calcRiseAndSet(
+      ZonedDateTime day,
+      double latitude,
+      double longitude,
+      double deltaT,
+      RiseSetParams params,
+      Horizon... horizons) {
     final Map<Horizon, SunriseResult> result = new HashMap<>(horizons.length + 1, 1);
 
     for (Horizon horizon : horizons) {
@@ -301,39 +1328,373 @@ public final class SPA {
     return result;
   }
 
+  /**
+   * Calculate the times of sunrise, sun transit (solar noon), and sunset for a range of consecutive
+   * days.
+   *
+   * <p>Consecutive days share two of the three daily ephemerides needed, so each additional day
+   * only costs one new ephemeris (plus nutation) instead of three. Results are identical to calling
+   * {@link #calculateSunriseTransitSet(ZonedDateTime, double, double, double, Horizon)} for each
+   * day.
+   *
+   * <p>The returned stream is lazy and calculates days in order; it does not split for parallel
+   * processing.
+   *
+   * @param startDay First day for which sunrise/transit/sunset are to be calculated. The time of
+   *     day is ignored. Subsequent days are obtained using {@link ZonedDateTime#plusDays(long)}.
+   * @param endDay Day after the last day (exclusive), in the same time zone as {@code startDay}.
+   *     The time of day is ignored.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param horizon Horizon (basically, elevation angle) to use as the sunrise/sunset definition.
+   *     This can be used to calculate twilight times.
+   * @return Stream of one {@link SunriseResult} per day, in order
+   * @throws IllegalArgumentException for nonsensical latitude/longitude, or an end day before the
+   *     start day
+   */
+  public static Stream<SunriseResult> calculateSunriseTransitSets(
+      final ZonedDateTime startDay,
+      final ZonedDateTime endDay,
+      final double latitude,
+      final double longitude,
+      final double deltaT,
+      final Horizon horizon) {
+    return slideDays(
+        startDay,
+        endDay,
+        latitude,
+        longitude,
+        (day, params) ->
+            calcRiseAndSet(
+                day,
+                longitude,
+                deltaT,
+                horizon,
+                toRadians(latitude),
+                params.nuDegrees,
+                params.alphaDeltas,
+                params.m));
+  }
+
+  /**
+   * Calculate the times of sunrise, sun transit (solar noon), and sunset for a range of consecutive
+   * days and several horizon types.
+   *
+   * @param startDay First day for which sunrise/transit/sunset are to be calculated. The time of
+   *     day is ignored. Subsequent days are obtained using {@link ZonedDateTime#plusDays(long)}.
+   * @param endDay Day after the last day (exclusive), in the same time zone as {@code startDay}.
+   *     The time of day is ignored.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param horizons Horizons (basically, elevation angles) to use as the sunrise/sunset definition.
+   *     This can be used to calculate twilight times.
+   * @return Stream of one Map per day, in order, as returned by {@link
+   *     #calculateSunriseTransitSet(ZonedDateTime, double, double, double, Horizon...)}
+   * @throws IllegalArgumentException for nonsensical latitude/longitude, or an end day before the
+   *     start day
+   * @see #calculateSunriseTransitSets(ZonedDateTime, ZonedDateTime, double, double, double,
+   *     Horizon)
+   */
+  public static Stream<Map<Horizon, SunriseResult>> calculateSunriseTransitSets(
+      final ZonedDateTime startDay,
+      final ZonedDateTime endDay,
+      final double latitude,
+      final double longitude,
+      final double deltaT,
+      final Horizon... horizons) {
+    return slideDays(
+        startDay,
+        endDay,
+        latitude,
+        longitude,
+        (day, params) -> calcRiseAndSet(day, latitude, longitude, deltaT, params, horizons));
+  }
+
+  /**
+   * Calculate the times of sunrise, sun transit (solar noon), and sunset for a given day at many
+   * locations.
+   *
+   * <p>Apart from the approximate transit time, the calculation up to the interpolation for each
+   * horizon does not depend on the location: the sidereal time and the sun's position on the day
+   * before, the day itself and the next day are calculated only once. This is much faster than
+   * calling {@link #calculateSunriseTransitSet(ZonedDateTime, double, double, double, Horizon)} for
+   * each site. Results are identical.
+   *
+   * @param day Day for which sunrise/transit/sunset are to be calculated. The time of day is
+   *     ignored.
+   * @param sites Observers' locations. Elevation is ignored.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param horizon Horizon (basically, elevation angle) to use as the sunrise/sunset definition.
+   *     This can be used to calculate twilight times.
+   * @return One {@link SunriseResult} per site, in the order of {@code sites}
+   */
+  public static SunriseResult[] calculateSunriseTransitSets(
+      final ZonedDateTime day,
+      final ObserverSite[] sites,
+      final double deltaT,
+      final Horizon horizon) {
+    final long start = SolarMetrics.start();
+    final SolarEvents.SunriseRange event = SolarEvents.sunriseRange();
+    final RiseSetDay riseSetDay = calcRiseSetDay(day, new GeocentricWindow(false));
+    final SunriseResult[] results = new SunriseResult[sites.length];
+
+    for (int i = 0; i < sites.length; i++) {
+      final double longitude = sites[i].longitude();
+      final RiseSetParams params = calcRiseSetParams(riseSetDay, longitude);
+      results[i] =
+          calcRiseAndSet(
+              day,
+              longitude,
+              deltaT,
+              horizon,
+              toRadians(sites[i].latitude()),
+              params.nuDegrees,
+              params.alphaDeltas,
+              params.m);
+    }
+
+    event.finish(horizon, sites.length, 1);
+    SolarMetrics.sunrisesCalculated(sites.length, start);
+    return results;
+  }
+
+  /**
+   * Calculate the times of sunrise, sun transit (solar noon), and sunset for a given day at many
+   * locations, writing the results into a caller-supplied array in the row encoding described in
+   * {@link SunriseResult}. No {@link ZonedDateTime} or result objects are created per site.
+   *
+   * @param day Day for which sunrise/transit/sunset are to be calculated. The time of day is
+   *     ignored.
+   * @param sites Observers' locations. Elevation is ignored.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param horizon Horizon (basically, elevation angle) to use as the sunrise/sunset definition.
+   *     This can be used to calculate twilight times.
+   * @param rows Output array receiving {@value SunriseResult#ROW_LENGTH} elements per site, in the
+   *     order of {@code sites}.
+   * @throws IllegalArgumentException for a too short output array
+   * @see #calculateSunriseTransitSets(ZonedDateTime, ObserverSite[], double, Horizon)
+   */
+  public static void calculateSunriseTransitSets(
+      final ZonedDateTime day,
+      final ObserverSite[] sites,
+      final double deltaT,
+      final Horizon horizon,
+      final long[] rows) {
+    checkRowsLength(sites.length, rows);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.SunriseRange event = SolarEvents.sunriseRange();
+    final RiseSetDay riseSetDay = calcRiseSetDay(day, new GeocentricWindow(false));
+    final long dayStartMillis = day.truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli();
+    final RiseSetInterpolation interpolation =
+        new RiseSetInterpolation(deltaT, riseSetDay.nuDegrees, riseSetDay.alphaDeltas);
+    final double[] rts = new double[3];
+
+    for (int i = 0; i < sites.length; i++) {
+      final double longitude = sites[i].longitude();
+      interpolation.site(
+          longitude, toRadians(sites[i].latitude()), approximateTransit(riseSetDay, longitude));
+      calcRiseAndSet(
+          dayStartMillis, interpolation, horizon, rts, rows, i * SunriseResult.ROW_LENGTH);
+    }
+    event.finish(horizon, sites.length, 1);
+    SolarMetrics.sunrisesCalculated(sites.length, start);
+  }
+
+  /**
+   * Calculate the times of sunrise, sun transit (solar noon), and sunset for a range of consecutive
+   * days, writing the results into a caller-supplied array in the row encoding described in {@link
+   * SunriseResult}. No objects are created per day, except for a few on the days around changes of
+   * the time zone's offset (e.g. daylight saving time).
+   *
+   * @param startDay First day for which sunrise/transit/sunset are to be calculated. The time of
+   *     day is ignored. Subsequent days are obtained using {@link ZonedDateTime#plusDays(long)}.
+   * @param endDay Day after the last day (exclusive), in the same time zone as {@code startDay}.
+   *     The time of day is ignored.
+   * @param latitude Observer's latitude, in degrees (negative south of equator).
+   * @param longitude Observer's longitude, in degrees (negative west of Greenwich).
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param horizon Horizon (basically, elevation angle) to use as the sunrise/sunset definition.
+   *     This can be used to calculate twilight times.
+   * @param rows Output array receiving {@value SunriseResult#ROW_LENGTH} elements per day, in
+   *     order.
+   * @return Number of days calculated
+   * @throws IllegalArgumentException for nonsensical latitude/longitude, an end day before the
+   *     start day, or a too short output array
+   * @see #calculateSunriseTransitSets(ZonedDateTime, ZonedDateTime, double, double, double,
+   *     Horizon)
+   */
+  public static int calculateSunriseTransitSets(
+      final ZonedDateTime startDay,
+      final ZonedDateTime endDay,
+      final double latitude,
+      final double longitude,
+      final double deltaT,
+      final Horizon horizon,
+      final long[] rows) {
+    MathUtil.checkLatLonRange(latitude, longitude);
+    final long days = daysBetween(startDay, endDay);
+    checkRowsLength(days, rows);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.SunriseRange event = SolarEvents.sunriseRange();
+    final GeocentricWindow window = new GeocentricWindow(true);
+    final DayStarts dayStarts = new DayStarts(startDay);
+    final RiseSetInterpolation interpolation = new RiseSetInterpolation(deltaT);
+    final double[] alphaDeltas = new double[6];
+    final double phi = toRadians(latitude);
+    final double[] rts = new double[3];
+    for (int i = 0; i < days; i++) {
+      final long dayStart = dayStarts.dayStart(i);
+      final double nuDegrees = calcRiseSetDay(dayStart, window, alphaDeltas);
+      interpolation.day(nuDegrees, alphaDeltas);
+      interpolation.site(longitude, phi, approximateTransit(nuDegrees, alphaDeltas, longitude));
+      calcRiseAndSet(
+          dayStart * 1000L, interpolation, horizon, rts, rows, i * SunriseResult.ROW_LENGTH);
+    }
+    event.finish(horizon, 1, (int) days);
+    SolarMetrics.sunrisesCalculated((int) days, start);
+    return (int) days;
+  }
+
+  private static long daysBetween(final ZonedDateTime startDay, final ZonedDateTime endDay) {
+    final long days = ChronoUnit.DAYS.between(startDay.toLocalDate(), endDay.toLocalDate());
+    if (days < 0) {
+      throw new IllegalArgumentException("end day before start day");
+    }
+    return days;
+  }
+
+  private static void checkRowsLength(final long results, final long[] rows) {
+    if (rows.length < results * SunriseResult.ROW_LENGTH) {
+      throw new IllegalArgumentException("output array too short");
+    }
+  }
+
+  private static <T> Stream<T> slideDays(
+      final ZonedDateTime startDay,
+      final ZonedDateTime endDay,
+      final double latitude,
+      final double longitude,
+      final BiFunction<ZonedDateTime, RiseSetParams, T> calculation) {
+    MathUtil.checkLatLonRange(latitude, longitude);
+    final long days = daysBetween(startDay, endDay);
+
+    final GeocentricWindow window = new GeocentricWindow(true);
+    final Spliterator<T> spliterator =
+        new Spliterators.AbstractSpliterator<>(
+            days, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED) {
+          private long i;
+
+          @Override
+          public boolean tryAdvance(final Consumer<? super T> action) {
+            if (i >= days) {
+              return false;
+            }
+            final long start = SolarMetrics.start();
+            final ZonedDateTime day = startDay.plusDays(i++);
+            final T result =
+                calculation.apply(day, calcRiseSetParams(day, latitude, longitude, window));
+            SolarMetrics.sunrisesCalculated(1, start);
+            action.accept(result);
+            return true;
+          }
+
+          @Override
+          public Spliterator<T> trySplit() {
+            // the window only slides forward, one day at a time
+            return null;
+          }
+        };
+    return StreamSupport.stream(spliterator, false);
+  }
+
   private static RiseSetParams calcRiseSetParams(
       ZonedDateTime day, double latitude, double longitude) {
+    return calcRiseSetParams(day, latitude, longitude, new GeocentricWindow(false));
+  }
+
+  private static RiseSetParams calcRiseSetParams(
+      ZonedDateTime day, double latitude, double longitude, GeocentricWindow window) {
     MathUtil.checkLatLonRange(latitude, longitude);
+    return calcRiseSetParams(calcRiseSetDay(day, window), longitude);
+  }
+
+  /**
+   * Location-independent part of {@link RiseSetParams}. alphaDeltas holds the geocentric right
+   * ascension and declination (in degrees) at 0 TT of the day before, the same day and the next
+   * day, in pairs.
+   */
+  private record RiseSetDay(double nuDegrees, double[] alphaDeltas) {}
+
+  private static RiseSetDay calcRiseSetDay(ZonedDateTime day, GeocentricWindow window) {
+    final double[] alphaDeltas = new double[6];
+    final double nuDegrees = calcRiseSetDay(startOfDayUT(day).toEpochSecond(), window, alphaDeltas);
+    return new RiseSetDay(nuDegrees, alphaDeltas);
+  }
 
-    final ZonedDateTime dayStart = startOfDayUT(day);
-    final JulianDate jd = new JulianDate(dayStart, 0);
+  /**
+   * Like {@link #calcRiseSetDay(ZonedDateTime, GeocentricWindow)} for the day starting at dayStart
+   * (in epoch seconds), writing the right ascensions and declinations into alphaDeltas. Returns nu,
+   * in degrees.
+   */
+  private static double calcRiseSetDay(
+      long dayStart, GeocentricWindow window, double[] alphaDeltas) {
+    final double jd = JulianDate.calcJulianDate(dayStart);
 
     // A.2.1. Calculate the apparent sidereal time at Greenwich at 0 UT, nu (in degrees)
-    final double jce = jd.julianEphemerisCentury();
-    final double[] xTerms = calculateNutationTerms(jce);
-    final double[] deltaPsiI = calculateDeltaPsiI(jce, xTerms);
-    final double[] deltaEpsilonI = calculateDeltaEpsilonI(jce, xTerms);
-    final double deltaPsi = calculateDeltaPsiEpsilon(deltaPsiI);
-    final double deltaEpsilon = calculateDeltaPsiEpsilon(deltaEpsilonI);
-    final double epsilonDegrees = calculateTrueObliquityOfEcliptic(jd, deltaEpsilon);
+    final double jce = JulianDate.julianEphemerisCentury(jd, 0);
+    final double deltaPsi = calculateDeltaPsi(jce, TERMS_PE, TERMS_Y);
+    final double deltaEpsilon = calculateDeltaEpsilon(jce, TERMS_PE, TERMS_Y);
+    final double epsilonDegrees = calculateTrueObliquityOfEcliptic(jce / 10.0, deltaEpsilon);
 
-    final double nuDegrees = calculateApparentSiderealTimeAtGreenwich(jd, deltaPsi, epsilonDegrees);
+    final double nuDegrees =
+        calculateApparentSiderealTimeAtGreenwich(
+            jd, JulianDate.julianCentury(jd), deltaPsi, epsilonDegrees);
 
     // A.2.2. Calculate the geocentric right ascension and declination at 0 TT for day before, same
     // day, next day
-    final AlphaDelta[] alphaDeltas = new AlphaDelta[3];
-    for (int i = 0; i < alphaDeltas.length; i++) {
-      JulianDate currentJd = new JulianDate(jd.julianDate() + i - 1, 0);
-      double currentJme = currentJd.julianEphemerisMillennium();
-      AlphaDelta ad = calculateAlphaDelta(currentJme, deltaPsi, epsilonDegrees);
-      alphaDeltas[i] = ad;
+    for (int i = 0; i < 3; i++) {
+      final double[] geocentric = window.geocentric(dayStart + (i - 1) * SECONDS_PER_DAY);
+      calculateAlphaDelta(
+          geocentric[0],
+          geocentric[1],
+          geocentric[2],
+          deltaPsi,
+          epsilonDegrees,
+          alphaDeltas,
+          2 * i);
     }
+    return nuDegrees;
+  }
 
+  private static RiseSetParams calcRiseSetParams(RiseSetDay day, double longitude) {
     final double[] m = new double[3];
-    // A.2.3. Calculate the approximate sun transit time, m0, in fraction of day
-    m[0] = (alphaDeltas[1].alpha - longitude - nuDegrees) / 360;
+    m[0] = approximateTransit(day, longitude);
+
+    return new RiseSetParams(day.nuDegrees, day.alphaDeltas, m);
+  }
+
+  /** A.2.3. Calculate the approximate sun transit time, m0, in fraction of day */
+  private static double approximateTransit(RiseSetDay day, double longitude) {
+    return approximateTransit(day.nuDegrees, day.alphaDeltas, longitude);
+  }
 
-    return new RiseSetParams(nuDegrees, alphaDeltas, m);
+  private static double approximateTransit(
+      double nuDegrees, double[] alphaDeltas, double longitude) {
+    return (alphaDeltas[2] - longitude - nuDegrees) / 360;
   }
 
   private static SunriseResult calcRiseAndSet(
@@ -343,106 +1704,212 @@ public final class SPA {
       Horizon horizon,
       double phi,
       double nuDegrees,
-      AlphaDelta[] alphaDeltas,
+      double[] alphaDeltas,
       double[] m) {
-    // A.2.4. Calculate the local hour angle H0 corresponding to ...
-    final double acosArg =
-        (sin(toRadians(horizon.elevation())) - sin(phi) * sin(toRadians(alphaDeltas[1].delta)))
-            / (cos(phi) * cos(toRadians(alphaDeltas[1].delta)));
-
+    final double[] rts = new double[3];
     final Type type =
-        acosArg < -1.0 ? Type.ALL_DAY : (acosArg > 1.0 ? Type.ALL_NIGHT : Type.NORMAL);
+        calcRiseAndSet(longitude, deltaT, horizon, phi, nuDegrees, alphaDeltas, m, rts);
+
+    return switch (type) {
+      case NORMAL ->
+          new SunriseResult.RegularDay(
+              addFractionOfDay(day, rts[0]),
+              addFractionOfDay(day, rts[1]),
+              addFractionOfDay(day, rts[2]));
+      case ALL_DAY -> new SunriseResult.AllDay(addFractionOfDay(day, rts[1]));
+      case ALL_NIGHT -> new SunriseResult.AllNight(addFractionOfDay(day, rts[1]));
+    };
+  }
+
+  /**
+   * Like {@link #calcRiseAndSet(ZonedDateTime, double, double, Horizon, double, double, double[],
+   * double[])}, but for an interpolation already set up for the site, and writing the result into a
+   * row as described in {@link SunriseResult}. dayStartMillis is the start of the day, see {@link
+   * #addFractionOfDay}. rts is scratch space for at least three values.
+   */
+  private static void calcRiseAndSet(
+      long dayStartMillis,
+      RiseSetInterpolation interpolation,
+      Horizon horizon,
+      double[] rts,
+      long[] rows,
+      int offset) {
+    rts[1] = interpolation.transit();
+    final Type type = interpolation.riseAndSet(horizon.elevation(), rts);
+
+    rows[offset + 2] = dayStartMillis + (int) (MS_PER_DAY * rts[1]);
+    if (type == Type.NORMAL) {
+      rows[offset] = SunriseResult.REGULAR_DAY;
+      rows[offset + 1] = dayStartMillis + (int) (MS_PER_DAY * rts[0]);
+      rows[offset + 3] = dayStartMillis + (int) (MS_PER_DAY * rts[2]);
+    } else {
+      rows[offset] = type == Type.ALL_DAY ? SunriseResult.ALL_DAY : SunriseResult.ALL_NIGHT;
+      rows[offset + 1] = SunriseResult.NO_TIME;
+      rows[offset + 3] = SunriseResult.NO_TIME;
+    }
+  }
 
-    final double h0 = acos(acosArg);
+  /**
+   * Core of the sunrise/sunset calculation, writing sunrise, transit and sunset (in fractions of
+   * the day) into rts.
+   */
+  private static Type calcRiseAndSet(
+      double longitude,
+      double deltaT,
+      Horizon horizon,
+      double phi,
+      double nuDegrees,
+      double[] alphaDeltas,
+      double[] m,
+      double[] rts) {
+    final RiseSetInterpolation interpolation =
+        new RiseSetInterpolation(deltaT, nuDegrees, alphaDeltas);
+    interpolation.site(longitude, phi, m[0]);
+    m[0] = limitTo(m[0], 1);
 
-    final double h0Degrees = limitTo(toDegrees(h0), 180.0);
+    rts[1] = interpolation.transit();
+    return interpolation.riseAndSet(horizon.elevation(), rts);
+  }
 
-    // A.2.5. Calculate the approximate sunrise time, m1, in fraction of day,
-    m[1] = limitTo(m[0] - h0Degrees / 360.0, 1);
+  /**
+   * Steps A.2.4 to A.2.15 for one day. The interpolation terms only depend on the day, which can be
+   * changed with {@link #day} to reuse the instance; set the location with {@link #site} before
+   * use, and again for each further location or day. Only the approximate sunrise and sunset times
+   * depend on the horizon; the transit is shared by all horizons.
+   */
+  private static final class RiseSetInterpolation {
+    private final double deltaT;
+    private double nuDegrees;
+    private double sinDelta;
+    private double cosDelta;
+    private double alpha;
+    private double delta;
+    private double a;
+    private double aPrime;
+    private double b;
+    private double bPrime;
+    private double c;
+    private double cPrime;
+
+    private double longitude;
+    private double m0;
+    private double sinPhi;
+    private double cosPhi;
+    private double sinPhiSinDelta;
+    private double cosPhiCosDelta;
+
+    RiseSetInterpolation(double deltaT) {
+      this.deltaT = deltaT;
+    }
 
-    // A.2.6. Calculate the approximate sunset time, m2, in fraction of day,
-    m[2] = limitTo(m[0] + h0Degrees / 360.0, 1);
+    RiseSetInterpolation(double deltaT, double nuDegrees, double[] alphaDeltas) {
+      this(deltaT);
+      day(nuDegrees, alphaDeltas);
+    }
 
-    m[0] = limitTo(m[0], 1);
+    /**
+     * Set the day: nu (A.2.1) and the right ascensions and declinations (A.2.2), see RiseSetDay.
+     */
+    void day(double nuDegrees, double[] alphaDeltas) {
+      this.nuDegrees = nuDegrees;
+      this.alpha = alphaDeltas[2];
+      this.delta = alphaDeltas[3];
+      this.sinDelta = sin(toRadians(delta));
+      this.cosDelta = cos(toRadians(delta));
+
+      // A.2.10. Calculate the values alpha'i and delta'i , in degrees
+      this.a = limitIfNecessary(alphaDeltas[2] - alphaDeltas[0]);
+      this.aPrime = limitIfNecessary(alphaDeltas[3] - alphaDeltas[1]);
+
+      this.b = limitIfNecessary(alphaDeltas[4] - alphaDeltas[2]);
+      this.bPrime = limitIfNecessary(alphaDeltas[5] - alphaDeltas[3]);
+
+      this.c = b - a;
+      this.cPrime = bPrime - aPrime;
+    }
 
-    // A.2.8. Calculate the sidereal time at Greenwich, in degrees, for the sun transit, sunrise,
-    // and sunset
-    final double[] nu = new double[3];
-    for (int i = 0; i < m.length; i++) {
-      nu[i] = nuDegrees + 360.985647 * m[i];
+    /**
+     * Set the location: longitude in degrees, latitude phi in radians, and the approximate sun
+     * transit time m0 (A.2.3) for that longitude.
+     */
+    void site(double longitude, double phi, double m0) {
+      this.longitude = longitude;
+      this.m0 = m0;
+      this.sinPhi = sin(phi);
+      this.cosPhi = cos(phi);
+      this.sinPhiSinDelta = sinPhi * sinDelta;
+      this.cosPhiCosDelta = cosPhi * cosDelta;
     }
 
-    // A.2.9. Calculate the terms ni
-    final double[] n = new double[3];
-    for (int i = 0; i < m.length; i++) {
-      n[i] = m[i] + deltaT / 86400.0;
+    /** A.2.13. Calculate the sun transit, T (in fraction of day) */
+    double transit() {
+      final double m = limitTo(m0, 1);
+      return m - localHourAngle(m, alphaPrime(m)) / 360.0;
     }
 
-    // A.2.10. Calculate the values alpha'i and delta'i , in degrees
-    final double a = limitIfNecessary(alphaDeltas[1].alpha - alphaDeltas[0].alpha);
-    final double aPrime = limitIfNecessary(alphaDeltas[1].delta - alphaDeltas[0].delta);
+    /**
+     * Calculate sunrise and sunset for a horizon elevation (in degrees), writing them (in fraction
+     * of day) into rts[0] and rts[2].
+     */
+    Type riseAndSet(double elevation, double[] rts) {
+      // A.2.4. Calculate the local hour angle H0 corresponding to ...
+      final double acosArg = (sin(toRadians(elevation)) - sinPhiSinDelta) / cosPhiCosDelta;
 
-    final double b = limitIfNecessary(alphaDeltas[2].alpha - alphaDeltas[1].alpha);
-    final double bPrime = limitIfNecessary(alphaDeltas[2].delta - alphaDeltas[1].delta);
+      final Type type =
+          acosArg < -1.0 ? Type.ALL_DAY : (acosArg > 1.0 ? Type.ALL_NIGHT : Type.NORMAL);
 
-    final double c = b - a;
-    final double cPrime = bPrime - aPrime;
+      final double h0 = acos(acosArg);
 
-    final AlphaDelta[] alphaDeltaPrimes = new AlphaDelta[3];
-    for (int i = 0; i < alphaDeltaPrimes.length; i++) {
-      double alphaPrimeI = alphaDeltas[1].alpha + (n[i] * (a + b + c * n[i])) / 2.0;
-      double deltaPrimeI = alphaDeltas[1].delta + (n[i] * (aPrime + bPrime + cPrime * n[i])) / 2.0;
+      final double h0Degrees = limitTo(toDegrees(h0), 180.0);
 
-      alphaDeltaPrimes[i] = new AlphaDelta(alphaPrimeI, deltaPrimeI);
-    }
+      // A.2.5. Calculate the approximate sunrise time, m1, in fraction of day,
+      // A.2.14. Calculate the sunrise, R (in fraction of day)
+      rts[0] = crossing(limitTo(m0 - h0Degrees / 360.0, 1), elevation);
 
-    // A.2.11. Calculate the local hour angle for the sun transit, sunrise, and sunset
-    final double[] hPrime = new double[3];
-    for (int i = 0; i < hPrime.length; i++) {
-      double hPrimeI = nu[i] + longitude - alphaDeltaPrimes[i].alpha;
-      hPrime[i] = limitHprime(hPrimeI);
+      // A.2.6. Calculate the approximate sunset time, m2, in fraction of day,
+      // A.2.15. Calculate the sunset, S (in fraction of day)
+      rts[2] = crossing(limitTo(m0 + h0Degrees / 360.0, 1), elevation);
+
+      return type;
     }
 
-    // A.2.12. Calculate the sun altitude for the sun transit, sunrise, and sunset, hi
-    final double[] h = new double[3];
-    for (int i = 0; i < h.length; i++) {
-      double deltaPrimeRad = toRadians(alphaDeltaPrimes[i].delta);
+    private double crossing(double m, double elevation) {
+      final double hPrime = localHourAngle(m, alphaPrime(m));
+      final double deltaPrime = deltaPrime(m);
+      final double deltaPrimeRad = toRadians(deltaPrime);
 
-      h[i] =
+      // A.2.12. Calculate the sun altitude, h
+      final double h =
           toDegrees(
               asin(
-                  sin(phi) * sin(deltaPrimeRad)
-                      + cos(phi) * cos(deltaPrimeRad) * cos(toRadians(hPrime[i]))));
-    }
-
-    // A.2.13. Calculate the sun transit, T (in fraction of day)
-    final double t = m[0] - hPrime[0] / 360.0;
-
-    // A.2.14. Calculate the sunrise, R (in fraction of day)
-    final double r =
-        m[1]
-            + (h[1] - horizon.elevation())
-                / (360.0
-                    * cos(toRadians(alphaDeltaPrimes[1].delta))
-                    * cos(phi)
-                    * sin(toRadians(hPrime[1])));
-
-    // A.2.15. Calculate the sunset, S (in fraction of day)
-    final double s =
-        m[2]
-            + (h[2] - horizon.elevation())
-                / (360.0
-                    * cos(toRadians(alphaDeltaPrimes[2].delta))
-                    * cos(phi)
-                    * sin(toRadians(hPrime[2])));
+                  sinPhi * sin(deltaPrimeRad)
+                      + cosPhi * cos(deltaPrimeRad) * cos(toRadians(hPrime))));
 
-    return switch (type) {
-      case NORMAL ->
-          new SunriseResult.RegularDay(
-              addFractionOfDay(day, r), addFractionOfDay(day, t), addFractionOfDay(day, s));
-      case ALL_DAY -> new SunriseResult.AllDay(addFractionOfDay(day, t));
-      case ALL_NIGHT -> new SunriseResult.AllNight(addFractionOfDay(day, t));
-    };
+      return m
+          + (h - elevation)
+              / (360.0 * cos(toRadians(deltaPrime)) * cosPhi * sin(toRadians(hPrime)));
+    }
+
+    /** A.2.9. Calculate the term n */
+    private double n(double m) {
+      return m + deltaT / 86400.0;
+    }
+
+    private double alphaPrime(double m) {
+      final double n = n(m);
+      return alpha + (n * (a + b + c * n)) / 2.0;
+    }
+
+    private double deltaPrime(double m) {
+      final double n = n(m);
+      return delta + (n * (aPrime + bPrime + cPrime * n)) / 2.0;
+    }
+
+    /** A.2.8. and A.2.11. Calculate the local hour angle, H' */
+    private double localHourAngle(double m, double alphaPrime) {
+      final double nu = nuDegrees + 360.985647 * m;
+      return limitHprime(nu + longitude - alphaPrime);
+    }
   }
 
   private static ZonedDateTime addFractionOfDay(ZonedDateTime day, double fraction) {
@@ -469,20 +1936,67 @@ public final class SPA {
     return (abs(val) > 2.0) ? limitTo(val, 1.0) : val;
   }
 
-  private static AlphaDelta calculateAlphaDelta(
-      double jme, double deltaPsi, double epsilonDegrees) {
+  /**
+   * Geocentric longitude theta (in degrees), latitude beta (in radians) and radius vector R at 0 TT
+   * of the most recently used days. These don't depend on the nutation of the day they are used
+   * for, so consecutive days can share them. Days are keyed on their start in epoch seconds, which
+   * is exact for whole days apart, unlike the Julian date.
+   *
+   * <p>Only windows sliding over a range of days report their lookups to {@link SolarMetrics} and
+   * their refills to flight recording; a window used for a single day always misses three times,
+   * which tells nothing about the cache.
+   */
+  private static final class GeocentricWindow {
+    private final long[] dayStarts = {Long.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+    private final double[][] values = new double[3][3];
+    private final boolean sliding;
+    private int next;
+
+    GeocentricWindow(final boolean sliding) {
+      this.sliding = sliding;
+    }
+
+    double[] geocentric(final long dayStart) {
+      for (int i = 0; i < dayStarts.length; i++) {
+        if (dayStarts[i] == dayStart) {
+          if (sliding) {
+            SolarMetrics.cacheAccessed(true);
+          }
+          return values[i];
+        }
+      }
+      if (sliding) {
+        SolarMetrics.cacheAccessed(false);
+      }
+
+      // replace the least recently calculated day
+      final int i = next;
+      next = (next + 1) % dayStarts.length;
+      dayStarts[i] = dayStart;
+      final double julianDate = JulianDate.calcJulianDate(dayStart);
+      final double jme = JulianDate.julianEphemerisCentury(julianDate, 0) / 10.0;
+      if (sliding) {
+        final SolarEvents.EphemerisCacheRefill event = SolarEvents.ephemerisCacheRefill();
+        calculateGeocentricCoordinates(jme, values[i]);
+        event.finish("sunrise range window", Accuracy.FULL, 1);
+      } else {
+        calculateGeocentricCoordinates(jme, values[i]);
+      }
+      return values[i];
+    }
+  }
+
+  /** Calculate theta (in degrees), beta (in radians) and R, writing them into result. */
+  private static void calculateGeocentricCoordinates(double jme, double[] result) {
     // calculate Earth heliocentric latitude, B
-    final double[] bTerms = calculateLBRTerms(jme, TERMS_B);
-    final double bDegrees = limitDegreesTo360(toDegrees(calculateLBRPolynomial(jme, bTerms)));
+    final double bDegrees = limitDegreesTo360(toDegrees(calculateLBRPolynomial(jme, TERMS_B)));
 
     // calculate Earth radius vector, R
-    final double[] rTerms = calculateLBRTerms(jme, TERMS_R);
-    final double r = calculateLBRPolynomial(jme, rTerms);
+    final double r = calculateLBRPolynomial(jme, TERMS_R);
     assert r != 0;
 
     // calculate Earth heliocentric longitude, L
-    final double[] lTerms = calculateLBRTerms(jme, TERMS_L);
-    final double lDegrees = limitDegreesTo360(toDegrees(calculateLBRPolynomial(jme, lTerms)));
+    final double lDegrees = limitDegreesTo360(toDegrees(calculateLBRPolynomial(jme, TERMS_L)));
 
     // calculate geocentric longitude, theta
     final double thetaDegrees = limitDegreesTo360(lDegrees + 180);
@@ -490,10 +2004,25 @@ public final class SPA {
     // calculate geocentric latitude, beta
     final double betaDegrees = -bDegrees;
     final double beta = toRadians(betaDegrees);
+
+    result[0] = thetaDegrees;
+    result[1] = beta;
+    result[2] = r;
+  }
+
+  /** Calculate alpha and delta (in degrees), writing them into result at offset. */
+  private static void calculateAlphaDelta(
+      double thetaDegrees,
+      double beta,
+      double r,
+      double deltaPsi,
+      double epsilonDegrees,
+      double[] result,
+      int offset) {
     final double epsilon = toRadians(epsilonDegrees);
 
     // calculate aberration correction
-    final double deltaTau = -20.4898 / (3600 * r);
+    final double deltaTau = -ABERRATION_CONSTANT / (3600 * r);
 
     // calculate the apparent sun longitude
     final double lambdaDegrees = thetaDegrees + deltaPsi + deltaTau;
@@ -504,30 +2033,70 @@ public final class SPA {
     // Calculate geocentric sun declination
     final double deltaDegrees = toDegrees(calculateGeocentricSunDeclination(beta, epsilon, lambda));
 
-    return new AlphaDelta(alphaDegrees, deltaDegrees);
+    result[offset] = alphaDegrees;
+    result[offset + 1] = deltaDegrees;
+  }
+
+  /**
+   * Starts of consecutive days in epoch seconds, as given by {@code
+   * startDay.plusDays(i).truncatedTo(ChronoUnit.DAYS)}. Away from changes of the zone's offset,
+   * they are calculated from the local epoch day and the offset, without creating any objects; only
+   * days within a day of a change take the {@link ZonedDateTime} way, which also looks up the
+   * offset's next period of validity.
+   */
+  private static final class DayStarts {
+    private final ZonedDateTime startDay;
+    private final long startEpochDay;
+    private final ZoneRules rules;
+    private int offsetSeconds;
+    // instants (epoch seconds) between which offsetSeconds is valid with a day to spare
+    private long validFrom = Long.MAX_VALUE;
+    private long validUntil = Long.MIN_VALUE;
+
+    DayStarts(final ZonedDateTime startDay) {
+      this.startDay = startDay;
+      this.startEpochDay = startDay.toLocalDate().toEpochDay();
+      this.rules = startDay.getZone().getRules();
+    }
+
+    long dayStart(final int i) {
+      final long dayStart = (startEpochDay + i) * SECONDS_PER_DAY - offsetSeconds;
+      if (dayStart >= validFrom && dayStart < validUntil) {
+        return dayStart;
+      }
+
+      final long exact = startOfDayUT(startDay.plusDays(i)).toEpochSecond();
+      final Instant instant = Instant.ofEpochSecond(exact);
+      final ZoneOffsetTransition previous = rules.previousTransition(instant);
+      final ZoneOffsetTransition next = rules.nextTransition(instant);
+      offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+      validFrom = previous == null ? Long.MIN_VALUE : previous.toEpochSecond() + SECONDS_PER_DAY;
+      validUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond() - SECONDS_PER_DAY;
+      return exact;
+    }
   }
 
   private static ZonedDateTime startOfDayUT(ZonedDateTime day) {
     return day.truncatedTo(ChronoUnit.DAYS);
   }
 
-  private static SolarPosition calculateTopocentricSolarPosition(
+  private static double calculateTopocentricAzimuthAngle(
+      final ObserverSite site, final double deltaPrime, final double hPrime) {
+    final double gamma =
+        atan2(sin(hPrime), cos(hPrime) * site.sinPhi - tan(deltaPrime) * site.cosPhi);
+    final double gammaDegrees = limitDegreesTo360(toDegrees(gamma));
+    return limitDegreesTo360(gammaDegrees + 180);
+  }
+
+  private static double calculateTopocentricZenithAngle(
       final double p,
       final double t,
-      final double phi,
+      final ObserverSite site,
       final double deltaPrime,
       final double hPrime) {
-    // calculate topocentric zenith angle
     final double eZero =
-        asin(sin(phi) * sin(deltaPrime) + cos(phi) * cos(deltaPrime) * cos(hPrime));
-    final double topocentricZenithAngle = calculateTopocentricZenithAngle(p, t, eZero);
-
-    // Calculate the topocentric azimuth angle
-    final double gamma = atan2(sin(hPrime), cos(hPrime) * sin(phi) - tan(deltaPrime) * cos(phi));
-    final double gammaDegrees = limitDegreesTo360(toDegrees(gamma));
-    final double topocentricAzimuthAngle = limitDegreesTo360(gammaDegrees + 180);
-
-    return new SolarPosition(topocentricAzimuthAngle, topocentricZenithAngle);
+        asin(site.sinPhi * sin(deltaPrime) + site.cosPhi * cos(deltaPrime) * cos(hPrime));
+    return calculateTopocentricZenithAngle(p, t, eZero);
   }
 
   private static double calculateTopocentricZenithAngle(double p, double t, double eZero) {
@@ -550,6 +2119,23 @@ public final class SPA {
     }
   }
 
+  /**
+   * Apply SPA's refraction correction to a topocentric zenith angle (in degrees) calculated without
+   * it, e.g. by another algorithm.
+   */
+  static double refractZenithAngle(
+      final double zenithAngle, final double pressure, final double temperature) {
+    return calculateTopocentricZenithAngle(pressure, temperature, toRadians(90 - zenithAngle));
+  }
+
+  /**
+   * Check whether an unrefracted zenith angle (in degrees) with the given error might lie on the
+   * other side of the elevation below which no refraction correction is applied.
+   */
+  static boolean isNearRefractionLimit(final double zenithAngle, final double error) {
+    return abs(90 - zenithAngle - SUNRISE_SUNSET) <= error;
+  }
+
   private static double calculateGeocentricSunDeclination(
       final double betaRad, final double epsilonRad, final double lambdaRad) {
     return asin(sin(betaRad) * cos(epsilonRad) + cos(betaRad) * sin(epsilonRad) * sin(lambdaRad));
@@ -564,70 +2150,84 @@ public final class SPA {
   }
 
   private static double calculateTrueObliquityOfEcliptic(
-      final JulianDate jd, final double deltaEpsilon) {
-    final double epsilon0 =
-        MathUtil.polynomial(jd.julianEphemerisMillennium() / 10.0, OBLIQUITY_COEFFS);
+      final double jme, final double deltaEpsilon) {
+    final double epsilon0 = MathUtil.polynomial(jme / 10.0, OBLIQUITY_COEFFS);
     return epsilon0 / 3600 + deltaEpsilon;
   }
 
   private static double calculateApparentSiderealTimeAtGreenwich(
-      final JulianDate jd, final double deltaPsi, final double epsilonDegrees) {
-    final double nu0degrees =
-        limitDegreesTo360(
-            280.46061837
-                + 360.98564736629 * (jd.julianDate() - 2451545)
-                + pow(jd.julianCentury(), 2) * (0.000387933 - jd.julianCentury() / 38710000));
+      final double jd, final double jc, final double deltaPsi, final double epsilonDegrees) {
+    final double nu0degrees = calculateMeanSiderealTimeAtGreenwich(jd, jc);
 
     return nu0degrees + deltaPsi * cos(toRadians(epsilonDegrees));
   }
 
-  private static double calculateDeltaPsiEpsilon(final double[] deltaPsiOrEpsilonI) {
-    double sum = 0;
-    for (final double element : deltaPsiOrEpsilonI) {
-      sum += element;
-    }
-    return sum / 36000000;
+  static double calculateMeanSiderealTimeAtGreenwich(final double jd, final double jc) {
+    return limitDegreesTo360(
+        280.46061837
+            + 360.98564736629 * (jd - 2451545)
+            + pow(jc, 2) * (0.000387933 - jc / 38710000));
   }
 
-  private static double[] calculateDeltaPsiI(final double jce, final double[] x) {
-    final double[] deltaPsiI = new double[TERMS_PE.length];
-
-    for (int i = 0; i < TERMS_PE.length; i++) {
-      final double a = TERMS_PE[i][0];
-      final double b = TERMS_PE[i][1];
-      deltaPsiI[i] = (a + b * jce) * sin(toRadians(calculateXjYtermSum(i, x)));
+  /** Calculate the arguments of the nutation series terms, in degrees. */
+  static void calculateNutationArguments(
+      final double jce, final double[][] termsY, final double[] arguments) {
+    final double x0 = MathUtil.polynomial(jce, NUTATION_COEFFS[0]);
+    final double x1 = MathUtil.polynomial(jce, NUTATION_COEFFS[1]);
+    final double x2 = MathUtil.polynomial(jce, NUTATION_COEFFS[2]);
+    final double x3 = MathUtil.polynomial(jce, NUTATION_COEFFS[3]);
+    final double x4 = MathUtil.polynomial(jce, NUTATION_COEFFS[4]);
+
+    for (int i = 0; i < termsY.length; i++) {
+      arguments[i] = calculateXjYtermSum(termsY[i], x0, x1, x2, x3, x4);
     }
-    return deltaPsiI;
   }
 
-  private static double[] calculateDeltaEpsilonI(final double jce, final double[] x) {
-    final double[] deltaEpsilonI = new double[TERMS_PE.length];
+  private static double calculateDeltaPsi(
+      final double jce, final double[][] termsPE, final double[][] termsY) {
+    final double x0 = MathUtil.polynomial(jce, NUTATION_COEFFS[0]);
+    final double x1 = MathUtil.polynomial(jce, NUTATION_COEFFS[1]);
+    final double x2 = MathUtil.polynomial(jce, NUTATION_COEFFS[2]);
+    final double x3 = MathUtil.polynomial(jce, NUTATION_COEFFS[3]);
+    final double x4 = MathUtil.polynomial(jce, NUTATION_COEFFS[4]);
 
-    for (int i = 0; i < TERMS_PE.length; i++) {
-      final double c = TERMS_PE[i][2];
-      final double d = TERMS_PE[i][3];
-      deltaEpsilonI[i] = (c + d * jce) * cos(toRadians(calculateXjYtermSum(i, x)));
+    double sum = 0;
+    for (int i = 0; i < termsPE.length; i++) {
+      final double a = termsPE[i][0];
+      final double b = termsPE[i][1];
+      sum += (a + b * jce) * sin(toRadians(calculateXjYtermSum(termsY[i], x0, x1, x2, x3, x4)));
     }
-    return deltaEpsilonI;
+    return sum / 36000000;
   }
 
-  private static double calculateXjYtermSum(final int i, final double[] x) {
+  private static double calculateDeltaEpsilon(
+      final double jce, final double[][] termsPE, final double[][] termsY) {
+    final double x0 = MathUtil.polynomial(jce, NUTATION_COEFFS[0]);
+    final double x1 = MathUtil.polynomial(jce, NUTATION_COEFFS[1]);
+    final double x2 = MathUtil.polynomial(jce, NUTATION_COEFFS[2]);
+    final double x3 = MathUtil.polynomial(jce, NUTATION_COEFFS[3]);
+    final double x4 = MathUtil.polynomial(jce, NUTATION_COEFFS[4]);
+
     double sum = 0;
-    for (int j = 0; j < x.length; j++) {
-      sum += x[j] * TERMS_Y[i][j];
+    for (int i = 0; i < termsPE.length; i++) {
+      final double c = termsPE[i][2];
+      final double d = termsPE[i][3];
+      sum += (c + d * jce) * cos(toRadians(calculateXjYtermSum(termsY[i], x0, x1, x2, x3, x4)));
     }
-    return sum;
+    return sum / 36000000;
   }
 
-  private static double[] calculateNutationTerms(final double jce) {
-    final double[] x = new double[NUTATION_COEFFS.length];
-    for (int i = 0; i < x.length; i++) {
-      x[i] = MathUtil.polynomial(jce, NUTATION_COEFFS[i]);
-    }
-    return x;
+  private static double calculateXjYtermSum(
+      final double[] y,
+      final double x0,
+      final double x1,
+      final double x2,
+      final double x3,
+      final double x4) {
+    return x0 * y[0] + x1 * y[1] + x2 * y[2] + x3 * y[3] + x4 * y[4];
   }
 
-  private static double limitDegreesTo360(final double degrees) {
+  static double limitDegreesTo360(final double degrees) {
     return limitTo(degrees, 360.0);
   }
 
@@ -637,26 +2237,25 @@ public final class SPA {
     return (limited < 0) ? limited + max : limited;
   }
 
-  private static double calculateLBRPolynomial(final double jme, final double[] terms) {
-    return MathUtil.polynomial(jme, terms) / 1e8;
+  private static double calculateLBRPolynomial(final double jme, final double[][][] termCoeffs) {
+    // Horner's scheme over L0, L1, ... Ln, highest order first
+    double sum = 0;
+    for (int i = termCoeffs.length - 1; i >= 0; i--) {
+      sum = calculateLBRTerm(jme, termCoeffs[i]) + jme * sum;
+    }
+    return sum / 1e8;
   }
 
-  private static double[] calculateLBRTerms(final double jme, final double[][][] termCoeffs) {
-    final double[] lbrTerms = {0, 0, 0, 0, 0, 0};
-
-    for (int i = 0; i < termCoeffs.length; i++) { // L0, L1, ... Ln
-      double lbrSum = 0;
-      for (int v = 0; v < termCoeffs[i].length; v++) { // rows of each Li
-        final double a = termCoeffs[i][v][0]; // coefficients
-        final double b = termCoeffs[i][v][1];
-        final double c = termCoeffs[i][v][2];
+  private static double calculateLBRTerm(final double jme, final double[][] termCoeffs) {
+    double lbrSum = 0;
+    for (final double[] row : termCoeffs) { // rows of each Li
+      final double a = row[0]; // coefficients
+      final double b = row[1];
+      final double c = row[2];
 
-        lbrSum += a * cos(b + c * jme);
-      }
-      lbrTerms[i] = lbrSum;
+      lbrSum += a * cos(b + c * jme);
     }
-
-    return lbrTerms;
+    return lbrSum;
   }
 
   private static final double[][][] TERMS_L = {
@@ -0,0 +1,206 @@
+package net.e175.klaus.solarpositioning;
+
+import static java.lang.Math.*;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exact instants of the equinoxes and solstices, i.e. when the sun's apparent geocentric longitude
+ * is 0°, 90°, 180°, or 270°.
+ *
+ * <p>Instants are solved for with the same longitude pipeline as {@link SPA} (Earth heliocentric
+ * longitude and radius vector, nutation and aberration). Starting from the mean instant of the
+ * event after Meeus, 'Astronomical Algorithms' (2nd ed.), chapter 27, which is within minutes of
+ * the true instant, Newton's method corrects the time by the remaining longitude difference divided
+ * by the rate of change of a low-precision solar longitude. The first iterations use {@link
+ * SPA.Accuracy#HIGH}; one or two final iterations with the full series follow, until the remaining
+ * error is estimated below a millisecond. Results agree with published tables, which are given to
+ * the minute, to within a minute when given matching delta T values.
+ *
+ * <p>Results for the most recently used {@value #CACHE_SIZE} combinations of year and delta T are
+ * cached, so repeated queries (e.g. tables over thousands of years) are cheap. The cache is
+ * thread-safe.
+ */
+public final class Seasons {
+
+  /** Maximum number of cached years. */
+  static final int CACHE_SIZE = 8192;
+
+  private static final int MIN_YEAR = -2000;
+  private static final int MAX_YEAR = 6000;
+
+  /**
+   * Mean instants (JDE) of the events for years before 1000, as polynomials in year / 1000, in the
+   * order of {@link Event}. Meeus, table 27.A.
+   */
+  private static final double[][] MEAN_EVENTS_BEFORE_1000 = {
+    {1721139.29189, 365242.13740, 0.06134, 0.00111, -0.00071},
+    {1721233.25401, 365241.72562, -0.05323, 0.00907, 0.00025},
+    {1721325.70455, 365242.49558, -0.11677, -0.00297, 0.00074},
+    {1721414.39987, 365242.88257, -0.00769, -0.00933, -0.00006}
+  };
+
+  /**
+   * Mean instants (JDE) of the events for years from 1000, as polynomials in (year - 2000) / 1000,
+   * in the order of {@link Event}. Meeus, table 27.B.
+   */
+  private static final double[][] MEAN_EVENTS_FROM_1000 = {
+    {2451623.80984, 365242.37404, 0.05169, -0.00411, -0.00057},
+    {2451716.56767, 365241.62603, 0.00325, 0.00888, -0.00030},
+    {2451810.21715, 365242.01767, -0.11575, 0.00337, 0.00078},
+    {2451900.05952, 365242.74049, -0.06223, -0.00823, 0.00032}
+  };
+
+  /** Convergence limit, in days (about a millisecond). */
+  private static final double EPSILON = 1e-8;
+
+  /** Convergence limit of the iterations with {@link SPA.Accuracy#HIGH}, in days. */
+  private static final double HIGH_EPSILON = 1e-6;
+
+  /**
+   * Upper bound of the relative error of {@link #degreesPerDay(double)}, which mostly stems from
+   * the lunar perturbation of the Earth's orbit. The error remaining after a correction is at most
+   * the correction times this.
+   */
+  private static final double RATE_ERROR = 1e-3;
+
+  private static final int MAX_ITERATIONS = 20;
+
+  private static final Map<CacheKey, long[]> CACHE =
+      new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<CacheKey, long[]> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      };
+
+  private record CacheKey(int year, double deltaT) {}
+
+  /** Equinoxes and solstices, named after the month they occur in to avoid hemisphere bias. */
+  public enum Event {
+    MARCH_EQUINOX(0),
+    JUNE_SOLSTICE(90),
+    SEPTEMBER_EQUINOX(180),
+    DECEMBER_SOLSTICE(270);
+
+    private final double longitude;
+
+    Event(final double longitude) {
+      this.longitude = longitude;
+    }
+
+    /**
+     * Get the apparent geocentric longitude of the sun at this event.
+     *
+     * @return longitude in degrees
+     */
+    public double longitude() {
+      return longitude;
+    }
+  }
+
+  private Seasons() {}
+
+  /**
+   * Calculate the instant of an equinox or solstice.
+   *
+   * @param year Year, from -2000 to 6000.
+   * @param event Equinox or solstice.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @return Instant of the event, to the millisecond
+   * @throws IllegalArgumentException for years out of range
+   */
+  public static Instant calculate(final int year, final Event event, final double deltaT) {
+    return Instant.ofEpochMilli(calculateEpochMillis(year, deltaT)[event.ordinal()]);
+  }
+
+  /**
+   * Calculate the instants of all equinoxes and solstices of a year.
+   *
+   * @param year Year, from -2000 to 6000.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @return Instants in milliseconds since 1970-01-01T00:00:00Z, in the order of {@link Event}
+   * @throws IllegalArgumentException for years out of range
+   */
+  public static long[] calculateEpochMillis(final int year, final double deltaT) {
+    if (year < MIN_YEAR || year > MAX_YEAR) {
+      throw new IllegalArgumentException("year out of range");
+    }
+
+    final CacheKey key = new CacheKey(year, deltaT);
+    long[] result;
+    synchronized (CACHE) {
+      result = CACHE.get(key);
+    }
+    SolarMetrics.cacheAccessed(result != null);
+    if (result == null) {
+      final SolarEvents.EphemerisCacheRefill event = SolarEvents.ephemerisCacheRefill();
+      result = solveYear(year, deltaT);
+      event.finish("Seasons", SPA.Accuracy.FULL, result.length);
+      synchronized (CACHE) {
+        CACHE.put(key, result);
+      }
+    }
+    return result.clone();
+  }
+
+  private static long[] solveYear(final int year, final double deltaT) {
+    final long[] result = new long[Event.values().length];
+    for (final Event event : Event.values()) {
+      final double jde = solve(year, event);
+      final double jd = jde - deltaT / 86400.0;
+      result[event.ordinal()] = round((jd - 2440587.5) * 86400000.0);
+    }
+    return result;
+  }
+
+  /** Solve for the JDE at which the apparent sun longitude reaches that of the event. */
+  private static double solve(final int year, final Event event) {
+    double jde =
+        year < 1000
+            ? MathUtil.polynomial(year / 1000.0, MEAN_EVENTS_BEFORE_1000[event.ordinal()])
+            : MathUtil.polynomial((year - 2000) / 1000.0, MEAN_EVENTS_FROM_1000[event.ordinal()]);
+
+    SPA.Accuracy accuracy = SPA.Accuracy.HIGH;
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      final double lambda =
+          SPA.calculateApparentSunLongitude(JulianDate.julianEphemerisCentury(jde, 0), accuracy);
+      final double correction = IEEEremainder(event.longitude - lambda, 360.0) / degreesPerDay(jde);
+      jde += correction;
+
+      final double remainingError = abs(correction) * RATE_ERROR;
+      if (accuracy == SPA.Accuracy.FULL) {
+        if (remainingError < EPSILON) {
+          break;
+        }
+      } else if (remainingError < HIGH_EPSILON) {
+        accuracy = SPA.Accuracy.FULL;
+      }
+    }
+    return jde;
+  }
+
+  /**
+   * Rate of change of the sun's geometric longitude at a JDE, in degrees per day, from the mean
+   * anomaly and equation of center of Meeus, chapter 25.
+   */
+  private static double degreesPerDay(final double jde) {
+    final double t = (jde - 2451545.0) / 36525.0;
+    final double m = toRadians(MathUtil.polynomial(t, 357.52911, 35999.05029, -0.0001537));
+    final double equationOfCenterPerM =
+        MathUtil.polynomial(t, 1.914602, -0.004817, -0.000014) * cos(m)
+            + 2 * MathUtil.polynomial(t, 0.019993, -0.000101) * cos(2 * m)
+            + 3 * 0.000289 * cos(3 * m);
+    final double perCentury =
+        MathUtil.polynomial(t, 36000.76983, 2 * 0.0003032)
+            + toRadians(equationOfCenterPerM) * 35999.05029;
+    return perCentury / 36525.0;
+  }
+}
@@ -0,0 +1,330 @@
+package net.e175.klaus.solarpositioning;
+
+import static java.lang.Math.*;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Search for the exact times at which the sun crosses a given elevation or azimuth, e.g. for glare
+ * and shading calculations.
+ *
+ * <p>Crossings are first bracketed by sampling every {@value #BRACKET_STEP} seconds, using a {@link
+ * ChebyshevEphemeris} fitted to the search window, which costs a fraction of an SPA evaluation per
+ * sample. Each bracket is then refined with Brent's method against the full SPA algorithm until the
+ * requested tolerance is reached. A day with two crossings typically takes a few dozen SPA
+ * evaluations in total.
+ *
+ * <p>Pairs of crossings closer together than the sampling interval, which only happen when the sun
+ * barely reaches the threshold (or, for azimuth, passes very close to the zenith), may be missed.
+ *
+ * <p>Note that SPA only applies refraction correction while the sun is above the horizon, so the
+ * refracted elevation jumps by about half a degree at sunrise and sunset. Thresholds within that
+ * jump are reported as crossed at the time of the jump.
+ */
+public final class SolarEventSearch {
+
+  /** Sampling interval for bracketing crossings, in seconds. */
+  static final int BRACKET_STEP = 300;
+
+  private static final Duration FIT_SEGMENT_LENGTH = Duration.ofDays(8);
+  private static final int FIT_DEGREE = 5;
+  private static final int MAX_ITERATIONS = 100;
+
+  private SolarEventSearch() {}
+
+  /**
+   * Find all times at which the sun rises or sets through an elevation threshold within a time
+   * window.
+   *
+   * @param start Start of the time window (inclusive).
+   * @param end End of the time window (inclusive).
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. Use {@link Double#NaN} for geometric elevation.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle. Use {@link Double#NaN} for geometric elevation.
+   * @param elevation Elevation threshold (90° minus zenith angle), in degrees.
+   * @param tolerance Maximum error of the returned times, at least one millisecond.
+   * @return Crossings of type {@link SunEvents#RISING} or {@link SunEvents#SETTING}, sorted by time
+   * @throws IllegalArgumentException if end is before start, or for a tolerance below one
+   *     millisecond
+   */
+  public static SunEvents findElevationCrossings(
+      final ZonedDateTime start,
+      final ZonedDateTime end,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double elevation,
+      final Duration tolerance) {
+    final Window window = new Window(start, end, deltaT, tolerance);
+    final double[] crossings =
+        window.find(
+            (jd, source) -> window.zenithAngle(jd, source, site, pressure, temperature),
+            zenithAngle -> (90 - zenithAngle) - elevation,
+            false);
+
+    final int size = crossings.length / 2;
+    final long[] epochMillis = new long[size];
+    final int[] types = new int[size];
+    final double[] elevations = new double[size];
+    for (int i = 0; i < size; i++) {
+      epochMillis[i] = window.toEpochMillis(crossings[2 * i]);
+      types[i] = crossings[2 * i + 1] > 0 ? SunEvents.RISING : SunEvents.SETTING;
+      elevations[i] = elevation;
+    }
+    return new SunEvents(epochMillis, types, elevations, size);
+  }
+
+  /**
+   * Find all times at which the sun passes an azimuth within a time window.
+   *
+   * @param start Start of the time window (inclusive).
+   * @param end End of the time window (inclusive).
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param azimuth Azimuth, in degrees (measured eastward from north).
+   * @param tolerance Maximum error of the returned times, at least one millisecond.
+   * @return Times of the crossings in milliseconds since 1970-01-01T00:00:00Z, sorted
+   * @throws IllegalArgumentException if end is before start, or for a tolerance below one
+   *     millisecond
+   */
+  public static long[] findAzimuthCrossings(
+      final ZonedDateTime start,
+      final ZonedDateTime end,
+      final ObserverSite site,
+      final double deltaT,
+      final double azimuth,
+      final Duration tolerance) {
+    final Window window = new Window(start, end, deltaT, tolerance);
+    final double[] crossings =
+        window.find(
+            (jd, source) -> window.azimuth(jd, source, site),
+            a -> IEEEremainder(a - azimuth, 360),
+            true);
+
+    final long[] epochMillis = new long[crossings.length / 2];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = window.toEpochMillis(crossings[2 * i]);
+    }
+    return epochMillis;
+  }
+
+  /** Calculates a topocentric angle for a Julian date, using the given ephemeris source. */
+  @FunctionalInterface
+  private interface Angle {
+    double at(double jd, EphemerisSource source);
+  }
+
+  /** Fills in the nu, alpha, delta, R ephemeris array for a Julian date. */
+  @FunctionalInterface
+  private interface EphemerisSource {
+    void calculate(double jd, double[] ephemeris);
+  }
+
+  /** Search window, with times in seconds relative to its start. */
+  private static final class Window {
+    private final long startMillis;
+    private final double length;
+    private final double deltaT;
+    private final double tolerance;
+    private final ChebyshevEphemeris fitted;
+    private final double[] ephemeris = new double[SPA.EPHEMERIS_SIZE];
+    private final double[] azimuth = new double[1];
+    private final double[] zenithAngle = new double[1];
+
+    Window(
+        final ZonedDateTime start,
+        final ZonedDateTime end,
+        final double deltaT,
+        final Duration tolerance) {
+      if (end.isBefore(start)) {
+        throw new IllegalArgumentException("end is before start");
+      }
+      if (tolerance.compareTo(Duration.ofMillis(1)) < 0) {
+        throw new IllegalArgumentException("tolerance below one millisecond");
+      }
+
+      this.startMillis = start.toInstant().toEpochMilli();
+      this.length = (end.toInstant().toEpochMilli() - startMillis) / 1000.0;
+      this.deltaT = deltaT;
+      this.tolerance = tolerance.toNanos() / 1e9;
+      // the fit ignores fractions of a second, so extend it to cover the whole window
+      this.fitted =
+          ChebyshevEphemeris.fit(start, end.plusSeconds(1), deltaT, FIT_SEGMENT_LENGTH, FIT_DEGREE);
+    }
+
+    long toEpochMillis(final double t) {
+      return startMillis + round(t * 1000);
+    }
+
+    double julianDate(final double t) {
+      final double epochSecond = floor(startMillis / 1000.0 + t);
+      final double fraction = startMillis / 1000.0 + t - epochSecond;
+      return JulianDate.calcJulianDate((long) epochSecond) + fraction / 86400.0;
+    }
+
+    double zenithAngle(
+        final double jd,
+        final EphemerisSource source,
+        final ObserverSite site,
+        final double pressure,
+        final double temperature) {
+      topocentric(jd, source, site, pressure, temperature);
+      return zenithAngle[0];
+    }
+
+    double azimuth(final double jd, final EphemerisSource source, final ObserverSite site) {
+      topocentric(jd, source, site, Double.NaN, Double.NaN);
+      return azimuth[0];
+    }
+
+    private void topocentric(
+        final double jd,
+        final EphemerisSource source,
+        final ObserverSite site,
+        final double pressure,
+        final double temperature) {
+      source.calculate(jd, ephemeris);
+      SPA.calculateTopocentricSolarPosition(
+          ephemeris[0],
+          ephemeris[1],
+          ephemeris[2],
+          ephemeris[3],
+          site,
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          0);
+    }
+
+    /**
+     * Find the roots of target(angle(t)) within the window, returning pairs of time and direction
+     * (sign of the slope). With wrapping, sign changes across the discontinuity at +/-180 are not
+     * roots.
+     */
+    double[] find(final Angle angle, final DoubleUnaryOperator target, final boolean wrapping) {
+      final EphemerisSource approximate = (jd, e) -> fitted.calculateEphemeris(jd, e, 0);
+      final EphemerisSource exact = (jd, e) -> SPA.calculateEphemeris(jd, deltaT, e, 0);
+      final DoubleUnaryOperator cheap =
+          t -> target.applyAsDouble(angle.at(julianDate(t), approximate));
+      final DoubleUnaryOperator full = t -> target.applyAsDouble(angle.at(julianDate(t), exact));
+
+      double[] roots = new double[8];
+      int size = 0;
+
+      double a = 0;
+      double fa = cheap.applyAsDouble(a);
+      while (a < length) {
+        final double b = min(a + BRACKET_STEP, length);
+        final double fb = cheap.applyAsDouble(b);
+
+        if ((fa < 0) != (fb < 0) && !(wrapping && abs(fa - fb) > 180)) {
+          final double root = brent(full, a, b);
+          if (!Double.isNaN(root)) {
+            if (size + 2 > roots.length) {
+              roots = Arrays.copyOf(roots, roots.length * 2);
+            }
+            roots[size++] = root;
+            roots[size++] = fb - fa;
+          }
+        }
+
+        a = b;
+        fa = fb;
+      }
+      return Arrays.copyOf(roots, size);
+    }
+
+    /**
+     * Brent's method, as in Press et al., 'Numerical Recipes', 3rd ed., section 9.3. Returns NaN if
+     * the function values at a and b have the same sign.
+     *
+     * <p>Like the original, this compares doubles exactly throughout: a function value of zero (or
+     * -0.0, which the sign checks treat alike) is a root, and a == c means that only two distinct
+     * points are known, so the secant method is used. See spotbugs-exclude.xml.
+     */
+    private double brent(final DoubleUnaryOperator f, double a, double b) {
+      double fa = f.applyAsDouble(a);
+      double fb = f.applyAsDouble(b);
+      if ((fa < 0) == (fb < 0) && fa != 0 && fb != 0) {
+        return Double.NaN;
+      }
+
+      double c = b;
+      double fc = fb;
+      double d = b - a;
+      double e = d;
+      for (int i = 0; i < MAX_ITERATIONS; i++) {
+        if ((fb > 0 && fc > 0) || (fb < 0 && fc < 0)) {
+          c = a;
+          fc = fa;
+          d = b - a;
+          e = d;
+        }
+        if (abs(fc) < abs(fb)) {
+          a = b;
+          b = c;
+          c = a;
+          fa = fb;
+          fb = fc;
+          fc = fa;
+        }
+
+        final double tol = 2 * ulp(b) + 0.5 * tolerance;
+        final double m = 0.5 * (c - b);
+        if (abs(m) <= tol || fb == 0) {
+          return b;
+        }
+
+        if (abs(e) >= tol && abs(fa) > abs(fb)) {
+          // attempt inverse quadratic interpolation
+          final double s = fb / fa;
+          double p;
+          double q;
+          if (a == c) {
+            p = 2 * m * s;
+            q = 1 - s;
+          } else {
+            final double r = fb / fc;
+            final double t = fa / fc;
+            p = s * (2 * m * t * (t - r) - (b - a) * (r - 1));
+            q = (t - 1) * (r - 1) * (s - 1);
+          }
+          if (p > 0) {
+            q = -q;
+          }
+          p = abs(p);
+          if (2 * p < min(3 * m * q - abs(tol * q), abs(e * q))) {
+            e = d;
+            d = p / q;
+          } else {
+            // interpolation failed, use bisection
+            d = m;
+            e = d;
+          }
+        } else {
+          // bounds decreasing too slowly, use bisection
+          d = m;
+          e = d;
+        }
+
+        a = b;
+        fa = fb;
+        b += abs(d) > tol ? d : copySign(tol, m);
+        fb = f.applyAsDouble(b);
+      }
+      return b;
+    }
+  }
+}
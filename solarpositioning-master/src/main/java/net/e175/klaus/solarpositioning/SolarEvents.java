@@ -0,0 +1,79 @@
+package net.e175.klaus.solarpositioning;
+
+/**
+ * JDK Flight Recorder events emitted around bulk work. All of them are disabled by default and have
+ * to be enabled by name in the recording settings, e.g. {@code
+ * net.e175.klaus.solarpositioning.PositionBatch#enabled=true}. While disabled, creating and
+ * finishing an event costs next to nothing.
+ *
+ * <p>The duration of each event is the duration of the work; the fields tell what was calculated.
+ * The factory methods begin the event, so they should be called right before the work.
+ *
+ * <p>The {@code jdk.jfr} module is optional at runtime. Without it, the factory methods return a
+ * shared event that does nothing, and the event classes in {@link JfrEvents} are never loaded.
+ */
+final class SolarEvents {
+
+  /** Whether the jdk.jfr module is present and readable, i.e. whether events can be recorded. */
+  private static final boolean AVAILABLE =
+      ModuleLayer.boot()
+          .findModule("jdk.jfr")
+          .map(SolarEvents.class.getModule()::canRead)
+          .orElse(false);
+
+  private SolarEvents() {}
+
+  /** Solar positions calculated by one call of a batch method. */
+  interface PositionBatch {
+    void finish(SolarPositionAlgorithm algorithm, int siteCount, int timeCount);
+  }
+
+  /** Sunrise, transit and sunset times calculated by one call for many sites or days. */
+  interface SunriseRange {
+    void finish(SPA.Horizon horizon, int siteCount, int timeCount);
+  }
+
+  /** Observer-independent values calculated to fill a cache, i.e. on a cache miss. */
+  interface EphemerisCacheRefill {
+    void finish(String cache, SolarPositionAlgorithm algorithm, int timeCount);
+  }
+
+  static PositionBatch positionBatch() {
+    return AVAILABLE ? JfrEvents.positionBatch() : Disabled.INSTANCE;
+  }
+
+  static SunriseRange sunriseRange() {
+    return AVAILABLE ? JfrEvents.sunriseRange() : Disabled.INSTANCE;
+  }
+
+  static EphemerisCacheRefill ephemerisCacheRefill() {
+    return AVAILABLE && JfrEvents.ephemerisCacheRefillEnabled()
+        ? JfrEvents.ephemerisCacheRefill()
+        : Disabled.INSTANCE;
+  }
+
+  static String name(final SolarPositionAlgorithm algorithm) {
+    if (algorithm instanceof SPA.Accuracy accuracy) {
+      return "SPA " + accuracy.name();
+    } else if (algorithm instanceof GrenaAlgorithm grena) {
+      return "Grena " + grena.name();
+    }
+    return algorithm.toString();
+  }
+
+  /** Stands in for all events when flight recording isn't available. */
+  private enum Disabled implements PositionBatch, SunriseRange, EphemerisCacheRefill {
+    INSTANCE;
+
+    @Override
+    public void finish(
+        final SolarPositionAlgorithm algorithm, final int siteCount, final int timeCount) {}
+
+    @Override
+    public void finish(final SPA.Horizon horizon, final int siteCount, final int timeCount) {}
+
+    @Override
+    public void finish(
+        final String cache, final SolarPositionAlgorithm algorithm, final int timeCount) {}
+  }
+}
@@ -0,0 +1,334 @@
+package net.e175.klaus.solarpositioning;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional instrumentation of calculation counts and latencies, without depending on any metrics
+ * framework. Disabled by default: until a {@link Recorder} is installed, the instrumented methods
+ * do nothing more than one volatile read.
+ *
+ * <p>Events are reported by the position methods of {@link SPA}, {@link Grena3}, {@link
+ * GrenaAlgorithm}, {@link VectorSPA}, {@link ChebyshevEphemeris}, {@link SolarPositionGrid} and
+ * {@link SolarPositionSeries} (once per call, with the number of positions), the sunrise methods of
+ * {@link SPA} (once per call, or per day for streams), the caches of {@link Seasons} and of sunrise
+ * ranges and streams, and the validation of coordinates. {@link SolarPositions} reports once per
+ * run of points in time using the same algorithm. Positions are reported with their {@link Source},
+ * which tells full evaluations of an algorithm apart from much cheaper ones, e.g. interpolated from
+ * a {@link ChebyshevEphemeris}. Recorders are called on the calculating thread and must be
+ * thread-safe.
+ *
+ * <pre>{@code
+ * var registry = new SolarMetrics.Registry();
+ * SolarMetrics.install(registry);
+ * // ... calculate
+ * var snapshot = registry.snapshot();
+ * }</pre>
+ */
+public final class SolarMetrics {
+
+  /** Marks a start time taken while no recorder was installed. */
+  static final long NOT_STARTED = Long.MIN_VALUE;
+
+  private static volatile Recorder recorder;
+
+  private SolarMetrics() {}
+
+  /** How positions were calculated, from the algorithm's own terms or a cheaper derived path. */
+  public enum Source {
+    /** The algorithm evaluated for each position. */
+    DIRECT,
+    /** SPA's periodic terms advanced from the previous sample, see {@link SolarPositionSeries}. */
+    RECURRENCE,
+    /** SPA's periodic terms summed with the Vector API, see {@link VectorSPA}. */
+    VECTORIZED,
+    /**
+     * The topocentric stage only, from an SPA ephemeris calculated once per point in time, e.g. a
+     * {@link SpaEphemeris} or the ephemerides shared by all sites of a {@link SolarPositionGrid}.
+     */
+    EPHEMERIS,
+    /** Interpolated from a {@link ChebyshevEphemeris}, a few multiply-adds per position. */
+    CHEBYSHEV
+  }
+
+  /**
+   * Receiver of instrumentation events. All methods do nothing by default, so implementations only
+   * need to override what they are interested in.
+   */
+  public interface Recorder {
+
+    /**
+     * Called after topocentric solar positions have been calculated.
+     *
+     * @param algorithm Algorithm used, i.e. a {@link GrenaAlgorithm} or {@link SPA.Accuracy}.
+     * @param source How the positions were calculated with the algorithm.
+     * @param count Number of positions calculated by the call (1 for single positions).
+     * @param nanos Duration of the call, in nanoseconds.
+     */
+    default void positionsCalculated(
+        final SolarPositionAlgorithm algorithm,
+        final Source source,
+        final int count,
+        final long nanos) {}
+
+    /**
+     * Called after sunrise, transit and sunset times have been calculated.
+     *
+     * @param count Number of days or sites calculated by the call.
+     * @param nanos Duration of the call, in nanoseconds.
+     */
+    default void sunrisesCalculated(final int count, final long nanos) {}
+
+    /**
+     * Called on each lookup in a cache of results.
+     *
+     * @param hit Whether the result was found in the cache.
+     */
+    default void cacheAccessed(final boolean hit) {}
+
+    /** Called when input coordinates are rejected as out of range. */
+    default void inputRejected() {}
+  }
+
+  /**
+   * Install a recorder, replacing any previously installed one.
+   *
+   * @param recorder Recorder to receive all subsequent events, or null to disable instrumentation.
+   */
+  public static void install(final Recorder recorder) {
+    SolarMetrics.recorder = recorder;
+  }
+
+  /**
+   * Get the installed recorder.
+   *
+   * @return installed recorder, or null if instrumentation is disabled
+   */
+  public static Recorder installed() {
+    return recorder;
+  }
+
+  /** Start timing a call, if a recorder is installed. */
+  static long start() {
+    return recorder != null ? System.nanoTime() : NOT_STARTED;
+  }
+
+  static void positionsCalculated(
+      final SolarPositionAlgorithm algorithm,
+      final Source source,
+      final int count,
+      final long start) {
+    final Recorder r = recorder;
+    if (r != null && start != NOT_STARTED) {
+      r.positionsCalculated(algorithm, source, count, System.nanoTime() - start);
+    }
+  }
+
+  static void sunrisesCalculated(final int count, final long start) {
+    final Recorder r = recorder;
+    if (r != null && start != NOT_STARTED) {
+      r.sunrisesCalculated(count, System.nanoTime() - start);
+    }
+  }
+
+  static void cacheAccessed(final boolean hit) {
+    final Recorder r = recorder;
+    if (r != null) {
+      r.cacheAccessed(hit);
+    }
+  }
+
+  static void inputRejected() {
+    final Recorder r = recorder;
+    if (r != null) {
+      r.inputRejected();
+    }
+  }
+
+  /**
+   * Counts of values in power-of-two buckets: bucket 0 counts zeros, and bucket {@code i > 0}
+   * counts values from 2<sup>i-1</sup> to 2<sup>i</sup>-1.
+   */
+  public static final class Histogram {
+
+    /** Number of buckets, covering all non-negative long values. */
+    public static final int BUCKETS = 64;
+
+    private final long[] counts;
+
+    Histogram(final long[] counts) {
+      this.counts = counts.clone();
+    }
+
+    /**
+     * Get the bucket a value is counted in.
+     *
+     * @param value Non-negative value.
+     * @return bucket index
+     */
+    public static int bucket(final long value) {
+      return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, value)));
+    }
+
+    /**
+     * Get the number of values in a bucket.
+     *
+     * @param bucket Bucket index, from 0 to {@value #BUCKETS} - 1.
+     * @return count
+     */
+    public long count(final int bucket) {
+      return counts[bucket];
+    }
+
+    /**
+     * Get the number of values in all buckets.
+     *
+     * @return count
+     */
+    public long total() {
+      long total = 0;
+      for (final long count : counts) {
+        total += count;
+      }
+      return total;
+    }
+  }
+
+  /**
+   * Values of a {@link Registry} at one point in time.
+   *
+   * @param positions Positions calculated, per source and algorithm. Only sources with positions
+   *     are included.
+   * @param sunrises Sunrise/transit/sunset results calculated.
+   * @param cacheHits Cache lookups that found a result.
+   * @param cacheMisses Cache lookups that did not find a result.
+   * @param rejectedInputs Calls rejected for out of range coordinates.
+   * @param batchSizes Number of positions per call of position methods.
+   * @param positionNanos Duration of calls of position methods, in nanoseconds.
+   * @param sunriseNanos Duration of calls of sunrise methods, in nanoseconds.
+   */
+  public record Snapshot(
+      Map<Source, Map<SolarPositionAlgorithm, Long>> positions,
+      long sunrises,
+      long cacheHits,
+      long cacheMisses,
+      long rejectedInputs,
+      Histogram batchSizes,
+      Histogram positionNanos,
+      Histogram sunriseNanos) {
+
+    public Snapshot {
+      final Map<Source, Map<SolarPositionAlgorithm, Long>> copy = new EnumMap<>(Source.class);
+      positions.forEach((source, counts) -> copy.put(source, Map.copyOf(counts)));
+      positions = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Get the positions calculated from one source.
+     *
+     * @param source Source of the positions.
+     * @return positions calculated, per algorithm
+     */
+    public Map<SolarPositionAlgorithm, Long> positions(final Source source) {
+      return positions.getOrDefault(source, Map.of());
+    }
+  }
+
+  /**
+   * A thread-safe in-memory recorder, which keeps counters and histograms until discarded. Use
+   * {@link #snapshot()} to export its values.
+   */
+  public static final class Registry implements Recorder {
+    private final Map<Source, Map<SolarPositionAlgorithm, LongAdder>> positions =
+        new EnumMap<>(Source.class);
+    private final LongAdder sunrises = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder rejectedInputs = new LongAdder();
+    private final LongAdder[] batchSizes = newBuckets();
+    private final LongAdder[] positionNanos = newBuckets();
+    private final LongAdder[] sunriseNanos = newBuckets();
+
+    /** Create a registry with all counters and histograms at zero. */
+    public Registry() {
+      for (final Source source : Source.values()) {
+        positions.put(source, new ConcurrentHashMap<>());
+      }
+    }
+
+    @Override
+    public void positionsCalculated(
+        final SolarPositionAlgorithm algorithm,
+        final Source source,
+        final int count,
+        final long nanos) {
+      positions.get(source).computeIfAbsent(algorithm, a -> new LongAdder()).add(count);
+      batchSizes[Histogram.bucket(count)].increment();
+      positionNanos[Histogram.bucket(nanos)].increment();
+    }
+
+    @Override
+    public void sunrisesCalculated(final int count, final long nanos) {
+      sunrises.add(count);
+      sunriseNanos[Histogram.bucket(nanos)].increment();
+    }
+
+    @Override
+    public void cacheAccessed(final boolean hit) {
+      (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    @Override
+    public void inputRejected() {
+      rejectedInputs.increment();
+    }
+
+    /**
+     * Get the current values. Values recorded concurrently may or may not be included.
+     *
+     * @return snapshot of all counters and histograms
+     */
+    public Snapshot snapshot() {
+      final Map<Source, Map<SolarPositionAlgorithm, Long>> positionCounts =
+          new EnumMap<>(Source.class);
+      positions.forEach(
+          (source, counts) -> {
+            if (!counts.isEmpty()) {
+              final Map<SolarPositionAlgorithm, Long> sums = new HashMap<>();
+              counts.forEach((algorithm, count) -> sums.put(algorithm, count.sum()));
+              positionCounts.put(source, sums);
+            }
+          });
+
+      return new Snapshot(
+          positionCounts,
+          sunrises.sum(),
+          cacheHits.sum(),
+          cacheMisses.sum(),
+          rejectedInputs.sum(),
+          histogram(batchSizes),
+          histogram(positionNanos),
+          histogram(sunriseNanos));
+    }
+
+    private static LongAdder[] newBuckets() {
+      final LongAdder[] buckets = new LongAdder[Histogram.BUCKETS];
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new LongAdder();
+      }
+      return buckets;
+    }
+
+    private static Histogram histogram(final LongAdder[] buckets) {
+      final long[] counts = new long[buckets.length];
+      for (int i = 0; i < buckets.length; i++) {
+        counts[i] = buckets[i].sum();
+      }
+      return new Histogram(counts);
+    }
+  }
+}
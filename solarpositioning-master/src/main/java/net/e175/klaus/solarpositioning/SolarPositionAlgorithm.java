@@ -0,0 +1,113 @@
+package net.e175.klaus.solarpositioning;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+/**
+ * A topocentric solar position algorithm, for callers that want to choose between algorithms of
+ * different speed and accuracy at runtime.
+ *
+ * <p>The methods follow the conventions of the static methods of the same name in {@link Grena3}.
+ *
+ * @see GrenaAlgorithm
+ * @see SPA.Accuracy
+ * @see SolarPositions
+ */
+public interface SolarPositionAlgorithm {
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * @param instant Point in time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  SolarPosition calculateSolarPosition(
+      Instant instant, ObserverSite site, double deltaT, double pressure, double temperature);
+
+  /**
+   * Calculate topocentric solar position: the location of the sun on the sky for a certain point in
+   * time on a certain point of the Earth's surface.
+   *
+   * @param date Observer's local date and time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @see SolarPosition
+   */
+  default SolarPosition calculateSolarPosition(
+      final ZonedDateTime date,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    return calculateSolarPosition(date.toInstant(), site, deltaT, pressure, temperature);
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, writing the results into caller-supplied arrays.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  void calculateSolarPositions(
+      long[] epochMillis,
+      ObserverSite site,
+      double deltaT,
+      double pressure,
+      double temperature,
+      double[] azimuth,
+      double[] zenithAngle);
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, passing each result to a sink instead of creating {@link SolarPosition}
+   * objects.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param sink Receiver of the results, called in order with the index into {@code epochMillis}.
+   */
+  void calculateSolarPositions(
+      long[] epochMillis,
+      ObserverSite site,
+      double deltaT,
+      double pressure,
+      double temperature,
+      SolarPositionSink sink);
+}
@@ -0,0 +1,282 @@
+package net.e175.klaus.solarpositioning;
+
+import java.nio.DoubleBuffer;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallel calculation of SPA solar positions for a grid of many sites and many points in time.
+ *
+ * <p>Results are written in row-major order, with one row per site: the position for {@code
+ * sites[i]} at {@code epochMillis[j]} ends up at index {@code i * epochMillis.length + j}.
+ *
+ * <p>The site-independent part of SPA (see {@link SPA#calculateEphemeris(ZonedDateTime, double)})
+ * is calculated once per point in time. The grid is then split into tiles of {@value #SITE_TILE}
+ * sites by {@value #TIME_TILE} points in time, small enough for a tile's inputs to stay in cache,
+ * which are processed in parallel. Every element is calculated independently by the same code, so
+ * results are identical to {@link SPA#calculateSolarPositions(long[], ObserverSite, double, double,
+ * double, double[], double[])} regardless of the pool's parallelism.
+ *
+ * <p>As with the {@link ZonedDateTime}-based methods, any fraction of a second is ignored.
+ */
+public final class SolarPositionGrid {
+
+  /** Number of sites per tile. */
+  static final int SITE_TILE = 64;
+
+  /** Number of points in time per tile. */
+  static final int TIME_TILE = 512;
+
+  private SolarPositionGrid() {}
+
+  /**
+   * Calculate topocentric solar positions for all combinations of sites and points in time, using
+   * the common {@link ForkJoinPool}.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param sites Observers' locations.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north), in row-major order. Must hold at least {@code sites.length *
+   *     epochMillis.length} elements.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees, in
+   *     row-major order. Must hold at least {@code sites.length * epochMillis.length} elements.
+   * @throws IllegalArgumentException for too short output arrays, or if the grid is too large
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite[] sites,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle) {
+    calculateSolarPositions(
+        epochMillis,
+        sites,
+        deltaT,
+        pressure,
+        temperature,
+        azimuth,
+        zenithAngle,
+        ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Calculate topocentric solar positions for all combinations of sites and points in time, using
+   * the given {@link ForkJoinPool}.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param sites Observers' locations.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north), in row-major order. Must hold at least {@code sites.length *
+   *     epochMillis.length} elements.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees, in
+   *     row-major order. Must hold at least {@code sites.length * epochMillis.length} elements.
+   * @param pool Pool to run the calculation in. Its parallelism determines the number of threads.
+   * @throws IllegalArgumentException for too short output arrays, or if the grid is too large
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite[] sites,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] azimuth,
+      final double[] zenithAngle,
+      final ForkJoinPool pool) {
+    MathUtil.checkOutputLength(gridSize(epochMillis, sites), azimuth, zenithAngle);
+
+    calculate(
+        epochMillis,
+        sites,
+        deltaT,
+        pressure,
+        temperature,
+        pool,
+        (offset, tileAzimuth, tileZenithAngle, length) -> {
+          System.arraycopy(tileAzimuth, 0, azimuth, offset, length);
+          System.arraycopy(tileZenithAngle, 0, zenithAngle, offset, length);
+        });
+  }
+
+  /**
+   * Calculate topocentric solar positions for all combinations of sites and points in time, using
+   * the given {@link ForkJoinPool} and writing into buffers, e.g. direct or memory-mapped ones.
+   *
+   * <p>Only absolute bulk puts are used, so the buffers' positions and limits are not changed. The
+   * buffers must not be modified by other threads during the calculation.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param sites Observers' locations.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param azimuth Output buffer receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north), in row-major order starting at index 0. Its limit must be at least
+   *     {@code sites.length * epochMillis.length}.
+   * @param zenithAngle Output buffer receiving the topocentric zenith angles, in degrees, in
+   *     row-major order starting at index 0. Its limit must be at least {@code sites.length *
+   *     epochMillis.length}.
+   * @param pool Pool to run the calculation in. Its parallelism determines the number of threads.
+   * @throws IllegalArgumentException for too small or read-only output buffers, or if the grid is
+   *     too large
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite[] sites,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final DoubleBuffer azimuth,
+      final DoubleBuffer zenithAngle,
+      final ForkJoinPool pool) {
+    final int size = gridSize(epochMillis, sites);
+    if (azimuth.limit() < size || zenithAngle.limit() < size) {
+      throw new IllegalArgumentException("output buffer too small");
+    }
+    if (azimuth.isReadOnly() || zenithAngle.isReadOnly()) {
+      throw new IllegalArgumentException("output buffer is read-only");
+    }
+
+    calculate(
+        epochMillis,
+        sites,
+        deltaT,
+        pressure,
+        temperature,
+        pool,
+        (offset, tileAzimuth, tileZenithAngle, length) -> {
+          azimuth.put(offset, tileAzimuth, 0, length);
+          zenithAngle.put(offset, tileZenithAngle, 0, length);
+        });
+  }
+
+  /** Receives one tile row: results for one site and consecutive points in time. */
+  @FunctionalInterface
+  private interface RowWriter {
+    void write(int offset, double[] azimuth, double[] zenithAngle, int length);
+  }
+
+  private static int gridSize(final long[] epochMillis, final ObserverSite[] sites) {
+    try {
+      // the ephemerides of all points in time have to fit into one array, too
+      Math.multiplyExact(epochMillis.length, SPA.EPHEMERIS_SIZE);
+      return Math.multiplyExact(sites.length, epochMillis.length);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("grid too large", e);
+    }
+  }
+
+  private static void calculate(
+      final long[] epochMillis,
+      final ObserverSite[] sites,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final ForkJoinPool pool,
+      final RowWriter writer) {
+    final int times = epochMillis.length;
+    final int timeTiles = (times + TIME_TILE - 1) / TIME_TILE;
+    final int siteTiles = (sites.length + SITE_TILE - 1) / SITE_TILE;
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+
+    // site-independent part, once per point in time
+    final double[] ephemerides = new double[times * SPA.EPHEMERIS_SIZE];
+    pool.invoke(
+        new RangeTask(
+            0,
+            timeTiles,
+            tile -> {
+              final int end = Math.min(times, (tile + 1) * TIME_TILE);
+              for (int j = tile * TIME_TILE; j < end; j++) {
+                final double jd = JulianDate.calcJulianDate(Math.floorDiv(epochMillis[j], 1000L));
+                SPA.calculateEphemeris(jd, deltaT, ephemerides, j * SPA.EPHEMERIS_SIZE);
+              }
+            }));
+
+    // topocentric part, tile by tile
+    pool.invoke(
+        new RangeTask(
+            0,
+            timeTiles * siteTiles,
+            tile -> {
+              final int timeStart = (tile % timeTiles) * TIME_TILE;
+              final int timeEnd = Math.min(times, timeStart + TIME_TILE);
+              final int siteStart = (tile / timeTiles) * SITE_TILE;
+              final int siteEnd = Math.min(sites.length, siteStart + SITE_TILE);
+
+              final double[] tileAzimuth = new double[TIME_TILE];
+              final double[] tileZenithAngle = new double[TIME_TILE];
+              for (int i = siteStart; i < siteEnd; i++) {
+                for (int j = timeStart; j < timeEnd; j++) {
+                  final int e = j * SPA.EPHEMERIS_SIZE;
+                  SPA.calculateTopocentricSolarPosition(
+                      ephemerides[e],
+                      ephemerides[e + 1],
+                      ephemerides[e + 2],
+                      ephemerides[e + 3],
+                      sites[i],
+                      pressure,
+                      temperature,
+                      tileAzimuth,
+                      tileZenithAngle,
+                      j - timeStart);
+                }
+                writer.write(
+                    i * times + timeStart, tileAzimuth, tileZenithAngle, timeEnd - timeStart);
+              }
+            }));
+    event.finish(SPA.Accuracy.FULL, sites.length, times);
+    SolarMetrics.positionsCalculated(
+        SPA.Accuracy.FULL, SolarMetrics.Source.EPHEMERIS, sites.length * times, start);
+  }
+
+  /** Runs a body for each index of a range, splitting the range in halves down to single tiles. */
+  private static final class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int start;
+    private final int end;
+    private final transient IntConsumer body;
+
+    RangeTask(final int start, final int end, final IntConsumer body) {
+      this.start = start;
+      this.end = end;
+      this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= 1) {
+        if (start < end) {
+          body.accept(start);
+        }
+      } else {
+        final int middle = (start + end) >>> 1;
+        invokeAll(new RangeTask(start, middle, body), new RangeTask(middle, end, body));
+      }
+    }
+  }
+}
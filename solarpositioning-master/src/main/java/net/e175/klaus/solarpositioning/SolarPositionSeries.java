@@ -0,0 +1,407 @@
+package net.e175.klaus.solarpositioning;
+
+import static java.lang.Math.*;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Generator for SPA solar positions at fixed time steps for one observer, such as one position per
+ * minute over a year.
+ *
+ * <p>The arguments of the periodic terms of SPA's heliocentric coordinate and nutation series
+ * advance by a constant amount per step. Instead of evaluating several hundred sines and cosines
+ * for each sample, this generator rotates them forward using the angle addition theorems, which
+ * takes a few multiplications per term. To bound the accumulation of rounding errors, all terms are
+ * recalculated from scratch every {@value #ANCHOR_INTERVAL} samples. Between those anchors, the
+ * slightly non-linear nutation arguments are advanced along a chord. Like SPA, dates before the
+ * Gregorian calendar reform of 1582 are converted to Julian dates as if they were Julian calendar
+ * dates, so that the Julian date jumps at the reform and wherever the calendars' leap days differ;
+ * the terms are recalculated there as well.
+ *
+ * <p>Results deviate from {@link SPA#calculateSolarPositions(long[], ObserverSite, double, double,
+ * double, double[], double[])} by less than 1e-9 degrees in angular distance on the sky, far below
+ * SPA's own uncertainty of +/-0.0003 degrees. Most of that is rounding in SPA's own evaluation of
+ * the series far from the year 2000. Azimuth alone may deviate by more close to the zenith, where
+ * azimuths converge.
+ *
+ * <p>Results are written into caller-supplied arrays, so that long series can be processed in
+ * chunks with reused buffers. As with the {@link ZonedDateTime}-based SPA methods, any fraction of
+ * a second of the start time is ignored. Instances are stateful and not thread-safe.
+ */
+public final class SolarPositionSeries {
+
+  /** Number of samples after which all terms are recalculated from scratch. */
+  public static final int ANCHOR_INTERVAL = 1024;
+
+  /** Deviation from the expected Julian date of a sample beyond which it is anchored, in days. */
+  private static final double JD_TOLERANCE = 1e-6;
+
+  private final ObserverSite site;
+  private final double deltaT;
+  private final double pressure;
+  private final double temperature;
+  private final SPA.Accuracy accuracy;
+  private final long startEpochSecond;
+  private final long stepSeconds;
+  private final int count;
+  private int index;
+  private int sinceAnchor;
+  private double nextJd = Double.NaN;
+
+  // heliocentric coordinate series terms, flattened; group boundaries per series
+  private final double[] lbrAmplitudes;
+  private final double[] lbrPhases;
+  private final double[] lbrFrequencies;
+  private final int[] lGroupEnds;
+  private final int[] bGroupEnds;
+  private final int[] rGroupEnds;
+  private final double[] lbrCos;
+  private final double[] lbrSin;
+  private final double[] lbrStepCos;
+  private final double[] lbrStepSin;
+
+  // nutation series terms
+  private final double[][] termsPE;
+  private final double[][] termsY;
+  private final double[] nutationArguments;
+  private final double[] nutationEndArguments;
+  private final double[] nutationCos;
+  private final double[] nutationSin;
+  private final double[] nutationStepCos;
+  private final double[] nutationStepSin;
+
+  private final double[] ephemeris = new double[SPA.EPHEMERIS_SIZE];
+  private final double[] sinkAzimuth = new double[1];
+  private final double[] sinkZenithAngle = new double[1];
+  private final double[] groupSums;
+
+  private SolarPositionSeries(
+      final ZonedDateTime start,
+      final Duration step,
+      final int count,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final SPA.Accuracy accuracy) {
+    if (step.isNegative() || step.isZero() || step.getNano() != 0) {
+      throw new IllegalArgumentException("step must be a positive whole number of seconds");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("count must not be negative");
+    }
+
+    this.site = site;
+    this.deltaT = deltaT;
+    this.pressure = pressure;
+    this.temperature = temperature;
+    this.accuracy = accuracy;
+    this.startEpochSecond = start.toEpochSecond();
+    this.stepSeconds = step.getSeconds();
+    this.count = count;
+
+    final int lbrTerms =
+        countRows(accuracy.termsL) + countRows(accuracy.termsB) + countRows(accuracy.termsR);
+    this.lbrAmplitudes = new double[lbrTerms];
+    this.lbrPhases = new double[lbrTerms];
+    this.lbrFrequencies = new double[lbrTerms];
+    this.lGroupEnds = flatten(accuracy.termsL, 0);
+    this.bGroupEnds = flatten(accuracy.termsB, lGroupEnds[lGroupEnds.length - 1]);
+    this.rGroupEnds = flatten(accuracy.termsR, bGroupEnds[bGroupEnds.length - 1]);
+    this.lbrCos = new double[lbrTerms];
+    this.lbrSin = new double[lbrTerms];
+    this.lbrStepCos = new double[lbrTerms];
+    this.lbrStepSin = new double[lbrTerms];
+
+    this.termsPE = accuracy.termsPE;
+    this.termsY = accuracy.termsY;
+    this.nutationArguments = new double[termsPE.length];
+    this.nutationEndArguments = new double[termsPE.length];
+    this.nutationCos = new double[termsPE.length];
+    this.nutationSin = new double[termsPE.length];
+    this.nutationStepCos = new double[termsPE.length];
+    this.nutationStepSin = new double[termsPE.length];
+
+    this.groupSums = new double[max(lGroupEnds.length, max(bGroupEnds.length, rGroupEnds.length))];
+  }
+
+  /**
+   * Create a series of solar positions.
+   *
+   * @param start Point in time of the first sample.
+   * @param step Time between samples. Must be a positive whole number of seconds.
+   * @param count Number of samples.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @return new series, positioned at the first sample
+   * @throws IllegalArgumentException for an illegal step or negative count
+   */
+  public static SolarPositionSeries of(
+      final ZonedDateTime start,
+      final Duration step,
+      final int count,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature) {
+    return of(start, step, count, site, deltaT, pressure, temperature, SPA.Accuracy.FULL);
+  }
+
+  /**
+   * Create a series of solar positions with a reduced accuracy level.
+   *
+   * @param start Point in time of the first sample.
+   * @param step Time between samples. Must be a positive whole number of seconds.
+   * @param count Number of samples.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param accuracy Accuracy level, trading speed for additional error. See {@link SPA.Accuracy}.
+   * @return new series, positioned at the first sample
+   * @throws IllegalArgumentException for an illegal step or negative count
+   */
+  public static SolarPositionSeries of(
+      final ZonedDateTime start,
+      final Duration step,
+      final int count,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final SPA.Accuracy accuracy) {
+    return new SolarPositionSeries(
+        start, step, count, site, deltaT, pressure, temperature, accuracy);
+  }
+
+  /**
+   * Number of samples not yet generated.
+   *
+   * @return remaining samples
+   */
+  public int remaining() {
+    return count - index;
+  }
+
+  /**
+   * Point in time of the next sample to be generated.
+   *
+   * @return milliseconds since 1970-01-01T00:00:00Z
+   */
+  public long nextEpochMillis() {
+    return (startEpochSecond + index * stepSeconds) * 1000L;
+  }
+
+  /**
+   * Generate the next samples, filling the given arrays as far as possible.
+   *
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north).
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code azimuth}.
+   * @return number of samples written, which is less than the array length only at the end of the
+   *     series
+   * @throws IllegalArgumentException for too short output arrays
+   */
+  public int next(final double[] azimuth, final double[] zenithAngle) {
+    return next(azimuth, zenithAngle, 0, azimuth.length);
+  }
+
+  /**
+   * Generate the next samples into a region of the given arrays.
+   *
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north).
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees.
+   * @param offset First array index to write.
+   * @param length Maximum number of samples to write.
+   * @return number of samples written, which is less than {@code length} only at the end of the
+   *     series
+   * @throws IllegalArgumentException for regions exceeding the output arrays
+   */
+  public int next(
+      final double[] azimuth, final double[] zenithAngle, final int offset, final int length) {
+    if (offset < 0 || length < 0) {
+      throw new IllegalArgumentException("offset and length must not be negative");
+    }
+    MathUtil.checkOutputLength(offset + length, azimuth, zenithAngle);
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final int n = min(length, remaining());
+    for (int i = offset; i < offset + n; i++) {
+      calculateNext(azimuth, zenithAngle, i);
+    }
+    event.finish(accuracy, 1, n);
+    SolarMetrics.positionsCalculated(accuracy, SolarMetrics.Source.RECURRENCE, n, start);
+    return n;
+  }
+
+  /**
+   * Generate the next samples, passing each to a sink instead of writing into arrays.
+   *
+   * @param sink Receiver of the results, called in order with the sample's index within the whole
+   *     series (0 for the first sample).
+   * @param length Maximum number of samples to generate.
+   * @return number of samples generated, which is less than {@code length} only at the end of the
+   *     series
+   * @throws IllegalArgumentException for negative length
+   */
+  public int next(final SolarPositionSink sink, final int length) {
+    if (length < 0) {
+      throw new IllegalArgumentException("length must not be negative");
+    }
+
+    final long start = SolarMetrics.start();
+    final SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    final int n = min(length, remaining());
+    for (int i = 0; i < n; i++) {
+      final int sampleIndex = index;
+      calculateNext(sinkAzimuth, sinkZenithAngle, 0);
+      sink.accept(sampleIndex, sinkAzimuth[0], sinkZenithAngle[0]);
+    }
+    event.finish(accuracy, 1, n);
+    SolarMetrics.positionsCalculated(accuracy, SolarMetrics.Source.RECURRENCE, n, start);
+    return n;
+  }
+
+  private void calculateNext(final double[] azimuth, final double[] zenithAngle, final int i) {
+    final long epochSecond = startEpochSecond + index * stepSeconds;
+    final double jd = JulianDate.calcJulianDate(epochSecond);
+    final double jc = JulianDate.julianCentury(jd);
+    final double jce = JulianDate.julianEphemerisCentury(jd, deltaT);
+    final double jme = jce / 10.0;
+
+    // Julian dates jump at some dates before 1582, see class documentation
+    if (sinceAnchor == ANCHOR_INTERVAL || !(abs(jd - nextJd) < JD_TOLERANCE)) {
+      anchor(jme, jce);
+      sinceAnchor = 0;
+    } else {
+      advance();
+    }
+    sinceAnchor++;
+    nextJd = jd + stepSeconds / 86400.0;
+
+    final double l = sumLBR(jme, lGroupEnds, 0);
+    final double b = sumLBR(jme, bGroupEnds, lGroupEnds[lGroupEnds.length - 1]);
+    final double r = sumLBR(jme, rGroupEnds, bGroupEnds[bGroupEnds.length - 1]);
+
+    double psiSum = 0;
+    double epsilonSum = 0;
+    for (int k = 0; k < termsPE.length; k++) {
+      final double[] row = termsPE[k];
+      psiSum += (row[0] + row[1] * jce) * nutationSin[k];
+      epsilonSum += (row[2] + row[3] * jce) * nutationCos[k];
+    }
+    final double deltaPsi = psiSum / 36000000;
+    final double deltaEpsilon = epsilonSum / 36000000;
+
+    SPA.calculateEphemeris(jd, jc, jme, l, b, r, deltaPsi, deltaEpsilon, ephemeris, 0);
+    SPA.calculateTopocentricSolarPosition(
+        ephemeris[0],
+        ephemeris[1],
+        ephemeris[2],
+        ephemeris[3],
+        site,
+        pressure,
+        temperature,
+        azimuth,
+        zenithAngle,
+        i);
+    index++;
+  }
+
+  /** Recalculate all terms at the current sample, and their rotation per step until next anchor. */
+  private void anchor(final double jme, final double jce) {
+    final double jmeStep = stepSeconds / 86400.0 / 365250.0;
+    for (int k = 0; k < lbrAmplitudes.length; k++) {
+      final double argument = lbrPhases[k] + lbrFrequencies[k] * jme;
+      lbrCos[k] = cos(argument);
+      lbrSin[k] = sin(argument);
+      final double stepArgument = lbrFrequencies[k] * jmeStep;
+      lbrStepCos[k] = cos(stepArgument);
+      lbrStepSin[k] = sin(stepArgument);
+    }
+
+    final double jceEnd = jce + ANCHOR_INTERVAL * (jmeStep * 10.0);
+    SPA.calculateNutationArguments(jce, termsY, nutationArguments);
+    SPA.calculateNutationArguments(jceEnd, termsY, nutationEndArguments);
+    for (int k = 0; k < termsPE.length; k++) {
+      final double argument = toRadians(nutationArguments[k]);
+      nutationCos[k] = cos(argument);
+      nutationSin[k] = sin(argument);
+      final double stepArgument =
+          toRadians(nutationEndArguments[k] - nutationArguments[k]) / ANCHOR_INTERVAL;
+      nutationStepCos[k] = cos(stepArgument);
+      nutationStepSin[k] = sin(stepArgument);
+    }
+  }
+
+  /** Rotate all terms forward by one step. */
+  private void advance() {
+    rotate(lbrCos, lbrSin, lbrStepCos, lbrStepSin);
+    rotate(nutationCos, nutationSin, nutationStepCos, nutationStepSin);
+  }
+
+  private static void rotate(
+      final double[] cos, final double[] sin, final double[] stepCos, final double[] stepSin) {
+    for (int k = 0; k < cos.length; k++) {
+      final double c = cos[k];
+      final double s = sin[k];
+      cos[k] = c * stepCos[k] - s * stepSin[k];
+      sin[k] = s * stepCos[k] + c * stepSin[k];
+    }
+  }
+
+  /** Evaluate one heliocentric coordinate series, as SPA's Horner scheme over L0, L1, ... Ln. */
+  private double sumLBR(final double jme, final int[] groupEnds, final int start) {
+    int k = start;
+    for (int g = 0; g < groupEnds.length; g++) {
+      double groupSum = 0;
+      for (; k < groupEnds[g]; k++) {
+        groupSum += lbrAmplitudes[k] * lbrCos[k];
+      }
+      groupSums[g] = groupSum;
+    }
+
+    double sum = 0;
+    for (int g = groupEnds.length - 1; g >= 0; g--) {
+      sum = groupSums[g] + jme * sum;
+    }
+    return sum / 1e8;
+  }
+
+  private int[] flatten(final double[][][] terms, final int start) {
+    final int[] groupEnds = new int[terms.length];
+    int k = start;
+    for (int g = 0; g < terms.length; g++) {
+      for (final double[] row : terms[g]) {
+        lbrAmplitudes[k] = row[0];
+        lbrPhases[k] = row[1];
+        lbrFrequencies[k] = row[2];
+        k++;
+      }
+      groupEnds[g] = k;
+    }
+    return groupEnds;
+  }
+
+  private static int countRows(final double[][][] terms) {
+    int rows = 0;
+    for (final double[][] group : terms) {
+      rows += group.length;
+    }
+    return rows;
+  }
+}
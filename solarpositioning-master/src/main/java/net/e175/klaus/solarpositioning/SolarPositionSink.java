@@ -0,0 +1,23 @@
+package net.e175.klaus.solarpositioning;
+
+/**
+ * Receiver for solar positions calculated in bulk, as an allocation-free alternative to {@link
+ * SolarPosition} results. Implementations can write straight into their own storage or aggregate on
+ * the fly.
+ *
+ * <p>Values are passed exactly as they would be stored in a {@link SolarPosition}, but are not
+ * range-checked.
+ */
+@FunctionalInterface
+public interface SolarPositionSink {
+
+  /**
+   * Receive one solar position.
+   *
+   * @param index Index of the result, as defined by the calculating method (usually the index of
+   *     the input point in time or site).
+   * @param azimuth Azimuth angle in degrees, measured from North (0°) going eastwards.
+   * @param zenithAngle Zenith angle in degrees, measured from zenith (0°) downwards.
+   */
+  void accept(int index, double azimuth, double zenithAngle);
+}
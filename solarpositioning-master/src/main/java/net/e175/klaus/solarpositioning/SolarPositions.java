@@ -0,0 +1,345 @@
+package net.e175.klaus.solarpositioning;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+/**
+ * Calculate topocentric solar position with the cheapest algorithm that meets an error budget.
+ *
+ * <p>Within 2010 to 2110, the {@link GrenaAlgorithm}s are used where their maximum error is
+ * acceptable. Otherwise (and always outside that range), the fastest {@link SPA.Accuracy} level
+ * within the budget is used. Errors are maximum angular distances to the position calculated by the
+ * full SPA algorithm, in degrees; a budget of zero always selects {@link SPA.Accuracy#FULL}.
+ *
+ * <p>All algorithms calculate the unrefracted position, to which SPA's refraction correction is
+ * applied, so that the budget also holds near the horizon. Where the unrefracted elevation is too
+ * close to the point below which SPA applies no correction to tell on which side it lies, the full
+ * SPA algorithm is used instead.
+ *
+ * <p>Candidates, from cheapest to most expensive:
+ *
+ * <ul>
+ *   <li>{@link GrenaAlgorithm#ALGORITHM_1} (up to 0.2°, 2010 to 2110 only)
+ *   <li>{@link GrenaAlgorithm#ALGORITHM_2} (up to 0.04°, 2010 to 2110 only)
+ *   <li>{@link GrenaAlgorithm#ALGORITHM_3} (up to 0.01°, 2010 to 2110 only)
+ *   <li>{@link GrenaAlgorithm#ALGORITHM_5} (up to 0.003°, 2010 to 2110 only)
+ *   <li>{@link SPA.Accuracy#MEDIUM} (up to 0.0012°)
+ *   <li>{@link SPA.Accuracy#HIGH} (up to 0.00002°)
+ *   <li>{@link SPA.Accuracy#FULL}
+ * </ul>
+ *
+ * <p>The algorithm chosen for each calculation can be observed by passing {@link Diagnostics}.
+ */
+public final class SolarPositions {
+
+  private static final GrenaAlgorithm[] GRENA = {
+    GrenaAlgorithm.ALGORITHM_1,
+    GrenaAlgorithm.ALGORITHM_2,
+    GrenaAlgorithm.ALGORITHM_3,
+    GrenaAlgorithm.ALGORITHM_5
+  };
+
+  private static final SPA.Accuracy[] SPA_LEVELS = {
+    SPA.Accuracy.MEDIUM, SPA.Accuracy.HIGH, SPA.Accuracy.FULL
+  };
+
+  // maximum angular distances for random points in time between the years -2000 and 6000; these
+  // are larger than the per-component figures documented for SPA.Accuracy
+  private static final double[] SPA_ERRORS = {0.0012, 0.00002, 0};
+
+  private SolarPositions() {}
+
+  /**
+   * Receiver for the algorithm chosen by the calculation methods of {@link SolarPositions}, e.g.
+   * for logging or metrics.
+   */
+  @FunctionalInterface
+  public interface Diagnostics {
+
+    /**
+     * Receive the algorithm chosen for one result.
+     *
+     * @param index Index of the result: the index of the input point in time for series, 0 for
+     *     single positions.
+     * @param algorithm Algorithm used for the result. This is {@link SPA.Accuracy#FULL} instead of
+     *     the algorithm returned by {@link #select(Instant, double)} where the sun is too close to
+     *     the refraction limit, see above.
+     */
+    void selected(int index, SolarPositionAlgorithm algorithm);
+  }
+
+  /**
+   * Select the cheapest algorithm meeting an error budget at a point in time.
+   *
+   * @param instant Point in time.
+   * @param maxError Maximum acceptable error, in degrees.
+   * @return Selected algorithm, either a {@link GrenaAlgorithm} or an {@link SPA.Accuracy}
+   * @throws IllegalArgumentException for a negative or NaN maximum error
+   */
+  public static SolarPositionAlgorithm select(final Instant instant, final double maxError) {
+    checkMaxError(maxError);
+    return select(instant.getEpochSecond(), maxError);
+  }
+
+  /**
+   * Calculate topocentric solar position with the cheapest algorithm meeting an error budget.
+   *
+   * @param date Observer's local date and time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param maxError Maximum acceptable error, in degrees.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException for a negative or NaN maximum error
+   * @see SolarPosition
+   */
+  public static SolarPosition calculate(
+      final ZonedDateTime date,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double maxError) {
+    return calculate(date.toInstant(), site, deltaT, pressure, temperature, maxError, null);
+  }
+
+  /**
+   * Calculate topocentric solar position with the cheapest algorithm meeting an error budget,
+   * reporting the chosen algorithm.
+   *
+   * @param instant Point in time.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param maxError Maximum acceptable error, in degrees.
+   * @param diagnostics Receiver of the chosen algorithm, or null.
+   * @return Topocentric solar position (azimuth measured eastward from north)
+   * @throws IllegalArgumentException for a negative or NaN maximum error
+   * @see SolarPosition
+   */
+  public static SolarPosition calculate(
+      final Instant instant,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double maxError,
+      final Diagnostics diagnostics) {
+    SolarPositionAlgorithm algorithm = select(instant, maxError);
+    SolarPosition position;
+    if (algorithm == SPA.Accuracy.FULL
+        || !MathUtil.checkRefractionParamsUsable(pressure, temperature)) {
+      position = algorithm.calculateSolarPosition(instant, site, deltaT, pressure, temperature);
+    } else {
+      position = algorithm.calculateSolarPosition(instant, site, deltaT, Double.NaN, Double.NaN);
+      if (SPA.isNearRefractionLimit(position.zenithAngle(), maxError(algorithm))) {
+        algorithm = SPA.Accuracy.FULL;
+        position = algorithm.calculateSolarPosition(instant, site, deltaT, pressure, temperature);
+      } else {
+        position =
+            new SolarPosition(
+                position.azimuth(),
+                SPA.refractZenithAngle(position.zenithAngle(), pressure, temperature));
+      }
+    }
+    if (diagnostics != null) {
+      diagnostics.selected(0, algorithm);
+    }
+    return position;
+  }
+
+  /**
+   * Calculate topocentric solar positions for a series of points in time at one point of the
+   * Earth's surface, choosing the cheapest algorithm meeting an error budget for each of them.
+   *
+   * <p>Results are identical to those of {@link #calculate(Instant, ObserverSite, double, double,
+   * double, double, Diagnostics)}, and no objects are allocated per element. As with the other
+   * methods, any fraction of a second is ignored.
+   *
+   * @param epochMillis Points in time, in milliseconds since 1970-01-01T00:00:00Z.
+   * @param site Observer's location.
+   * @param deltaT Difference between earth rotation time and terrestrial time (or Universal Time
+   *     and Terrestrial Time), in seconds. See {@link JulianDate#JulianDate(ZonedDateTime, double)}
+   *     and {@link DeltaT}.
+   * @param pressure Annual average local pressure, in millibars (or hectopascals). Used for
+   *     refraction correction of zenith angle. If unsure, 1000 is a reasonable default.
+   * @param temperature Annual average local temperature, in degrees Celsius. Used for refraction
+   *     correction of zenith angle.
+   * @param maxError Maximum acceptable error, in degrees.
+   * @param azimuth Output array receiving the topocentric azimuth angles, in degrees (measured
+   *     eastward from north). Must be at least as long as {@code epochMillis}.
+   * @param zenithAngle Output array receiving the topocentric zenith angles, in degrees. Must be at
+   *     least as long as {@code epochMillis}.
+   * @param diagnostics Receiver of the algorithm chosen for each point in time, or null.
+   * @throws IllegalArgumentException for too short output arrays, or for a negative or NaN maximum
+   *     error
+   */
+  public static void calculateSolarPositions(
+      final long[] epochMillis,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double maxError,
+      final double[] azimuth,
+      final double[] zenithAngle,
+      final Diagnostics diagnostics) {
+    checkMaxError(maxError);
+    MathUtil.checkOutputLength(epochMillis.length, azimuth, zenithAngle);
+
+    final boolean refract = MathUtil.checkRefractionParamsUsable(pressure, temperature);
+    final double[] ephemeris = new double[SPA.EPHEMERIS_SIZE];
+    // metrics and events are reported per run of points in time using the same algorithm
+    SolarPositionAlgorithm run = null;
+    int runStart = 0;
+    long start = SolarMetrics.start();
+    SolarEvents.PositionBatch event = SolarEvents.positionBatch();
+    for (int i = 0; i < epochMillis.length; i++) {
+      final long epochSecond = Math.floorDiv(epochMillis[i], 1000L);
+      SolarPositionAlgorithm algorithm = select(epochSecond, maxError);
+      if (algorithm == SPA.Accuracy.FULL || !refract) {
+        calculate(
+            algorithm,
+            epochSecond,
+            site,
+            deltaT,
+            pressure,
+            temperature,
+            ephemeris,
+            azimuth,
+            zenithAngle,
+            i);
+      } else {
+        calculate(
+            algorithm,
+            epochSecond,
+            site,
+            deltaT,
+            Double.NaN,
+            Double.NaN,
+            ephemeris,
+            azimuth,
+            zenithAngle,
+            i);
+        if (SPA.isNearRefractionLimit(zenithAngle[i], maxError(algorithm))) {
+          algorithm = SPA.Accuracy.FULL;
+          calculate(
+              algorithm,
+              epochSecond,
+              site,
+              deltaT,
+              pressure,
+              temperature,
+              ephemeris,
+              azimuth,
+              zenithAngle,
+              i);
+        } else {
+          zenithAngle[i] = SPA.refractZenithAngle(zenithAngle[i], pressure, temperature);
+        }
+      }
+
+      if (diagnostics != null) {
+        diagnostics.selected(i, algorithm);
+      }
+      if (algorithm != run) {
+        if (run != null) {
+          event.finish(run, 1, i - runStart);
+          SolarMetrics.positionsCalculated(run, SolarMetrics.Source.DIRECT, i - runStart, start);
+          start = SolarMetrics.start();
+          event = SolarEvents.positionBatch();
+        }
+        run = algorithm;
+        runStart = i;
+      }
+    }
+    if (run != null) {
+      event.finish(run, 1, epochMillis.length - runStart);
+      SolarMetrics.positionsCalculated(
+          run, SolarMetrics.Source.DIRECT, epochMillis.length - runStart, start);
+    }
+  }
+
+  private static void calculate(
+      final SolarPositionAlgorithm algorithm,
+      final long epochSecond,
+      final ObserverSite site,
+      final double deltaT,
+      final double pressure,
+      final double temperature,
+      final double[] ephemeris,
+      final double[] azimuth,
+      final double[] zenithAngle,
+      final int index) {
+    if (algorithm instanceof GrenaAlgorithm grena) {
+      grena.calculateSolarPosition(
+          Grena3.calcT(epochSecond),
+          site.longitude(),
+          site.sinPhi,
+          deltaT,
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          index);
+    } else {
+      SPA.calculateEphemeris(
+          JulianDate.calcJulianDate(epochSecond), deltaT, (SPA.Accuracy) algorithm, ephemeris, 0);
+      SPA.calculateTopocentricSolarPosition(
+          ephemeris[0],
+          ephemeris[1],
+          ephemeris[2],
+          ephemeris[3],
+          site,
+          pressure,
+          temperature,
+          azimuth,
+          zenithAngle,
+          index);
+    }
+  }
+
+  private static SolarPositionAlgorithm select(final long epochSecond, final double maxError) {
+    if (epochSecond >= GrenaAlgorithm.VALID_FROM && epochSecond < GrenaAlgorithm.VALID_UNTIL) {
+      for (final GrenaAlgorithm algorithm : GRENA) {
+        if (algorithm.maxError() <= maxError) {
+          return algorithm;
+        }
+      }
+    }
+    for (int i = 0; i < SPA_LEVELS.length; i++) {
+      if (SPA_ERRORS[i] <= maxError) {
+        return SPA_LEVELS[i];
+      }
+    }
+    return SPA.Accuracy.FULL;
+  }
+
+  private static double maxError(final SolarPositionAlgorithm algorithm) {
+    if (algorithm instanceof GrenaAlgorithm grena) {
+      return grena.maxError();
+    }
+    for (int i = 0; i < SPA_LEVELS.length; i++) {
+      if (SPA_LEVELS[i] == algorithm) {
+        return SPA_ERRORS[i];
+      }
+    }
+    return 0;
+  }
+
+  private static void checkMaxError(final double maxError) {
+    if (!(maxError >= 0)) {
+      throw new IllegalArgumentException("maximum error must not be negative");
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package net.e175.klaus.solarpositioning;
+
+/**
+ * Geocentric solar coordinates for a certain point in time, as calculated by the
+ * observer-independent part of the SPA algorithm. One ephemeris can be used to obtain topocentric
+ * positions for any number of observers at the same point in time, which is much cheaper than
+ * running the full algorithm for each of them.
+ *
+ * @param apparentSiderealTime Apparent sidereal time at Greenwich, in degrees.
+ * @param rightAscension Geocentric right ascension of the sun, in degrees.
+ * @param declination Geocentric declination of the sun, in degrees.
+ * @param radiusVector Distance between Earth and sun, in astronomical units.
+ * @see SPA#calculateEphemeris(java.time.ZonedDateTime, double)
+ * @see SPA#calculateSolarPosition(SpaEphemeris, double, double, double, double, double)
+ */
+public record SpaEphemeris(
+    double apparentSiderealTime, double rightAscension, double declination, double radiusVector) {}
@@ -0,0 +1,56 @@
+package net.e175.klaus.solarpositioning;
+
+/**
+ * Service provider interface for summing the periodic terms of SPA, as used by {@link VectorSPA}.
+ * The separate {@code solarpositioning-vector} artifact provides an implementation based on the
+ * incubating Vector API. Applications don't need to use or implement this interface.
+ *
+ * <p>Implementations are located with {@link java.util.ServiceLoader}. They are initialized once
+ * and must be thread-safe afterwards.
+ */
+public interface SpaSeriesKernel {
+
+  /**
+   * Prepare for summing the given series. Called once, before any other method.
+   *
+   * @param termsL Periodic terms {A, B, C} of the Earth heliocentric longitude, grouped by the
+   *     power of the Julian ephemeris millennium they are multiplied with.
+   * @param termsB Periodic terms of the Earth heliocentric latitude, as for {@code termsL}.
+   * @param termsR Periodic terms of the Earth radius vector, as for {@code termsL}.
+   * @param termsPE Coefficients {a, b, c, d} of the nutation terms.
+   */
+  void initialize(
+      double[][][] termsL, double[][][] termsB, double[][][] termsR, double[][] termsPE);
+
+  /**
+   * Get the maximum number of points in time per call of {@link #sum}.
+   *
+   * @return block size, at least 1
+   */
+  int blockSize();
+
+  /**
+   * Sum all series for a block of points in time.
+   *
+   * @param count Number of points in time, from 1 to {@link #blockSize()}.
+   * @param jme Julian ephemeris millennium of each point in time.
+   * @param jce Julian ephemeris century of each point in time.
+   * @param nutationArguments Arguments of the nutation terms, in degrees. The argument of term
+   *     {@code t} for point in time {@code k} is at index {@code t * blockSize() + k}.
+   * @param l Output receiving the Earth heliocentric longitude of each point in time, in radians.
+   * @param b Output receiving the Earth heliocentric latitude, in radians.
+   * @param r Output receiving the Earth radius vector, in astronomical units.
+   * @param deltaPsi Output receiving the nutation in longitude, in degrees.
+   * @param deltaEpsilon Output receiving the nutation in obliquity, in degrees.
+   */
+  void sum(
+      int count,
+      double[] jme,
+      double[] jce,
+      double[] nutationArguments,
+      double[] l,
+      double[] b,
+      double[] r,
+      double[] deltaPsi,
+      double[] deltaEpsilon);
+}
@@ -0,0 +1,120 @@
+package net.e175.klaus.solarpositioning;
+
+/**
+ * Solar events in primitive form, sorted by time: the sun's transit and its rising and setting
+ * through any number of elevation thresholds (e.g. for sunrise and the different twilights).
+ *
+ * <p>Thresholds the sun does not cross (polar day or night) have no events. Times are in
+ * milliseconds since 1970-01-01T00:00:00Z; those calculated by {@link
+ * SPA#calculateSunEvents(java.time.ZonedDateTime, double, double, double, double...)} match those
+ * of {@link SunriseResult}.
+ *
+ * @see SolarEventSearch
+ */
+public final class SunEvents {
+
+  /** Type of the sun's transit (culmination). */
+  public static final int TRANSIT = 0;
+
+  /** Type of the sun rising through an elevation threshold. */
+  public static final int RISING = 1;
+
+  /** Type of the sun setting through an elevation threshold. */
+  public static final int SETTING = 2;
+
+  private final long[] epochMillis;
+  private final int[] types;
+  private final double[] elevations;
+  private final int size;
+
+  SunEvents(
+      final long[] epochMillis, final int[] types, final double[] elevations, final int size) {
+    this.epochMillis = epochMillis;
+    this.types = types;
+    this.elevations = elevations;
+    this.size = size;
+    sort();
+  }
+
+  /** Insertion sort, as there are only a few events which are mostly in order already. */
+  private void sort() {
+    for (int i = 1; i < size; i++) {
+      final long time = epochMillis[i];
+      final int type = types[i];
+      final double elevation = elevations[i];
+
+      int j = i - 1;
+      for (; j >= 0 && epochMillis[j] > time; j--) {
+        epochMillis[j + 1] = epochMillis[j];
+        types[j + 1] = types[j];
+        elevations[j + 1] = elevations[j];
+      }
+      epochMillis[j + 1] = time;
+      types[j + 1] = type;
+      elevations[j + 1] = elevation;
+    }
+  }
+
+  /**
+   * Get the number of events.
+   *
+   * @return number of events
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the time of an event.
+   *
+   * @param index Index of the event, from 0 to {@link #size()} - 1.
+   * @return time in milliseconds since 1970-01-01T00:00:00Z
+   */
+  public long epochMillis(final int index) {
+    return epochMillis[checkIndex(index)];
+  }
+
+  /**
+   * Get the type of an event.
+   *
+   * @param index Index of the event, from 0 to {@link #size()} - 1.
+   * @return {@link #TRANSIT}, {@link #RISING} or {@link #SETTING}
+   */
+  public int type(final int index) {
+    return types[checkIndex(index)];
+  }
+
+  /**
+   * Get the elevation threshold crossed by an event.
+   *
+   * @param index Index of the event, from 0 to {@link #size()} - 1.
+   * @return elevation threshold in degrees, exactly as passed to the calculation, or {@link
+   *     Double#NaN} for the transit
+   */
+  public double elevation(final int index) {
+    return elevations[checkIndex(index)];
+  }
+
+  private int checkIndex(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("SunEvents[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(types[i] == TRANSIT ? "transit" : (types[i] == RISING ? "rising " : "setting "));
+      if (types[i] != TRANSIT) {
+        sb.append(elevations[i]);
+      }
+      sb.append('@').append(epochMillis[i]);
+    }
+    return sb.append(']').toString();
+  }
+}
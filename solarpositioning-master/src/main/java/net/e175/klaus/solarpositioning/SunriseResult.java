@@ -1,13 +1,66 @@
 package net.e175.klaus.solarpositioning;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 
-/** Result types for sunrise/sunset calculations. */
+/**
+ * Result types for sunrise/sunset calculations.
+ *
+ * <p>Bulk calculations can write results into {@code long[]} rows instead, avoiding the {@link
+ * ZonedDateTime} objects. Each result takes {@value #ROW_LENGTH} consecutive elements: the type
+ * ({@link #REGULAR_DAY}, {@link #ALL_DAY} or {@link #ALL_NIGHT}), followed by sunrise, transit and
+ * sunset in milliseconds since 1970-01-01T00:00:00Z. Sunrise and sunset are {@link #NO_TIME} on
+ * days without them. Use {@link #fromRow(long[], int, ZoneId)} to get a result object when needed.
+ */
 public sealed interface SunriseResult {
 
+  /** Number of {@code long} elements per result in the row encoding. */
+  int ROW_LENGTH = 4;
+
+  /** Row type of {@link RegularDay}. */
+  long REGULAR_DAY = 0;
+
+  /** Row type of {@link AllDay}. */
+  long ALL_DAY = 1;
+
+  /** Row type of {@link AllNight}. */
+  long ALL_NIGHT = 2;
+
+  /** Row value of sunrise and sunset on days without them. */
+  long NO_TIME = Long.MIN_VALUE;
+
   ZonedDateTime transit();
 
+  /**
+   * Decode a result from the row encoding.
+   *
+   * @param rows Array holding encoded results.
+   * @param offset Index of the result's first element, i.e. its type.
+   * @param zone Time zone of the returned times. Use the time zone of the day the result was
+   *     calculated for to get a result equal to the one returned by the non-bulk methods.
+   * @return Result object
+   * @throws IllegalArgumentException for an unknown type
+   */
+  static SunriseResult fromRow(final long[] rows, final int offset, final ZoneId zone) {
+    final long type = rows[offset];
+    final ZonedDateTime transit = toDateTime(rows[offset + 2], zone);
+    if (type == REGULAR_DAY) {
+      return new RegularDay(
+          toDateTime(rows[offset + 1], zone), transit, toDateTime(rows[offset + 3], zone));
+    } else if (type == ALL_DAY) {
+      return new AllDay(transit);
+    } else if (type == ALL_NIGHT) {
+      return new AllNight(transit);
+    }
+    throw new IllegalArgumentException("unknown sunrise result type " + type);
+  }
+
+  private static ZonedDateTime toDateTime(final long epochMilli, final ZoneId zone) {
+    return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), zone);
+  }
+
   /**
    * A day with sunrise and sunset.
    *
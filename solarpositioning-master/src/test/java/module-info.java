@@ -4,4 +4,9 @@ open module net.e175.klaus.solarpositioning.test {
   requires net.e175.klaus.solarpositioning;
   requires org.junit.jupiter;
   requires org.assertj.core;
+  requires jdk.management;
+  requires jdk.jfr;
+
+  provides net.e175.klaus.solarpositioning.SpaSeriesKernel with
+      net.e175.klaus.solarpositioning.test.IncompatibleSeriesKernel;
 }
@@ -0,0 +1,372 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.function.IntToDoubleFunction;
+import net.e175.klaus.solarpositioning.ChebyshevEphemeris;
+import net.e175.klaus.solarpositioning.DeltaTProvider;
+import net.e175.klaus.solarpositioning.Grena3;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarPositionSeries;
+import net.e175.klaus.solarpositioning.SolarPositionSink;
+import net.e175.klaus.solarpositioning.SolarPositions;
+import net.e175.klaus.solarpositioning.SunriseResult;
+import net.e175.klaus.solarpositioning.VectorSPA;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Bytes allocated per call on the hot paths, measured after warm-up so that they reflect compiled
+ * code. Budgets are upper bounds with some headroom for JVM differences; raising one should be a
+ * deliberate decision. Batch methods are budgeted per call, so any allocation per element fails.
+ */
+class AllocationBudgetTest {
+
+  private static final int CALLS = 5_000;
+  private static final int ROUNDS = 3;
+  private static final int BATCH_SIZE = 250;
+  private static final int BATCH_CALLS = 20;
+  private static final int DAYS_PER_CALENDAR = 366;
+  private static final int SITES = 100;
+
+  private static final ObserverSite SITE = new ObserverSite(48.21, 16.37, 190);
+  private static final SPA.Horizon[] HORIZONS = {
+    SPA.Horizon.SUNRISE_SUNSET, SPA.Horizon.CIVIL_TWILIGHT, SPA.Horizon.ASTRONOMICAL_TWILIGHT
+  };
+
+  private static final ZonedDateTime[] DATES = new ZonedDateTime[1024];
+  private static final ZonedDateTime[] DAYS = new ZonedDateTime[DAYS_PER_CALENDAR];
+  private static final long[] EPOCH_MILLIS = new long[BATCH_SIZE];
+
+  private static com.sun.management.ThreadMXBean threads;
+
+  @BeforeAll
+  static void setUp() {
+    Assumptions.assumeTrue(
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported(),
+        "allocation measurement not supported by this JVM");
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    final ZonedDateTime start =
+        ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneId.of("Europe/Vienna"));
+    for (int i = 0; i < DATES.length; i++) {
+      DATES[i] = start.plusMinutes(517L * i);
+    }
+    for (int i = 0; i < DAYS.length; i++) {
+      DAYS[i] = start.plusDays(i);
+    }
+    final long startMillis = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    for (int i = 0; i < EPOCH_MILLIS.length; i++) {
+      EPOCH_MILLIS[i] = startMillis + 60_000L * i;
+    }
+  }
+
+  /**
+   * Run the body repeatedly and return the average number of bytes allocated per call, taking the
+   * best of several rounds to skip one-off allocations by class loading or deoptimization.
+   */
+  private static double bytesPerCall(final int calls, final IntToDoubleFunction body) {
+    double sum = 0;
+    for (int i = 0; i < 2 * calls; i++) {
+      sum += body.applyAsDouble(i);
+    }
+
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      final long before = threads.getCurrentThreadAllocatedBytes();
+      for (int i = 0; i < calls; i++) {
+        sum += body.applyAsDouble(i);
+      }
+      best = Math.min(best, threads.getCurrentThreadAllocatedBytes() - before);
+    }
+
+    // consume the results, so that the calls cannot be eliminated
+    assertTrue(Double.isFinite(sum));
+    return (double) best / calls;
+  }
+
+  private static void assertBudget(final String path, final double bytes, final int budget) {
+    assertTrue(
+        bytes <= budget,
+        () -> path + " allocated " + bytes + " bytes per call, budget is " + budget);
+  }
+
+  private static ZonedDateTime date(final int i) {
+    return DATES[i & (DATES.length - 1)];
+  }
+
+  private static ZonedDateTime day(final int i) {
+    return DAYS[i % DAYS.length];
+  }
+
+  @Test
+  void testSpaSolarPosition() {
+    assertBudget(
+        "SPA.calculateSolarPosition",
+        bytesPerCall(
+            CALLS, i -> SPA.calculateSolarPosition(date(i), SITE, 69, 1010, 11).zenithAngle()),
+        128);
+  }
+
+  @Test
+  void testSpaSolarPositionLatLon() {
+    assertBudget(
+        "SPA.calculateSolarPosition (lat/lon)",
+        bytesPerCall(
+            CALLS,
+            i ->
+                SPA.calculateSolarPosition(date(i), 48.21, 16.37, 190, 69, 1010, 11).zenithAngle()),
+        256);
+  }
+
+  @Test
+  void testGrena3SolarPosition() {
+    assertBudget(
+        "Grena3.calculateSolarPosition",
+        bytesPerCall(
+            CALLS, i -> Grena3.calculateSolarPosition(date(i), SITE, 69, 1010, 11).zenithAngle()),
+        128);
+  }
+
+  @Test
+  void testSunriseTransitSet() {
+    assertBudget(
+        "SPA.calculateSunriseTransitSet",
+        bytesPerCall(
+            CALLS,
+            i -> {
+              final SunriseResult result = SPA.calculateSunriseTransitSet(day(i), 48.21, 16.37, 69);
+              return result.transit().getSecond();
+            }),
+        2048);
+  }
+
+  @Test
+  void testSunriseTransitSetHorizons() {
+    assertBudget(
+        "SPA.calculateSunriseTransitSet (horizons)",
+        bytesPerCall(
+            CALLS, i -> SPA.calculateSunriseTransitSet(day(i), 48.21, 16.37, 69, HORIZONS).size()),
+        4096);
+  }
+
+  @Test
+  void testSpaBatch() {
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "SPA.calculateSolarPositions",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              SPA.calculateSolarPositions(EPOCH_MILLIS, SITE, 69, 1010, 11, azimuth, zenithAngle);
+              return zenithAngle[i % BATCH_SIZE];
+            }),
+        512);
+  }
+
+  @Test
+  void testSpaBatchSink() {
+    final double[] sum = new double[1];
+    final SolarPositionSink sink = (index, azimuth, zenithAngle) -> sum[0] += zenithAngle;
+    assertBudget(
+        "SPA.calculateSolarPositions (sink)",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              SPA.calculateSolarPositions(EPOCH_MILLIS, SITE, 69, 1010, 11, sink);
+              return sum[0];
+            }),
+        512);
+  }
+
+  @Test
+  void testGrena3Batch() {
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "Grena3.calculateSolarPositions",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              Grena3.calculateSolarPositions(
+                  EPOCH_MILLIS, SITE, 69, 1010, 11, azimuth, zenithAngle);
+              return zenithAngle[i % BATCH_SIZE];
+            }),
+        512);
+  }
+
+  @Test
+  void testSolarPositionsBatch() {
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "SolarPositions.calculateSolarPositions",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              SolarPositions.calculateSolarPositions(
+                  EPOCH_MILLIS, SITE, 69, 1010, 11, 0.001, azimuth, zenithAngle, null);
+              return zenithAngle[i % BATCH_SIZE];
+            }),
+        512);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"+01:00, 1024", "Europe/Vienna, 4096"})
+  void testSunriseTransitSetsRows(String zone, int budget) {
+    // only the few days around changes of the zone offset create objects
+    final ZonedDateTime start = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneId.of(zone));
+    final ZonedDateTime end = start.plusDays(DAYS_PER_CALENDAR);
+    final long[] rows = new long[DAYS_PER_CALENDAR * SunriseResult.ROW_LENGTH];
+    assertBudget(
+        "SPA.calculateSunriseTransitSets (rows, " + zone + ")",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              SPA.calculateSunriseTransitSets(
+                  start, end, 48.21, 16.37, 69, SPA.Horizon.SUNRISE_SUNSET, rows);
+              return rows[i % rows.length];
+            }),
+        budget);
+  }
+
+  @Test
+  void testSpaBatchDeltaTProvider() {
+    final DeltaTProvider deltaT = DeltaTProvider.estimated();
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "SPA.calculateSolarPositions (delta T provider)",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              SPA.calculateSolarPositions(
+                  EPOCH_MILLIS, SITE, deltaT, 1010, 11, azimuth, zenithAngle);
+              return zenithAngle[i % BATCH_SIZE];
+            }),
+        512);
+  }
+
+  @Test
+  void testGrena3BatchDeltaTProvider() {
+    final DeltaTProvider deltaT = DeltaTProvider.estimated();
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "Grena3.calculateSolarPositions (delta T provider)",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              Grena3.calculateSolarPositions(
+                  EPOCH_MILLIS, SITE, deltaT, 1010, 11, azimuth, zenithAngle);
+              return zenithAngle[i % BATCH_SIZE];
+            }),
+        512);
+  }
+
+  @Test
+  void testVectorSpaBatch() {
+    // without the solarpositioning-vector artifact, this covers the fallback to SPA
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "VectorSPA.calculateSolarPositions",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              VectorSPA.calculateSolarPositions(
+                  EPOCH_MILLIS, SITE, 69, 1010, 11, azimuth, zenithAngle);
+              return zenithAngle[i % BATCH_SIZE];
+            }),
+        512);
+  }
+
+  @Test
+  void testSeriesNext() {
+    // enough samples for all calls of bytesPerCall, each taking one buffer
+    final ZonedDateTime start = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    final SolarPositionSeries series =
+        SolarPositionSeries.of(
+            start,
+            Duration.ofMinutes(1),
+            (2 + ROUNDS) * BATCH_CALLS * BATCH_SIZE,
+            SITE,
+            69,
+            1010,
+            11);
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "SolarPositionSeries.next",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              final int n = series.next(azimuth, zenithAngle);
+              return zenithAngle[n - 1];
+            }),
+        512);
+  }
+
+  @Test
+  void testChebyshevEphemerisBatch() {
+    final ChebyshevEphemeris ephemeris =
+        ChebyshevEphemeris.fit(
+            ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2024, 1, 2, 0, 0, 0, 0, ZoneOffset.UTC),
+            69);
+    final double[] azimuth = new double[BATCH_SIZE];
+    final double[] zenithAngle = new double[BATCH_SIZE];
+    assertBudget(
+        "ChebyshevEphemeris.calculateSolarPositions",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              ephemeris.calculateSolarPositions(EPOCH_MILLIS, SITE, 1010, 11, azimuth, zenithAngle);
+              return zenithAngle[i % BATCH_SIZE];
+            }),
+        512);
+  }
+
+  @Test
+  void testChebyshevEphemerisSolarPosition() {
+    final ChebyshevEphemeris ephemeris =
+        ChebyshevEphemeris.fit(DATES[0], DATES[DATES.length - 1], 69);
+    assertBudget(
+        "ChebyshevEphemeris.calculateSolarPosition",
+        bytesPerCall(
+            CALLS, i -> ephemeris.calculateSolarPosition(date(i), SITE, 1010, 11).zenithAngle()),
+        256);
+  }
+
+  @Test
+  void testSunriseTransitSetsSitesRows() {
+    // only the day terms shared by all sites are allocated, once per call
+    final ObserverSite[] sites = new ObserverSite[SITES];
+    for (int i = 0; i < sites.length; i++) {
+      sites[i] = new ObserverSite(-60 + 1.2 * i, -180 + 3.6 * i);
+    }
+    final long[] rows = new long[SITES * SunriseResult.ROW_LENGTH];
+    assertBudget(
+        "SPA.calculateSunriseTransitSets (sites, rows)",
+        bytesPerCall(
+            BATCH_CALLS,
+            i -> {
+              SPA.calculateSunriseTransitSets(day(i), sites, 69, SPA.Horizon.SUNRISE_SUNSET, rows);
+              return rows[i % rows.length];
+            }),
+        1024);
+  }
+}
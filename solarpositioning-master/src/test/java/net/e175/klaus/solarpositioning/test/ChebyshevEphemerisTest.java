@@ -0,0 +1,151 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import net.e175.klaus.solarpositioning.ChebyshevEphemeris;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarPosition;
+import net.e175.klaus.solarpositioning.SpaEphemeris;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ChebyshevEphemerisTest {
+
+  private static final double TOLERANCE = 0.0001;
+
+  @Test
+  void testAgainstSpaOverWindow() {
+    ZonedDateTime start = ZonedDateTime.of(2023, 12, 30, 0, 0, 0, 0, ZoneOffset.UTC);
+    ZonedDateTime end = start.plusDays(5);
+    ChebyshevEphemeris ephemeris = ChebyshevEphemeris.fit(start, end, 69);
+
+    for (ZonedDateTime time = start; !time.isAfter(end); time = time.plusMinutes(17)) {
+      SpaEphemeris expected = SPA.calculateEphemeris(time, 69);
+      SpaEphemeris actual = ephemeris.calculateEphemeris(time);
+
+      assertEquals(expected.apparentSiderealTime(), actual.apparentSiderealTime(), 1e-8);
+      assertEquals(expected.rightAscension(), actual.rightAscension(), 1e-8);
+      assertEquals(expected.declination(), actual.declination(), 1e-8);
+      assertEquals(expected.radiusVector(), actual.radiusVector(), 1e-12);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"1, 8, 4e-9", "8, 8, 6e-9", "8, 5, 5e-7", "32, 8, 5e-5"})
+  void testDocumentedMaximumDeviations(int segmentDays, int degree, double maxDeviation) {
+    double max = 0;
+    for (int w = 0; w < Windows.STARTS.length; w++) {
+      ZonedDateTime start = Windows.STARTS[w];
+      ChebyshevEphemeris ephemeris =
+          ChebyshevEphemeris.fit(
+              start, start.plusDays(128), 69, Duration.ofDays(segmentDays), degree);
+
+      for (int i = 0; i < Windows.SAMPLES; i++) {
+        double actual = ephemeris.calculateEphemeris(Windows.time(w, i)).rightAscension();
+        double expected = Windows.RIGHT_ASCENSION[w][i];
+        max = Math.max(max, Math.abs(Math.IEEEremainder(expected - actual, 360)));
+      }
+    }
+
+    assertTrue(max < maxDeviation, "max deviation " + max);
+    assertTrue(max > maxDeviation / 2, "max deviation " + max);
+  }
+
+  /**
+   * A coarser sample of the documented measurement: 128-day windows every 2000 years, every 241
+   * minutes, with SPA's right ascension calculated once for all configurations.
+   */
+  private static final class Windows {
+    static final ZonedDateTime[] STARTS = new ZonedDateTime[5];
+    static final int SAMPLES = 128 * 1440 / 241 + 1;
+    static final double[][] RIGHT_ASCENSION = new double[STARTS.length][SAMPLES];
+
+    static {
+      for (int w = 0; w < STARTS.length; w++) {
+        STARTS[w] = ZonedDateTime.of(-2000 + 2000 * w, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < SAMPLES; i++) {
+          RIGHT_ASCENSION[w][i] = SPA.calculateEphemeris(time(w, i), 69).rightAscension();
+        }
+      }
+    }
+
+    static ZonedDateTime time(int window, int sample) {
+      return STARTS[window].plusMinutes(241L * sample);
+    }
+  }
+
+  @Test
+  void testBatchMatchesSingleCalls() {
+    ZonedDateTime start = ZonedDateTime.of(2012, 12, 20, 0, 0, 0, 0, ZoneOffset.UTC);
+    ChebyshevEphemeris ephemeris =
+        ChebyshevEphemeris.fit(start, start.plusDays(4), 67, Duration.ofHours(12), 6);
+    ObserverSite site = new ObserverSite(-41, 0, 100);
+
+    final long[] epochMillis = new long[4 * 24];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = start.plusHours(i).toInstant().toEpochMilli();
+    }
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+
+    ephemeris.calculateSolarPositions(epochMillis, site, 1000, 20, azimuth, zenithAngle);
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      SolarPosition expected = ephemeris.calculateSolarPosition(start.plusHours(i), site, 1000, 20);
+      assertEquals(expected.azimuth(), azimuth[i], 0);
+      assertEquals(expected.zenithAngle(), zenithAngle[i], 0);
+
+      SolarPosition reference = SPA.calculateSolarPosition(start.plusHours(i), site, 67, 1000, 20);
+      assertEquals(reference.azimuth(), azimuth[i], TOLERANCE / 100);
+      assertEquals(reference.zenithAngle(), zenithAngle[i], TOLERANCE / 100);
+    }
+  }
+
+  @Test
+  void rejectsIllegalArguments() {
+    ZonedDateTime start = ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    ZonedDateTime end = start.plusDays(2);
+
+    assertThrows(IllegalArgumentException.class, () -> ChebyshevEphemeris.fit(end, start, 69));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ChebyshevEphemeris.fit(start, end, 69, Duration.ofSeconds(1), 8));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ChebyshevEphemeris.fit(start, end, 69, Duration.ofDays(33), 8));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ChebyshevEphemeris.fit(start, end, 69, Duration.ofDays(1), 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ChebyshevEphemeris.fit(start, start.plusYears(100), 69, Duration.ofMinutes(1), 30));
+
+    ChebyshevEphemeris ephemeris = ChebyshevEphemeris.fit(start, end, 69);
+    assertThrows(
+        IllegalArgumentException.class, () -> ephemeris.calculateEphemeris(start.minusSeconds(1)));
+    assertThrows(
+        IllegalArgumentException.class, () -> ephemeris.calculateEphemeris(end.plusSeconds(1)));
+  }
+
+  @ParameterizedTest
+  @CsvFileSource(resources = "azimuth_zenith/spa_reference_testdata.csv")
+  void testBulkSpaReferenceValues(
+      ZonedDateTime dateTime, double lat, double lon, double refAzimuth, double refZenith) {
+    ChebyshevEphemeris ephemeris =
+        ChebyshevEphemeris.fit(dateTime.minusHours(6), dateTime.plusHours(18), 0);
+
+    SolarPosition res =
+        ephemeris.calculateSolarPosition(dateTime, new ObserverSite(lat, lon), 1000, 10);
+
+    assertEquals(refAzimuth, res.azimuth(), TOLERANCE / 100);
+    assertEquals(refZenith, res.zenithAngle(), TOLERANCE / 100);
+  }
+}
@@ -0,0 +1,160 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import net.e175.klaus.solarpositioning.DeltaT;
+import net.e175.klaus.solarpositioning.DeltaTProvider;
+import net.e175.klaus.solarpositioning.Grena3;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DeltaTProviderTest {
+
+  private static final Path USNO_DATA = Path.of("src/test/resources/test/deltat/deltat.data.txt");
+
+  private static final long SECONDS_PER_YEAR = 31556952;
+
+  private static long epochMillis(double year) {
+    return Math.round((946684800 + (year - 2000) * SECONDS_PER_YEAR) * 1000);
+  }
+
+  private static long epochMillis(LocalDate date) {
+    return date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+  }
+
+  private static DeltaTProvider load(String data) throws IOException {
+    return DeltaTProvider.load(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {-1000, -499.3, -300, 0, 333.33, 1000, 1650, 1750.2, 1950, 2024.5, 2999.9})
+  void testEstimatedMatchesDeltaT(double year) {
+    assertEquals(DeltaT.estimate(year), DeltaTProvider.estimated().deltaT(epochMillis(year)), 1e-3);
+  }
+
+  @Test
+  void testEstimatedRejectsDistantFuture() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> DeltaTProvider.estimated().deltaT(epochMillis(3000.1)));
+  }
+
+  @Test
+  void testLoadUsnoData() throws IOException {
+    final DeltaTProvider provider = DeltaTProvider.load(USNO_DATA);
+
+    final List<String> lines = Files.readAllLines(USNO_DATA);
+    for (String line : lines) {
+      final String[] parts = line.strip().split("\\s+");
+      final LocalDate date =
+          LocalDate.of(
+              Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+
+      // observations are smooth, so interpolating them on the table grid loses little
+      assertEquals(Double.parseDouble(parts[3]), provider.deltaT(epochMillis(date)), 0.01, line);
+    }
+
+    // estimates outside the observed range
+    final DeltaTProvider estimated = DeltaTProvider.estimated();
+    final long before = epochMillis(LocalDate.of(1972, 10, 1));
+    final long after = epochMillis(LocalDate.of(2022, 6, 1));
+    assertEquals(estimated.deltaT(before), provider.deltaT(before));
+    assertEquals(estimated.deltaT(after), provider.deltaT(after));
+  }
+
+  @Test
+  void testLoadInterpolates() throws IOException {
+    final DeltaTProvider provider =
+        load("# comment\n\n 2000  1  1  60.0\n2000 3 1 62.0 \n\n2000 5 1 70\n");
+
+    assertEquals(60.5, provider.deltaT(epochMillis(LocalDate.of(2000, 1, 16))), 0.01);
+    // resampling smooths the change of slope
+    assertEquals(62, provider.deltaT(epochMillis(LocalDate.of(2000, 3, 1))), 0.1);
+    assertEquals(66, provider.deltaT(epochMillis(LocalDate.of(2000, 3, 31))), 0.2);
+  }
+
+  @Test
+  void testLoadRejectsIllegalData() {
+    assertThrows(IllegalArgumentException.class, () -> load("2000 1 1\n"));
+    assertThrows(IllegalArgumentException.class, () -> load("2000 1 1 60 61\n"));
+    assertThrows(IllegalArgumentException.class, () -> load("2000 13 1 60\n"));
+    assertThrows(IllegalArgumentException.class, () -> load("2000 1 1 sixty\n"));
+    assertThrows(IllegalArgumentException.class, () -> load("2000 2 1 60\n2000 1 1 60\n"));
+    assertThrows(IllegalArgumentException.class, () -> load("2000 1 1 60\n2000 1 1 60\n"));
+  }
+
+  @Test
+  void testLoadRejectsTooFewValues() {
+    assertThrows(IllegalArgumentException.class, () -> load(""));
+    assertThrows(IllegalArgumentException.class, () -> load("# comment only\n\n"));
+    assertThrows(IllegalArgumentException.class, () -> load("2000 1 1 60\n"));
+  }
+
+  @Test
+  void testSpaAndGrena3WithProvider() throws IOException {
+    final DeltaTProvider provider = DeltaTProvider.load(USNO_DATA);
+    final ObserverSite site = new ObserverSite(48.21, 16.37, 200);
+
+    final long[] epochMillis = new long[200];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = epochMillis(LocalDate.of(2012, 1, 1)) + i * 86_400_123L * 7;
+    }
+
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    final double[] expectedAzimuth = new double[epochMillis.length];
+    final double[] expectedZenithAngle = new double[epochMillis.length];
+
+    SPA.calculateSolarPositions(epochMillis, site, provider, 1010, 11, azimuth, zenithAngle);
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double deltaT = provider.deltaT(epochMillis[i]);
+      SPA.calculateSolarPositions(
+          new long[] {epochMillis[i]},
+          site,
+          deltaT,
+          1010,
+          11,
+          expectedAzimuth,
+          expectedZenithAngle);
+      assertEquals(expectedAzimuth[0], azimuth[i]);
+      assertEquals(expectedZenithAngle[0], zenithAngle[i]);
+
+      final Instant instant = Instant.ofEpochMilli(epochMillis[i]);
+      assertEquals(
+          SPA.calculateSolarPosition(instant, site, deltaT, 1010, 11),
+          SPA.calculateSolarPosition(instant, site, provider, 1010, 11));
+      assertEquals(
+          Grena3.calculateSolarPosition(instant, site, deltaT, 1010, 11),
+          Grena3.calculateSolarPosition(instant, site, provider, 1010, 11));
+    }
+
+    Grena3.calculateSolarPositions(epochMillis, site, provider, 1010, 11, azimuth, zenithAngle);
+    for (int i = 0; i < epochMillis.length; i++) {
+      Grena3.calculateSolarPositions(
+          new long[] {epochMillis[i]},
+          site,
+          provider.deltaT(epochMillis[i]),
+          1010,
+          11,
+          expectedAzimuth,
+          expectedZenithAngle);
+      assertArrayEquals(
+          new double[] {expectedAzimuth[0], expectedZenithAngle[0]},
+          new double[] {azimuth[i], zenithAngle[i]});
+    }
+  }
+}
@@ -5,9 +5,12 @@ import static java.lang.Math.toDegrees;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
 import net.e175.klaus.solarpositioning.Grena3;
+import net.e175.klaus.solarpositioning.ObserverSite;
 import net.e175.klaus.solarpositioning.SolarPosition;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
@@ -70,6 +73,79 @@ class Grena3Test {
     assertEquals(result, result2);
   }
 
+  @Test
+  void testObserverSite() {
+    ZonedDateTime time = ZonedDateTime.of(2015, 6, 28, 17, 45, 12, 0, ZoneOffset.UTC);
+    ObserverSite site = new ObserverSite(52.509663, 13.376481, 35);
+
+    assertEquals(
+        Grena3.calculateSolarPosition(time, 52.509663, 13.376481, 68, 1000, 20),
+        Grena3.calculateSolarPosition(time, site, 68, 1000, 20));
+    assertEquals(
+        Grena3.calculateSolarPosition(time, 52.509663, 13.376481, 68),
+        Grena3.calculateSolarPosition(time, site, 68));
+  }
+
+  @Test
+  void testInstantAndBatchMatchZonedDateTime() {
+    final SplittableRandom random = new SplittableRandom(11);
+    final long minSeconds =
+        ZonedDateTime.of(-2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long maxSeconds =
+        ZonedDateTime.of(6000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final ObserverSite site = new ObserverSite(52.509663, 13.376481);
+
+    final long[] epochMillis = new long[1000];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = random.nextLong(minSeconds, maxSeconds) * 1000 + random.nextInt(1000);
+    }
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    Grena3.calculateSolarPositions(epochMillis, site, 68, 1000, 20, azimuth, zenithAngle);
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      Instant instant = Instant.ofEpochMilli(epochMillis[i]);
+      SolarPosition expected =
+          Grena3.calculateSolarPosition(
+              instant.atZone(ZoneOffset.ofHours(-7)), 52.509663, 13.376481, 68, 1000, 20);
+
+      assertEquals(
+          expected,
+          Grena3.calculateSolarPosition(instant, 52.509663, 13.376481, 68, 1000, 20),
+          instant.toString());
+      assertEquals(expected, Grena3.calculateSolarPosition(instant, site, 68, 1000, 20));
+      assertEquals(expected.azimuth(), azimuth[i], 0);
+      assertEquals(expected.zenithAngle(), zenithAngle[i], 0);
+    }
+  }
+
+  @Test
+  void testSinkMatchesArrays() {
+    final ObserverSite site = new ObserverSite(52.509663, 13.376481);
+    final long start = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long[] epochMillis = new long[1000];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = (start + i * 3607L) * 1000;
+    }
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    Grena3.calculateSolarPositions(epochMillis, site, 68, 1000, 20, azimuth, zenithAngle);
+
+    final int[] calls = new int[1];
+    Grena3.calculateSolarPositions(
+        epochMillis,
+        site,
+        68,
+        1000,
+        20,
+        (index, a, z) -> {
+          assertEquals(calls[0]++, index);
+          assertEquals(azimuth[index], a, 0);
+          assertEquals(zenithAngle[index], z, 0);
+        });
+    assertEquals(epochMillis.length, calls[0]);
+  }
+
   @Test
   void testSillyLatLon() {
     ZonedDateTime time = ZonedDateTime.of(2003, 10, 17, 12, 30, 30, 0, ZoneOffset.ofHours(-7));
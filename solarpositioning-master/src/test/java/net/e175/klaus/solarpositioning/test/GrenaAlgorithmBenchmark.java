@@ -0,0 +1,143 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static java.lang.Math.*;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import net.e175.klaus.solarpositioning.GrenaAlgorithm;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+
+/**
+ * Compares throughput, maximum and RMS error of the {@link GrenaAlgorithm}s against {@link SPA},
+ * for random points in time from 2010 to 2110 and random sites.
+ *
+ * <p>Run the main method with an optional sample count (default 1,000,000). Throughput figures are
+ * only indicative; use a proper harness for anything more than a rough comparison.
+ */
+public final class GrenaAlgorithmBenchmark {
+
+  private static final long VALIDITY_START = Instant.parse("2010-01-01T00:00:00Z").toEpochMilli();
+  private static final long VALIDITY_END = Instant.parse("2111-01-01T00:00:00Z").toEpochMilli();
+  private static final double DELTA_T = 69;
+  private static final int REPETITIONS = 5;
+
+  private GrenaAlgorithmBenchmark() {}
+
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    final Samples samples = new Samples(count, 1);
+
+    System.out.printf(
+        "%-12s %15s %12s %12s%n", "algorithm", "positions/s", "max error", "rms error");
+    System.out.printf("%-12s %15.0f %12s %12s%n", "SPA", samples.throughput(null), "-", "-");
+    for (GrenaAlgorithm algorithm : GrenaAlgorithm.values()) {
+      System.out.printf(
+          "%-12s %15.0f %12.5f %12.5f%n",
+          algorithm,
+          samples.throughput(algorithm),
+          samples.maxError(algorithm),
+          samples.rmsError(algorithm));
+    }
+  }
+
+  /** Random points in time, with one random site for every 100 of them. */
+  static final class Samples {
+    private static final int PER_SITE = 100;
+
+    private final ObserverSite[] sites;
+    private final long[][] epochMillis;
+    private final double[][] spaAzimuth;
+    private final double[][] spaZenithAngle;
+
+    Samples(int count, long seed) {
+      final SplittableRandom random = new SplittableRandom(seed);
+      final int siteCount = (count + PER_SITE - 1) / PER_SITE;
+
+      sites = new ObserverSite[siteCount];
+      epochMillis = new long[siteCount][PER_SITE];
+      spaAzimuth = new double[siteCount][PER_SITE];
+      spaZenithAngle = new double[siteCount][PER_SITE];
+      for (int s = 0; s < siteCount; s++) {
+        sites[s] = new ObserverSite(random.nextDouble(-85, 85), random.nextDouble(-180, 180));
+        for (int i = 0; i < PER_SITE; i++) {
+          // whole seconds, as the Grena algorithms ignore fractions
+          epochMillis[s][i] = random.nextLong(VALIDITY_START, VALIDITY_END) / 1000 * 1000;
+        }
+        SPA.calculateSolarPositions(
+            epochMillis[s],
+            sites[s],
+            DELTA_T,
+            Double.NaN,
+            Double.NaN,
+            spaAzimuth[s],
+            spaZenithAngle[s]);
+      }
+    }
+
+    /** Maximum angular distance to the SPA position, in degrees, without refraction. */
+    double maxError(GrenaAlgorithm algorithm) {
+      return errors(algorithm)[0];
+    }
+
+    /** Root mean square angular distance to the SPA position, in degrees, without refraction. */
+    double rmsError(GrenaAlgorithm algorithm) {
+      return errors(algorithm)[1];
+    }
+
+    private double[] errors(GrenaAlgorithm algorithm) {
+      final double[] azimuth = new double[PER_SITE];
+      final double[] zenithAngle = new double[PER_SITE];
+
+      double max = 0;
+      double sumOfSquares = 0;
+      for (int s = 0; s < sites.length; s++) {
+        algorithm.calculateSolarPositions(
+            epochMillis[s], sites[s], DELTA_T, Double.NaN, Double.NaN, azimuth, zenithAngle);
+        for (int i = 0; i < PER_SITE; i++) {
+          final double error =
+              angularDistance(azimuth[i], zenithAngle[i], spaAzimuth[s][i], spaZenithAngle[s][i]);
+          max = max(max, error);
+          sumOfSquares += error * error;
+        }
+      }
+      return new double[] {max, sqrt(sumOfSquares / (sites.length * (double) PER_SITE))};
+    }
+
+    /** Best of several runs, in positions per second. Uses SPA if the algorithm is null. */
+    double throughput(GrenaAlgorithm algorithm) {
+      final double[] azimuth = new double[PER_SITE];
+      final double[] zenithAngle = new double[PER_SITE];
+
+      long best = Long.MAX_VALUE;
+      double checksum = 0;
+      for (int r = 0; r < REPETITIONS; r++) {
+        final long start = System.nanoTime();
+        for (int s = 0; s < sites.length; s++) {
+          if (algorithm == null) {
+            SPA.calculateSolarPositions(
+                epochMillis[s], sites[s], DELTA_T, 1000, 20, azimuth, zenithAngle);
+          } else {
+            algorithm.calculateSolarPositions(
+                epochMillis[s], sites[s], DELTA_T, 1000, 20, azimuth, zenithAngle);
+          }
+          checksum += zenithAngle[0];
+        }
+        best = min(best, System.nanoTime() - start);
+      }
+      if (Double.isNaN(checksum)) {
+        throw new AssertionError();
+      }
+      return sites.length * (double) PER_SITE / (best / 1e9);
+    }
+
+    private static double angularDistance(
+        double azimuth1, double zenithAngle1, double azimuth2, double zenithAngle2) {
+      final double z1 = toRadians(zenithAngle1);
+      final double z2 = toRadians(zenithAngle2);
+      final double cosDistance =
+          cos(z1) * cos(z2) + sin(z1) * sin(z2) * cos(toRadians(azimuth1 - azimuth2));
+      return toDegrees(acos(min(1, cosDistance)));
+    }
+  }
+}
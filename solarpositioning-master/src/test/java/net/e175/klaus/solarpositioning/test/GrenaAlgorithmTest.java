@@ -0,0 +1,115 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import net.e175.klaus.solarpositioning.Grena3;
+import net.e175.klaus.solarpositioning.GrenaAlgorithm;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SolarPosition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class GrenaAlgorithmTest {
+
+  @ParameterizedTest
+  @EnumSource(GrenaAlgorithm.class)
+  void testMaxErrorAgainstSpa(GrenaAlgorithm algorithm) {
+    final GrenaAlgorithmBenchmark.Samples samples = new GrenaAlgorithmBenchmark.Samples(20000, 42);
+
+    final double maxError = samples.maxError(algorithm);
+
+    assertTrue(
+        maxError <= algorithm.maxError(), algorithm + " max error " + maxError + " too large");
+    // the advertised error should not be overly pessimistic either
+    assertTrue(maxError > algorithm.maxError() / 2, algorithm + " max error " + maxError);
+  }
+
+  @Test
+  void testAlgorithm3MatchesGrena3() {
+    final ObserverSite site = new ObserverSite(52.509663, 13.376481);
+    final ZonedDateTime time = ZonedDateTime.of(2015, 6, 28, 17, 45, 12, 0, ZoneOffset.ofHours(2));
+
+    for (int i = 0; i < 1000; i++) {
+      final ZonedDateTime t = time.plusMinutes(i * 97L);
+      final SolarPosition expected = Grena3.calculateSolarPosition(t, site, 68, 1000, 20);
+
+      assertEquals(
+          expected, GrenaAlgorithm.ALGORITHM_3.calculateSolarPosition(t, site, 68, 1000, 20));
+      assertEquals(
+          expected,
+          GrenaAlgorithm.ALGORITHM_3.calculateSolarPosition(t.toInstant(), site, 68, 1000, 20));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(GrenaAlgorithm.class)
+  void testBatchMatchesSingle(GrenaAlgorithm algorithm) {
+    final ObserverSite site = new ObserverSite(-33.87, 151.21);
+    final long start = Instant.parse("2030-03-01T00:00:00Z").toEpochMilli();
+
+    final long[] epochMillis = new long[500];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = start + i * 1234567L;
+    }
+
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    algorithm.calculateSolarPositions(epochMillis, site, 70, 1000, 20, azimuth, zenithAngle);
+
+    final double[] sinkAzimuth = new double[epochMillis.length];
+    final double[] sinkZenithAngle = new double[epochMillis.length];
+    algorithm.calculateSolarPositions(
+        epochMillis,
+        site,
+        70,
+        1000,
+        20,
+        (i, az, zen) -> {
+          sinkAzimuth[i] = az;
+          sinkZenithAngle[i] = zen;
+        });
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      final SolarPosition expected =
+          algorithm.calculateSolarPosition(
+              Instant.ofEpochMilli(epochMillis[i]), site, 70, 1000, 20);
+      assertEquals(expected.azimuth(), azimuth[i]);
+      assertEquals(expected.zenithAngle(), zenithAngle[i]);
+    }
+    assertArrayEquals(azimuth, sinkAzimuth);
+    assertArrayEquals(zenithAngle, sinkZenithAngle);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            algorithm.calculateSolarPositions(
+                epochMillis, site, 70, 1000, 20, new double[1], zenithAngle));
+  }
+
+  @Test
+  void testFasterAlgorithmsAreLessAccurate() {
+    final GrenaAlgorithm[] algorithms = GrenaAlgorithm.values();
+    for (int i = 1; i < algorithms.length; i++) {
+      assertTrue(algorithms[i].maxError() <= algorithms[i - 1].maxError());
+    }
+  }
+
+  @Test
+  void testRmsErrorDecreases() {
+    final GrenaAlgorithmBenchmark.Samples samples = new GrenaAlgorithmBenchmark.Samples(20000, 42);
+
+    final GrenaAlgorithm[] algorithms = GrenaAlgorithm.values();
+    for (int i = 1; i < algorithms.length; i++) {
+      assertTrue(
+          samples.rmsError(algorithms[i]) < samples.rmsError(algorithms[i - 1]),
+          algorithms[i].toString());
+    }
+  }
+}
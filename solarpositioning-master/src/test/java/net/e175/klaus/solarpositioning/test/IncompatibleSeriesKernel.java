@@ -0,0 +1,35 @@
+package net.e175.klaus.solarpositioning.test;
+
+import net.e175.klaus.solarpositioning.SpaSeriesKernel;
+
+/**
+ * A kernel compiled against a different version of the incubating Vector API, as far as the running
+ * JVM is concerned. Provided by the test module to check that {@code VectorSPA} falls back to SPA.
+ */
+public final class IncompatibleSeriesKernel implements SpaSeriesKernel {
+
+  @Override
+  public void initialize(
+      double[][][] termsL, double[][][] termsB, double[][][] termsR, double[][] termsPE) {
+    throw new NoSuchMethodError("jdk.incubator.vector.DoubleVector.lanewise");
+  }
+
+  @Override
+  public int blockSize() {
+    return 8;
+  }
+
+  @Override
+  public void sum(
+      int count,
+      double[] jme,
+      double[] jce,
+      double[] nutationArguments,
+      double[] l,
+      double[] b,
+      double[] r,
+      double[] deltaPsi,
+      double[] deltaEpsilon) {
+    throw new NoSuchMethodError("jdk.incubator.vector.DoubleVector.lanewise");
+  }
+}
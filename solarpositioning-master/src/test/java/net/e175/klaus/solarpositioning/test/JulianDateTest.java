@@ -3,9 +3,11 @@ package net.e175.klaus.solarpositioning.test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
 import net.e175.klaus.solarpositioning.JulianDate;
 import org.junit.jupiter.api.Test;
 
@@ -81,4 +83,43 @@ class JulianDateTest {
     assertEquals(0.03790554, jd.julianCentury(), TOLERANCE);
     assertEquals(0.00379056, jd.julianEphemerisMillennium(), TOLERANCE);
   }
+
+  @Test
+  void testInstantAndEpochMillisMatchZonedDateTime() {
+    final SplittableRandom random = new SplittableRandom(7);
+    final long minSeconds =
+        ZonedDateTime.of(-2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long maxSeconds =
+        ZonedDateTime.of(6000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+
+    for (int i = 0; i < 10000; i++) {
+      final long epochMillis =
+          random.nextLong(minSeconds, maxSeconds) * 1000 + random.nextInt(1000);
+      final Instant instant = Instant.ofEpochMilli(epochMillis);
+      final JulianDate expected = new JulianDate(instant.atZone(ZoneId.of("Europe/Vienna")), 67);
+
+      assertEquals(expected, new JulianDate(instant, 67), instant.toString());
+      assertEquals(expected, JulianDate.ofEpochMillis(epochMillis, 67), instant.toString());
+    }
+  }
+
+  @Test
+  void testTimeScalesMatchAccessors() {
+    final SplittableRandom random = new SplittableRandom(11);
+    final double[] timeScales = new double[JulianDate.TIME_SCALES_SIZE + 2];
+
+    for (int i = 0; i < 10000; i++) {
+      final long epochMillis = random.nextLong(-120_000_000_000_000L, 120_000_000_000_000L);
+      final double deltaT = random.nextDouble(-20, 20000);
+      final JulianDate expected = JulianDate.ofEpochMillis(epochMillis, deltaT);
+
+      JulianDate.calculateTimeScales(epochMillis, deltaT, timeScales, 2);
+
+      assertEquals(expected.julianDate(), timeScales[2 + JulianDate.JD]);
+      assertEquals(expected.julianEphemerisDay(), timeScales[2 + JulianDate.JDE]);
+      assertEquals(expected.julianCentury(), timeScales[2 + JulianDate.JC]);
+      assertEquals(expected.julianEphemerisCentury(), timeScales[2 + JulianDate.JCE]);
+      assertEquals(expected.julianEphemerisMillennium(), timeScales[2 + JulianDate.JME]);
+    }
+  }
 }
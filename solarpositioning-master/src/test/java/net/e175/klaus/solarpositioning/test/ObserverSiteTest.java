@@ -0,0 +1,33 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import net.e175.klaus.solarpositioning.ObserverSite;
+import org.junit.jupiter.api.Test;
+
+class ObserverSiteTest {
+
+  @Test
+  void rejectsSillyLatLon() {
+    assertThrows(IllegalArgumentException.class, () -> new ObserverSite(90.1, 0));
+    assertThrows(IllegalArgumentException.class, () -> new ObserverSite(-90.1, 0, 100));
+    assertThrows(IllegalArgumentException.class, () -> new ObserverSite(0, 180.1));
+    assertThrows(IllegalArgumentException.class, () -> new ObserverSite(0, -180.1, 100));
+  }
+
+  @Test
+  void valueSemantics() {
+    ObserverSite site = new ObserverSite(48.21, 16.37, 190);
+
+    assertEquals(48.21, site.latitude());
+    assertEquals(16.37, site.longitude());
+    assertEquals(190, site.elevation());
+
+    assertEquals(new ObserverSite(48.21, 16.37, 190), site);
+    assertEquals(new ObserverSite(48.21, 16.37, 190).hashCode(), site.hashCode());
+    assertNotEquals(new ObserverSite(48.21, 16.37), site);
+    assertEquals(new ObserverSite(48.21, 16.37, 0), new ObserverSite(48.21, 16.37));
+  }
+}
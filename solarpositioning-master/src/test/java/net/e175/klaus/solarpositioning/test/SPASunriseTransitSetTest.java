@@ -8,15 +8,20 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Stream;
+import net.e175.klaus.solarpositioning.ObserverSite;
 import net.e175.klaus.solarpositioning.SPA;
 import net.e175.klaus.solarpositioning.SolarPosition;
+import net.e175.klaus.solarpositioning.SunEvents;
 import net.e175.klaus.solarpositioning.SunriseResult;
 import org.assertj.core.data.TemporalUnitOffset;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
+import org.junit.jupiter.params.provider.CsvSource;
 
 class SPASunriseTransitSetTest {
 
@@ -433,4 +438,241 @@ class SPASunriseTransitSetTest {
         "2023-03-01T19:51:00Z",
         REASONABLE_TOLERANCE);
   }
+
+  @ParameterizedTest
+  @CsvFileSource(resources = "cities.csv", useHeadersInDisplayName = true)
+  void testRangeMatchesSingleDays(String name, double lat, double lon) {
+    // cross DST changes in both hemispheres and polar day/night at high latitudes
+    for (ZoneId zone : new ZoneId[] {ZoneOffset.UTC, ZoneId.of("Europe/Berlin")}) {
+      final ZonedDateTime start = ZonedDateTime.of(2023, 3, 20, 13, 0, 0, 0, zone);
+      final ZonedDateTime end = start.plusDays(40);
+
+      final List<SunriseResult> results =
+          SPA.calculateSunriseTransitSets(start, end, lat, lon, 69, SPA.Horizon.CIVIL_TWILIGHT)
+              .toList();
+      assertEquals(40, results.size());
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals(
+            SPA.calculateSunriseTransitSet(
+                start.plusDays(i), lat, lon, 69, SPA.Horizon.CIVIL_TWILIGHT),
+            results.get(i));
+      }
+    }
+  }
+
+  @Test
+  void testRangeWithHorizonsMatchesSingleDays() {
+    final ZonedDateTime start =
+        ZonedDateTime.of(2023, 9, 1, 0, 0, 0, 0, ZoneId.of("Pacific/Auckland"));
+    final double lat = -36.8485;
+    final double lon = 174.7633;
+
+    final List<Map<SPA.Horizon, SunriseResult>> results =
+        SPA.calculateSunriseTransitSets(
+                start, start.plusDays(60), lat, lon, 69, SPA.Horizon.values())
+            .parallel()
+            .toList();
+    assertEquals(60, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(
+          SPA.calculateSunriseTransitSet(start.plusDays(i), lat, lon, 69, SPA.Horizon.values()),
+          results.get(i));
+    }
+
+    assertEquals(
+        0,
+        SPA.calculateSunriseTransitSets(start, start, lat, lon, 69, SPA.Horizon.SUNRISE_SUNSET)
+            .count());
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SPA.calculateSunriseTransitSets(
+                start, start.minusDays(1), lat, lon, 69, SPA.Horizon.SUNRISE_SUNSET));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SPA.calculateSunriseTransitSets(
+                start, start.plusDays(1), 91, lon, 69, SPA.Horizon.SUNRISE_SUNSET));
+  }
+
+  @Test
+  void testManySitesMatchSingleSites() {
+    final Random random = new Random(42);
+    final ObserverSite[] sites = new ObserverSite[1000];
+    for (int i = 0; i < sites.length; i++) {
+      sites[i] = new ObserverSite(random.nextDouble(-90, 90), random.nextDouble(-180, 180), 0);
+    }
+
+    for (ZonedDateTime day :
+        new ZonedDateTime[] {
+          ZonedDateTime.parse("2023-06-21T12:00:00Z"),
+          ZonedDateTime.parse("2023-10-29T00:00:00+02:00[Europe/Berlin]")
+        }) {
+      final SunriseResult[] results =
+          SPA.calculateSunriseTransitSets(day, sites, 69, SPA.Horizon.SUNRISE_SUNSET);
+      assertEquals(sites.length, results.length);
+      for (int i = 0; i < sites.length; i++) {
+        assertEquals(
+            SPA.calculateSunriseTransitSet(
+                day, sites[i].latitude(), sites[i].longitude(), 69, SPA.Horizon.SUNRISE_SUNSET),
+            results[i]);
+      }
+    }
+  }
+
+  @Test
+  void testRowsMatchResults() {
+    final Random random = new Random(42);
+    final ObserverSite[] sites = new ObserverSite[1000];
+    for (int i = 0; i < sites.length; i++) {
+      sites[i] = new ObserverSite(random.nextDouble(-90, 90), random.nextDouble(-180, 180), 0);
+    }
+    final ZonedDateTime day = ZonedDateTime.parse("2023-03-26T00:00:00+01:00[Europe/Berlin]");
+
+    final long[] rows = new long[sites.length * SunriseResult.ROW_LENGTH];
+    SPA.calculateSunriseTransitSets(day, sites, 69, SPA.Horizon.SUNRISE_SUNSET, rows);
+    final SunriseResult[] results =
+        SPA.calculateSunriseTransitSets(day, sites, 69, SPA.Horizon.SUNRISE_SUNSET);
+    for (int i = 0; i < sites.length; i++) {
+      assertEquals(
+          results[i], SunriseResult.fromRow(rows, i * SunriseResult.ROW_LENGTH, day.getZone()));
+    }
+
+    final ZonedDateTime end = day.plusDays(400);
+    final long[] dayRows = new long[400 * SunriseResult.ROW_LENGTH];
+    assertEquals(
+        400,
+        SPA.calculateSunriseTransitSets(
+            day, end, 78.22, 15.65, 69, SPA.Horizon.SUNRISE_SUNSET, dayRows));
+    final List<SunriseResult> dayResults =
+        SPA.calculateSunriseTransitSets(day, end, 78.22, 15.65, 69, SPA.Horizon.SUNRISE_SUNSET)
+            .toList();
+    for (int i = 0; i < dayResults.size(); i++) {
+      final SunriseResult result = dayResults.get(i);
+      final int offset = i * SunriseResult.ROW_LENGTH;
+      assertEquals(result, SunriseResult.fromRow(dayRows, offset, day.getZone()));
+      if (!(result instanceof SunriseResult.RegularDay)) {
+        assertEquals(SunriseResult.NO_TIME, dayRows[offset + 1]);
+        assertEquals(SunriseResult.NO_TIME, dayRows[offset + 3]);
+      }
+    }
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SPA.calculateSunriseTransitSets(day, sites, 69, SPA.Horizon.SUNRISE_SUNSET, dayRows));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SunriseResult.fromRow(new long[] {3, 0, 0, 0}, 0, day.getZone()));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "2023-01-01T00:00:00Z, 366",
+    "2023-01-01T12:00:00+01:00[Europe/Berlin], 731",
+    // offset changes at midnight, so that some days start at 01:00 or have two midnights
+    "2018-10-01T23:30:00-03:00[America/Sao_Paulo], 400",
+    // 2011-12-30 was skipped
+    "2011-12-01T00:00:00-10:00[Pacific/Apia], 60"
+  })
+  void testDayRowsAcrossOffsetChanges(ZonedDateTime start, int days) {
+    final ZonedDateTime end = start.plusDays(days);
+    final long[] rows = new long[days * SunriseResult.ROW_LENGTH];
+    final int count =
+        SPA.calculateSunriseTransitSets(
+            start, end, 48.21, 16.37, 69, SPA.Horizon.SUNRISE_SUNSET, rows);
+    final List<SunriseResult> results =
+        SPA.calculateSunriseTransitSets(start, end, 48.21, 16.37, 69, SPA.Horizon.SUNRISE_SUNSET)
+            .toList();
+
+    assertEquals(results.size(), count);
+    for (int i = 0; i < count; i++) {
+      assertEquals(
+          results.get(i),
+          SunriseResult.fromRow(rows, i * SunriseResult.ROW_LENGTH, start.getZone()),
+          "day " + i);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvFileSource(resources = "cities.csv", useHeadersInDisplayName = true)
+  void testSunEventsMatchHorizons(String name, double lat, double lon) {
+    final ZonedDateTime start =
+        ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneId.of("Europe/Berlin"));
+    final double[] elevations = new double[SPA.Horizon.values().length];
+    for (int i = 0; i < elevations.length; i++) {
+      elevations[i] = SPA.Horizon.values()[i].elevation();
+    }
+
+    for (int d = 0; d < 365; d += 7) {
+      final ZonedDateTime day = start.plusDays(d);
+      final SunEvents events = SPA.calculateSunEvents(day, lat, lon, 69, elevations);
+
+      int expectedSize = 1;
+      for (SPA.Horizon horizon : SPA.Horizon.values()) {
+        final SunriseResult result = SPA.calculateSunriseTransitSet(day, lat, lon, 69, horizon);
+        assertEquals(
+            result.transit().toInstant().toEpochMilli(),
+            find(events, SunEvents.TRANSIT, Double.NaN));
+        if (result instanceof SunriseResult.RegularDay regular) {
+          expectedSize += 2;
+          assertEquals(
+              regular.sunrise().toInstant().toEpochMilli(),
+              find(events, SunEvents.RISING, horizon.elevation()));
+          assertEquals(
+              regular.sunset().toInstant().toEpochMilli(),
+              find(events, SunEvents.SETTING, horizon.elevation()));
+        }
+      }
+      assertEquals(expectedSize, events.size());
+      for (int i = 1; i < events.size(); i++) {
+        assertThat(events.epochMillis(i)).isGreaterThanOrEqualTo(events.epochMillis(i - 1));
+      }
+    }
+  }
+
+  private static long find(SunEvents events, int type, double elevation) {
+    for (int i = 0; i < events.size(); i++) {
+      if (events.type(i) == type && Double.compare(events.elevation(i), elevation) == 0) {
+        return events.epochMillis(i);
+      }
+    }
+    throw new AssertionError("no event of type " + type + " for " + elevation + " in " + events);
+  }
+
+  @Test
+  void testSunEventsCustomElevations() {
+    final ZonedDateTime day = ZonedDateTime.parse("2023-03-01T00:00:00Z");
+    final double lat = 60.1547;
+    final double lon = -1.1494;
+
+    // 30 degrees is never reached in Lerwick on that day
+    final SunEvents events = SPA.calculateSunEvents(day, lat, lon, 69, 10, -3, 30);
+    assertEquals(5, events.size());
+    assertEquals(SunEvents.RISING, events.type(0));
+    assertEquals(-3, events.elevation(0));
+    assertEquals(SunEvents.RISING, events.type(1));
+    assertEquals(10, events.elevation(1));
+    assertEquals(SunEvents.TRANSIT, events.type(2));
+    assertEquals(SunEvents.SETTING, events.type(3));
+    assertEquals(10, events.elevation(3));
+    assertEquals(SunEvents.SETTING, events.type(4));
+    assertEquals(-3, events.elevation(4));
+
+    for (int i = 0; i < events.size(); i++) {
+      if (events.type(i) != SunEvents.TRANSIT) {
+        final SolarPosition position =
+            SPA.calculateSolarPosition(
+                Instant.ofEpochMilli(events.epochMillis(i)),
+                lat,
+                lon,
+                0,
+                69,
+                Double.NaN,
+                Double.NaN);
+        assertEquals(90 - events.elevation(i), position.zenithAngle(), 0.02);
+      }
+    }
+
+    assertThrows(IndexOutOfBoundsException.class, () -> events.epochMillis(5));
+  }
 }
@@ -1,15 +1,26 @@
 package net.e175.klaus.solarpositioning.test;
 
+import static java.lang.Math.abs;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+import static java.lang.Math.toRadians;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+import net.e175.klaus.solarpositioning.JulianDate;
+import net.e175.klaus.solarpositioning.ObserverSite;
 import net.e175.klaus.solarpositioning.SPA;
 import net.e175.klaus.solarpositioning.SolarPosition;
+import net.e175.klaus.solarpositioning.SpaEphemeris;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvFileSource;
+import org.junit.jupiter.params.provider.CsvSource;
 
 class SPATest {
 
@@ -67,6 +78,204 @@ class SPATest {
         () -> SPA.calculateSolarPosition(time, 39.742476, -205.1786, 1830.14, 67, 820, 11));
   }
 
+  @Test
+  void testBatchMatchesSingleCalls() {
+    final SplittableRandom random = new SplittableRandom(42);
+    final long minSeconds =
+        ZonedDateTime.of(-2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long maxSeconds =
+        ZonedDateTime.of(6000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+
+    final long[] epochMillis = new long[1000];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = random.nextLong(minSeconds, maxSeconds) * 1000 + random.nextInt(1000);
+    }
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+
+    SPA.calculateSolarPositions(
+        epochMillis, 39.742476, -105.1786, 1830.14, 67, 820, 11, azimuth, zenithAngle);
+
+    final double[] siteAzimuth = new double[epochMillis.length];
+    final double[] siteZenithAngle = new double[epochMillis.length];
+    SPA.calculateSolarPositions(
+        epochMillis,
+        new ObserverSite(39.742476, -105.1786, 1830.14),
+        67,
+        820,
+        11,
+        siteAzimuth,
+        siteZenithAngle);
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      ZonedDateTime time = Instant.ofEpochMilli(epochMillis[i]).atZone(ZoneOffset.UTC);
+      SolarPosition result =
+          SPA.calculateSolarPosition(time, 39.742476, -105.1786, 1830.14, 67, 820, 11);
+
+      assertEquals(result.azimuth(), azimuth[i], 0, time.toString());
+      assertEquals(result.zenithAngle(), zenithAngle[i], 0, time.toString());
+      assertEquals(azimuth[i], siteAzimuth[i], 0);
+      assertEquals(zenithAngle[i], siteZenithAngle[i], 0);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"FULL, 0", "HIGH, 0.00002", "MEDIUM, 0.001"})
+  void testAccuracyLevels(SPA.Accuracy accuracy, double tolerance) {
+    final SplittableRandom random = new SplittableRandom(23);
+    final long minSeconds =
+        ZonedDateTime.of(-2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long maxSeconds =
+        ZonedDateTime.of(6000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+
+    for (int i = 0; i < 1000; i++) {
+      ZonedDateTime time =
+          Instant.ofEpochSecond(random.nextLong(minSeconds, maxSeconds)).atZone(ZoneOffset.UTC);
+      ObserverSite site =
+          new ObserverSite(random.nextDouble(-89, 89), random.nextDouble(-180, 180), 0);
+
+      SolarPosition full = SPA.calculateSolarPosition(time, site, 67, 1000, 10);
+      SolarPosition reduced = SPA.calculateSolarPosition(time, site, 67, 1000, 10, accuracy);
+
+      // azimuth error projected onto the sky, as azimuth is ill-defined near the zenith
+      double azimuthError = abs(full.azimuth() - reduced.azimuth());
+      azimuthError = min(azimuthError, 360 - azimuthError) * sin(toRadians(full.zenithAngle()));
+      assertEquals(0, azimuthError, tolerance, time.toString());
+      assertEquals(full.zenithAngle(), reduced.zenithAngle(), tolerance, time.toString());
+    }
+  }
+
+  @Test
+  void testInstantAndJulianDateMatchZonedDateTime() {
+    final SplittableRandom random = new SplittableRandom(5);
+    final long minSeconds =
+        ZonedDateTime.of(-2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long maxSeconds =
+        ZonedDateTime.of(6000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final ObserverSite site = new ObserverSite(39.742476, -105.1786, 1830.14);
+
+    for (int i = 0; i < 1000; i++) {
+      long epochMillis = random.nextLong(minSeconds, maxSeconds) * 1000 + random.nextInt(1000);
+      Instant instant = Instant.ofEpochMilli(epochMillis);
+      SolarPosition expected =
+          SPA.calculateSolarPosition(
+              instant.atZone(ZoneOffset.ofHours(-7)), 39.742476, -105.1786, 1830.14, 67, 820, 11);
+
+      assertEquals(
+          expected,
+          SPA.calculateSolarPosition(instant, 39.742476, -105.1786, 1830.14, 67, 820, 11),
+          instant.toString());
+      assertEquals(expected, SPA.calculateSolarPosition(instant, site, 67, 820, 11));
+      assertEquals(
+          expected,
+          SPA.calculateSolarPosition(JulianDate.ofEpochMillis(epochMillis, 67), site, 820, 11));
+    }
+  }
+
+  @Test
+  void testSinkMatchesArrays() {
+    final SplittableRandom random = new SplittableRandom(8);
+    final ObserverSite site = new ObserverSite(39.742476, -105.1786, 1830.14);
+    final long[] epochMillis = new long[500];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = random.nextLong(-10_000_000_000_000L, 10_000_000_000_000L);
+    }
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    SPA.calculateSolarPositions(epochMillis, site, 67, 820, 11, azimuth, zenithAngle);
+
+    final double[] sinkAzimuth = new double[epochMillis.length];
+    final double[] sinkZenithAngle = new double[epochMillis.length];
+    SPA.calculateSolarPositions(
+        epochMillis,
+        site,
+        67,
+        820,
+        11,
+        (index, a, z) -> {
+          sinkAzimuth[index] = a;
+          sinkZenithAngle[index] = z;
+        });
+    assertArrayEquals(azimuth, sinkAzimuth);
+    assertArrayEquals(zenithAngle, sinkZenithAngle);
+
+    final ObserverSite[] sites = {
+      site, new ObserverSite(-33.9, 18.4), new ObserverSite(64.1, -21.9)
+    };
+    final SpaEphemeris ephemeris =
+        SPA.calculateEphemeris(ZonedDateTime.of(2023, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC), 69);
+    final double[] sitesAzimuth = new double[sites.length];
+    final double[] sitesZenithAngle = new double[sites.length];
+    SPA.calculateSolarPositions(ephemeris, sites, 1000, 10, sitesAzimuth, sitesZenithAngle);
+    final int[] calls = new int[1];
+    SPA.calculateSolarPositions(
+        ephemeris,
+        sites,
+        1000,
+        10,
+        (index, a, z) -> {
+          assertEquals(calls[0]++, index);
+          assertEquals(sitesAzimuth[index], a, 0);
+          assertEquals(sitesZenithAngle[index], z, 0);
+        });
+    assertEquals(sites.length, calls[0]);
+  }
+
+  @Test
+  void testBatchRejectsIllegalArguments() {
+    final long[] epochMillis = {0, 1000};
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SPA.calculateSolarPositions(
+                epochMillis, 0, 0, 0, 0, 1000, 10, new double[2], new double[1]));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SPA.calculateSolarPositions(
+                epochMillis, 0, 190, 0, 0, 1000, 10, new double[2], new double[2]));
+  }
+
+  @Test
+  void testEphemerisMatchesSingleCalls() {
+    ZonedDateTime time = ZonedDateTime.of(2003, 10, 17, 12, 30, 30, 0, ZoneOffset.ofHours(-7));
+    SpaEphemeris ephemeris = SPA.calculateEphemeris(time, 67);
+
+    final ObserverSite[] sites = {
+      new ObserverSite(39.742476, -105.1786, 1830.14),
+      new ObserverSite(-41, 0, 100),
+      new ObserverSite(89.9, 179.9),
+      new ObserverSite(-3, -180, 3000),
+      new ObserverSite(0, 12.5, -20)
+    };
+    final double[] azimuth = new double[sites.length];
+    final double[] zenithAngle = new double[sites.length];
+
+    SPA.calculateSolarPositions(ephemeris, sites, 820, 11, azimuth, zenithAngle);
+
+    for (int i = 0; i < sites.length; i++) {
+      final ObserverSite site = sites[i];
+      SolarPosition expected =
+          SPA.calculateSolarPosition(
+              time, site.latitude(), site.longitude(), site.elevation(), 67, 820, 11);
+
+      assertEquals(expected, SPA.calculateSolarPosition(time, site, 67, 820, 11));
+      assertEquals(expected, SPA.calculateSolarPosition(ephemeris, site, 820, 11));
+      assertEquals(expected.azimuth(), azimuth[i], 0);
+      assertEquals(expected.zenithAngle(), zenithAngle[i], 0);
+    }
+
+    assertEquals(
+        SPA.calculateSolarPosition(time, 39.742476, -105.1786, 1830.14, 67),
+        SPA.calculateSolarPosition(ephemeris, 39.742476, -105.1786, 1830.14));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SPA.calculateSolarPosition(ephemeris, 139.742476, -105.1786, 1830.14));
+  }
+
   @ParameterizedTest
   @CsvFileSource(resources = "azimuth_zenith/spa_reference_testdata.csv")
   void testBulkSpaReferenceValues(
@@ -0,0 +1,115 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import net.e175.klaus.solarpositioning.JulianDate;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.Seasons;
+import net.e175.klaus.solarpositioning.SpaEphemeris;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SeasonsTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    // according to USNO: "Earth's Seasons and Apsides"
+    "2000, MARCH_EQUINOX, 63.8, 2000-03-20T07:35:00Z",
+    "2000, JUNE_SOLSTICE, 63.8, 2000-06-21T01:48:00Z",
+    "2000, SEPTEMBER_EQUINOX, 63.8, 2000-09-22T17:28:00Z",
+    "2000, DECEMBER_SOLSTICE, 63.8, 2000-12-21T13:37:00Z",
+    "2024, MARCH_EQUINOX, 69.2, 2024-03-20T03:06:00Z",
+    "2024, JUNE_SOLSTICE, 69.2, 2024-06-20T20:51:00Z",
+    "2024, SEPTEMBER_EQUINOX, 69.2, 2024-09-22T12:44:00Z",
+    "2024, DECEMBER_SOLSTICE, 69.2, 2024-12-21T09:21:00Z"
+  })
+  void testAgainstReference(int year, Seasons.Event event, double deltaT, Instant expected) {
+    assertThat(Seasons.calculate(year, event, deltaT))
+        .isCloseTo(expected, within(60, ChronoUnit.SECONDS));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {-2000, -1500, -1000, -500, 0, 500, 1000, 1500, 1962, 2000, 2500, 4000, 6000})
+  void testApparentLongitude(int year) {
+    for (Seasons.Event event : Seasons.Event.values()) {
+      final double longitude = apparentLongitude(Seasons.calculate(year, event, 0).toEpochMilli());
+      assertEquals(0, Math.IEEEremainder(longitude - event.longitude(), 360), 1e-6, event.name());
+    }
+  }
+
+  /** Apparent geocentric longitude of the sun according to SPA, to the millisecond. */
+  private static double apparentLongitude(final long epochMillis) {
+    // Seasons count days continuously, while SPA's Julian dates follow the Julian calendar before
+    // 1582, so shift the instant by the whole days between the two
+    final long second = Math.floorDiv(epochMillis, 1000L);
+    final double offset =
+        JulianDate.ofEpochMillis(second * 1000, 0).julianDate() - (second / 86400.0 + 2440587.5);
+    final long shifted = second - Math.round(offset) * 86400;
+
+    // SPA works in whole seconds, so interpolate within the second
+    final double before = eclipticLongitude(shifted);
+    final double after = eclipticLongitude(shifted + 1);
+    return before
+        + Math.IEEEremainder(after - before, 360) * (Math.floorMod(epochMillis, 1000L) / 1000.0);
+  }
+
+  /**
+   * Longitude from SPA's right ascension and declination. The mean obliquity suffices near the
+   * equinoxes and solstices.
+   */
+  private static double eclipticLongitude(final long epochSecond) {
+    final SpaEphemeris ephemeris =
+        SPA.calculateEphemeris(Instant.ofEpochSecond(epochSecond).atZone(ZoneOffset.UTC), 0);
+    final double jd = JulianDate.ofEpochMillis(epochSecond * 1000, 0).julianDate();
+    final double t = (jd - 2451545.0) / 36525.0;
+    final double epsilon = Math.toRadians(23.439291111 - 0.013004167 * t);
+    final double alpha = Math.toRadians(ephemeris.rightAscension());
+    final double delta = Math.toRadians(ephemeris.declination());
+    return Math.toDegrees(
+        Math.atan2(
+            Math.sin(alpha) * Math.cos(epsilon) + Math.tan(delta) * Math.sin(epsilon),
+            Math.cos(alpha)));
+  }
+
+  @Test
+  void testWholeRange() {
+    long previous = Long.MIN_VALUE;
+    for (int year = -2000; year <= 6000; year += 100) {
+      final long[] events = Seasons.calculateEpochMillis(year, 0);
+      assertEquals(Seasons.Event.values().length, events.length);
+      for (long event : events) {
+        assertThat(event).isGreaterThan(previous);
+        previous = event;
+      }
+    }
+  }
+
+  @Test
+  void testCachedResultsAreCopies() {
+    final long[] first = Seasons.calculateEpochMillis(2023, 69);
+    final long[] expected = first.clone();
+    first[0] = 0;
+
+    assertArrayEquals(expected, Seasons.calculateEpochMillis(2023, 69));
+    assertEquals(
+        Instant.ofEpochMilli(expected[1]),
+        Seasons.calculate(2023, Seasons.Event.JUNE_SOLSTICE, 69));
+  }
+
+  @Test
+  void rejectsIllegalYears() {
+    assertThrows(IllegalArgumentException.class, () -> Seasons.calculateEpochMillis(-2001, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Seasons.calculate(6001, Seasons.Event.MARCH_EQUINOX, 0));
+  }
+}
@@ -0,0 +1,126 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import net.e175.klaus.solarpositioning.JulianDate;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarEventSearch;
+import net.e175.klaus.solarpositioning.SolarPosition;
+import net.e175.klaus.solarpositioning.SunEvents;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SolarEventSearchTest {
+
+  private static final Duration TOLERANCE = Duration.ofMillis(1);
+
+  private static SolarPosition position(long epochMillis, ObserverSite site, double p, double t) {
+    return SPA.calculateSolarPosition(
+        new JulianDate(2440587.5 + epochMillis / 86400000.0, 69), site, p, t);
+  }
+
+  @ParameterizedTest
+  @CsvFileSource(resources = "cities.csv", useHeadersInDisplayName = true)
+  void testElevationCrossings(String name, double lat, double lon) {
+    final ObserverSite site = new ObserverSite(lat, lon, 0);
+    final ZonedDateTime start = ZonedDateTime.of(2023, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    for (double elevation : new double[] {0, 10, 30}) {
+      final SunEvents events =
+          SolarEventSearch.findElevationCrossings(
+              start, start.plusDays(30), site, 69, 1010, 11, elevation, TOLERANCE);
+
+      for (int i = 0; i < events.size(); i++) {
+        final long time = events.epochMillis(i);
+        assertEquals(elevation, events.elevation(i));
+        assertEquals(90 - elevation, position(time, site, 1010, 11).zenithAngle(), 1e-4);
+
+        // sun moves in the right direction
+        final double later = position(time + 60000, site, 1010, 11).zenithAngle();
+        assertEquals(events.type(i) == SunEvents.RISING, later < 90 - elevation);
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"-0.8333, SUNRISE_SUNSET", "-6, CIVIL_TWILIGHT", "-18, ASTRONOMICAL_TWILIGHT"})
+  void testAgreesWithSunriseAlgorithm(double elevation, SPA.Horizon horizon) {
+    final ObserverSite site = new ObserverSite(48.21, 16.37, 0);
+    final ZonedDateTime start = ZonedDateTime.of(2023, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    // without refraction correction, as horizons already include it
+    final SunEvents events =
+        SolarEventSearch.findElevationCrossings(
+            start, start.plusDays(1), site, 69, Double.NaN, Double.NaN, elevation, TOLERANCE);
+    final SunEvents expected = SPA.calculateSunEvents(start, 48.21, 16.37, 69, horizon.elevation());
+
+    assertEquals(2, events.size());
+    assertEquals(3, expected.size());
+    assertEquals(SunEvents.RISING, events.type(0));
+    assertEquals(expected.epochMillis(0), events.epochMillis(0), 30000);
+    assertEquals(SunEvents.SETTING, events.type(1));
+    assertEquals(expected.epochMillis(2), events.epochMillis(1), 30000);
+  }
+
+  @Test
+  void testAzimuthCrossings() {
+    final ObserverSite site = new ObserverSite(48.21, 16.37, 0);
+    final ZonedDateTime start = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    for (double azimuth : new double[] {90, 180, 270, 359.99, 0}) {
+      final long[] crossings =
+          SolarEventSearch.findAzimuthCrossings(
+              start, start.plusDays(10), site, 69, azimuth, TOLERANCE);
+      assertEquals(10, crossings.length);
+      for (int i = 0; i < crossings.length; i++) {
+        assertEquals(
+            0,
+            Math.IEEEremainder(position(crossings[i], site, 1010, 11).azimuth() - azimuth, 360),
+            1e-4);
+      }
+    }
+
+    // sun passes south at transit
+    final long[] south =
+        SolarEventSearch.findAzimuthCrossings(start, start.plusDays(1), site, 69, 180, TOLERANCE);
+    final SunEvents transit = SPA.calculateSunEvents(start, 48.21, 16.37, 69);
+    assertEquals(1, south.length);
+    assertEquals(transit.epochMillis(0), south[0], 1000);
+  }
+
+  @Test
+  void testPolarNight() {
+    final ObserverSite site = new ObserverSite(78.22, 15.65, 0);
+    final ZonedDateTime start = ZonedDateTime.of(2023, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    assertEquals(
+        0,
+        SolarEventSearch.findElevationCrossings(
+                start, start.plusDays(20), site, 69, 1010, -10, -0.8333, TOLERANCE)
+            .size());
+  }
+
+  @Test
+  void rejectsIllegalArguments() {
+    final ObserverSite site = new ObserverSite(48.21, 16.37, 0);
+    final ZonedDateTime start = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SolarEventSearch.findElevationCrossings(
+                start, start.minusDays(1), site, 69, 1010, 11, 0, TOLERANCE));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SolarEventSearch.findAzimuthCrossings(
+                start, start.plusDays(1), site, 69, 180, Duration.ofNanos(1000)));
+  }
+}
@@ -0,0 +1,242 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.module.ModuleDescriptor;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.List;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.e175.klaus.solarpositioning.ChebyshevEphemeris;
+import net.e175.klaus.solarpositioning.Grena3;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.Seasons;
+import net.e175.klaus.solarpositioning.SolarPositionGrid;
+import net.e175.klaus.solarpositioning.SolarPositionSeries;
+import net.e175.klaus.solarpositioning.SolarPositions;
+import net.e175.klaus.solarpositioning.SunriseResult;
+import net.e175.klaus.solarpositioning.VectorSPA;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SolarEventsTest {
+
+  private static final String POSITION_BATCH = "net.e175.klaus.solarpositioning.PositionBatch";
+  private static final String SUNRISE_RANGE = "net.e175.klaus.solarpositioning.SunriseRange";
+  private static final String CACHE_REFILL = "net.e175.klaus.solarpositioning.EphemerisCacheRefill";
+
+  private static final ObserverSite SITE = new ObserverSite(48.21, 16.37, 190);
+  private static final ZonedDateTime DATE =
+      ZonedDateTime.of(2023, 6, 21, 12, 0, 0, 0, ZoneOffset.ofHours(2));
+
+  @TempDir Path tempDir;
+
+  private static long[] epochMillis(final int count) {
+    final long[] epochMillis = new long[count];
+    for (int i = 0; i < count; i++) {
+      epochMillis[i] = DATE.toInstant().toEpochMilli() + 60_000L * i;
+    }
+    return epochMillis;
+  }
+
+  private List<RecordedEvent> events(final Recording recording) throws IOException {
+    final Path file = tempDir.resolve("recording.jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file).stream()
+        .filter(e -> e.getEventType().getName().startsWith("net.e175.klaus.solarpositioning."))
+        .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+        .toList();
+  }
+
+  @Test
+  void testDisabledByDefault() throws IOException, ParseException {
+    try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+      recording.start();
+      final long[] epochMillis = epochMillis(10);
+      SPA.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, new double[10], new double[10]);
+      recording.stop();
+
+      assertTrue(events(recording).isEmpty());
+    }
+  }
+
+  @Test
+  void testPositionBatch() throws IOException {
+    try (Recording recording = new Recording()) {
+      recording.enable(POSITION_BATCH);
+      recording.start();
+      final long[] epochMillis = epochMillis(100);
+      final double[] azimuth = new double[100];
+      final double[] zenithAngle = new double[100];
+      SPA.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, azimuth, zenithAngle);
+      Grena3.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, azimuth, zenithAngle);
+      SPA.calculateSolarPositions(
+          SPA.calculateEphemeris(DATE, 69),
+          new ObserverSite[] {SITE, SITE, SITE},
+          1010,
+          11,
+          azimuth,
+          zenithAngle);
+      SolarPositionGrid.calculateSolarPositions(
+          epochMillis(10), new ObserverSite[] {SITE, SITE}, 69, 1010, 11, azimuth, zenithAngle);
+      VectorSPA.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, azimuth, zenithAngle);
+      recording.stop();
+
+      final List<RecordedEvent> events = events(recording);
+      assertEquals(5, events.size());
+      assertEquals("SPA FULL", events.get(0).getString("algorithm"));
+      assertEquals(1, events.get(0).getInt("siteCount"));
+      assertEquals(100, events.get(0).getInt("timeCount"));
+      assertEquals("Grena ALGORITHM_3", events.get(1).getString("algorithm"));
+      assertEquals(100, events.get(1).getInt("timeCount"));
+      assertEquals("SPA FULL", events.get(2).getString("algorithm"));
+      assertEquals(3, events.get(2).getInt("siteCount"));
+      assertEquals(1, events.get(2).getInt("timeCount"));
+      assertEquals("SPA FULL", events.get(3).getString("algorithm"));
+      assertEquals(2, events.get(3).getInt("siteCount"));
+      assertEquals(10, events.get(3).getInt("timeCount"));
+      assertEquals("SPA FULL", events.get(4).getString("algorithm"));
+      assertEquals(100, events.get(4).getInt("timeCount"));
+      assertTrue(events.stream().noneMatch(e -> e.getDuration().isNegative()));
+    }
+  }
+
+  @Test
+  void testPositionBatchForDerivedAndSelectedAlgorithms() throws IOException {
+    final SolarPositionSeries series =
+        SolarPositionSeries.of(
+            DATE, Duration.ofMinutes(1), 100, SITE, 69, 1010, 11, SPA.Accuracy.HIGH);
+    final ChebyshevEphemeris fitted = ChebyshevEphemeris.fit(DATE, DATE.plusDays(1), 69);
+
+    try (Recording recording = new Recording()) {
+      recording.enable(POSITION_BATCH);
+      recording.start();
+      final long[] epochMillis = epochMillis(100);
+      final double[] azimuth = new double[100];
+      final double[] zenithAngle = new double[100];
+      series.next(azimuth, zenithAngle, 0, 60);
+      series.next((index, a, z) -> {}, 40);
+      fitted.calculateSolarPositions(epochMillis, SITE, 1010, 11, azimuth, zenithAngle);
+      // one point in time before the Grena range, two within it
+      final long[] mixed = {
+        DATE.minusYears(20).toInstant().toEpochMilli(), epochMillis[0], epochMillis[1]
+      };
+      SolarPositions.calculateSolarPositions(
+          mixed, SITE, 69, 1010, 11, 0.01, azimuth, zenithAngle, null);
+      recording.stop();
+
+      final List<RecordedEvent> events = events(recording);
+      assertEquals(5, events.size());
+      assertEquals("SPA HIGH", events.get(0).getString("algorithm"));
+      assertEquals(1, events.get(0).getInt("siteCount"));
+      assertEquals(60, events.get(0).getInt("timeCount"));
+      assertEquals("SPA HIGH", events.get(1).getString("algorithm"));
+      assertEquals(40, events.get(1).getInt("timeCount"));
+      assertEquals("SPA FULL", events.get(2).getString("algorithm"));
+      assertEquals(100, events.get(2).getInt("timeCount"));
+      assertEquals("SPA MEDIUM", events.get(3).getString("algorithm"));
+      assertEquals(1, events.get(3).getInt("timeCount"));
+      assertEquals("Grena ALGORITHM_3", events.get(4).getString("algorithm"));
+      assertEquals(2, events.get(4).getInt("timeCount"));
+      assertTrue(events.stream().noneMatch(e -> e.getDuration().isNegative()));
+    }
+  }
+
+  @Test
+  void testSunriseRange() throws IOException {
+    try (Recording recording = new Recording()) {
+      recording.enable(SUNRISE_RANGE);
+      recording.start();
+      SPA.calculateSunriseTransitSets(
+          DATE,
+          DATE.plusDays(30),
+          48.21,
+          16.37,
+          69,
+          SPA.Horizon.CIVIL_TWILIGHT,
+          new long[30 * SunriseResult.ROW_LENGTH]);
+      SPA.calculateSunriseTransitSets(
+          DATE, new ObserverSite[] {SITE, SITE}, 69, SPA.Horizon.SUNRISE_SUNSET);
+      recording.stop();
+
+      final List<RecordedEvent> events = events(recording);
+      assertEquals(2, events.size());
+      assertEquals("SPA FULL", events.get(0).getString("algorithm"));
+      assertEquals("CIVIL_TWILIGHT", events.get(0).getString("horizon"));
+      assertEquals(1, events.get(0).getInt("siteCount"));
+      assertEquals(30, events.get(0).getInt("timeCount"));
+      assertEquals("SUNRISE_SUNSET", events.get(1).getString("horizon"));
+      assertEquals(2, events.get(1).getInt("siteCount"));
+      assertEquals(1, events.get(1).getInt("timeCount"));
+    }
+  }
+
+  @Test
+  void testEphemerisCacheRefill() throws IOException {
+    try (Recording recording = new Recording()) {
+      recording.enable(CACHE_REFILL);
+      recording.start();
+      // a delta T no other test uses, so the first lookup misses
+      Seasons.calculate(1988, Seasons.Event.MARCH_EQUINOX, 44.4);
+      Seasons.calculate(1988, Seasons.Event.JUNE_SOLSTICE, 44.4);
+      ChebyshevEphemeris.fit(DATE, DATE.plusDays(2), 69);
+      // a single day doesn't keep its window, so it doesn't count as a cache refill
+      SPA.calculateSunriseTransitSet(DATE, 48.21, 16.37, 69);
+      recording.stop();
+
+      final List<RecordedEvent> events = events(recording);
+      assertEquals(2, events.size());
+      assertEquals("Seasons", events.get(0).getString("cache"));
+      assertEquals("SPA FULL", events.get(0).getString("algorithm"));
+      assertEquals(4, events.get(0).getInt("timeCount"));
+      assertEquals("ChebyshevEphemeris", events.get(1).getString("cache"));
+      assertEquals("SPA FULL", events.get(1).getString("algorithm"));
+      assertEquals(2 * 9, events.get(1).getInt("timeCount"));
+    }
+  }
+
+  @Test
+  void testSunriseRangeWindowRefill() throws IOException {
+    try (Recording recording = new Recording()) {
+      recording.enable(CACHE_REFILL);
+      recording.start();
+      SPA.calculateSunriseTransitSets(
+          DATE,
+          DATE.plusDays(5),
+          48.21,
+          16.37,
+          69,
+          SPA.Horizon.SUNRISE_SUNSET,
+          new long[5 * SunriseResult.ROW_LENGTH]);
+      recording.stop();
+
+      // three days for the first result, one more for each following day
+      final List<RecordedEvent> events = events(recording);
+      assertEquals(7, events.size());
+      assertTrue(
+          events.stream().allMatch(e -> "sunrise range window".equals(e.getString("cache"))));
+      assertTrue(events.stream().allMatch(e -> "SPA FULL".equals(e.getString("algorithm"))));
+    }
+  }
+
+  @Test
+  void testFlightRecorderIsOptional() {
+    final ModuleDescriptor descriptor = SPA.class.getModule().getDescriptor();
+    assertTrue(
+        descriptor.requires().stream()
+            .anyMatch(
+                r ->
+                    r.name().equals("jdk.jfr")
+                        && r.modifiers().contains(ModuleDescriptor.Requires.Modifier.STATIC)));
+  }
+}
@@ -0,0 +1,239 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.e175.klaus.solarpositioning.ChebyshevEphemeris;
+import net.e175.klaus.solarpositioning.Grena3;
+import net.e175.klaus.solarpositioning.GrenaAlgorithm;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.Seasons;
+import net.e175.klaus.solarpositioning.SolarMetrics;
+import net.e175.klaus.solarpositioning.SolarPositionGrid;
+import net.e175.klaus.solarpositioning.SolarPositionSeries;
+import net.e175.klaus.solarpositioning.SolarPositionSink;
+import net.e175.klaus.solarpositioning.SolarPositions;
+import net.e175.klaus.solarpositioning.SpaEphemeris;
+import net.e175.klaus.solarpositioning.VectorSPA;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SolarMetricsTest {
+
+  private static final ObserverSite SITE = new ObserverSite(48.21, 16.37, 190);
+  private static final ZonedDateTime DATE =
+      ZonedDateTime.of(2023, 6, 21, 12, 0, 0, 0, ZoneOffset.ofHours(2));
+
+  @AfterEach
+  void uninstall() {
+    SolarMetrics.install(null);
+  }
+
+  @Test
+  void testDisabledByDefault() {
+    assertNull(SolarMetrics.installed());
+    SPA.calculateSolarPosition(DATE, SITE, 69, 1010, 11);
+
+    final SolarMetrics.Registry registry = new SolarMetrics.Registry();
+    SolarMetrics.install(registry);
+    assertSame(registry, SolarMetrics.installed());
+    assertTrue(registry.snapshot().positions().isEmpty());
+  }
+
+  @Test
+  void testPositions() {
+    final SolarMetrics.Registry registry = new SolarMetrics.Registry();
+    SolarMetrics.install(registry);
+
+    final long[] epochMillis = new long[100];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = DATE.toInstant().toEpochMilli() + 60_000L * i;
+    }
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    final SolarPositionSink sink = (index, a, z) -> {};
+
+    SPA.calculateSolarPosition(DATE, SITE, 69, 1010, 11);
+    SPA.calculateSolarPosition(DATE.toInstant(), 48.21, 16.37, 190, 69, 1010, 11);
+    SPA.calculateSolarPosition(DATE, SITE, 69, 1010, 11, SPA.Accuracy.MEDIUM);
+    SPA.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, azimuth, zenithAngle);
+    SPA.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, SPA.Accuracy.HIGH, sink);
+    Grena3.calculateSolarPosition(DATE, SITE, 69, 1010, 11);
+    Grena3.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, azimuth, zenithAngle);
+    GrenaAlgorithm.ALGORITHM_1.calculateSolarPosition(DATE, SITE, 69, 1010, 11);
+    GrenaAlgorithm.ALGORITHM_2.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, sink);
+
+    final SolarMetrics.Snapshot snapshot = registry.snapshot();
+    assertEquals(
+        Map.of(
+            SolarMetrics.Source.DIRECT,
+            Map.of(
+                SPA.Accuracy.FULL, 102L,
+                SPA.Accuracy.MEDIUM, 1L,
+                SPA.Accuracy.HIGH, 100L,
+                GrenaAlgorithm.ALGORITHM_3, 101L,
+                GrenaAlgorithm.ALGORITHM_1, 1L,
+                GrenaAlgorithm.ALGORITHM_2, 100L)),
+        snapshot.positions());
+
+    assertEquals(9, snapshot.batchSizes().total());
+    assertEquals(5, snapshot.batchSizes().count(SolarMetrics.Histogram.bucket(1)));
+    assertEquals(4, snapshot.batchSizes().count(SolarMetrics.Histogram.bucket(100)));
+    assertEquals(9, snapshot.positionNanos().total());
+    assertEquals(0, snapshot.sunriseNanos().total());
+  }
+
+  @Test
+  void testBatchEntryPoints() {
+    final SolarMetrics.Registry registry = new SolarMetrics.Registry();
+    SolarMetrics.install(registry);
+
+    final long[] epochMillis = new long[100];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = DATE.toInstant().toEpochMilli() + 60_000L * i;
+    }
+    final double[] azimuth = new double[300];
+    final double[] zenithAngle = new double[300];
+    final SolarPositionSink sink = (index, a, z) -> {};
+    final ObserverSite[] sites = {SITE, SITE, SITE};
+
+    SolarPositionGrid.calculateSolarPositions(
+        epochMillis, sites, 69, 1010, 11, azimuth, zenithAngle);
+
+    final SolarPositionSeries series =
+        SolarPositionSeries.of(
+            DATE, Duration.ofMinutes(1), 100, SITE, 69, 1010, 11, SPA.Accuracy.MEDIUM);
+    assertEquals(60, series.next(azimuth, zenithAngle, 0, 60));
+    assertEquals(40, series.next(sink, 60));
+
+    final ChebyshevEphemeris fitted = ChebyshevEphemeris.fit(DATE, DATE.plusDays(1), 69);
+    fitted.calculateSolarPositions(epochMillis, SITE, 1010, 11, azimuth, zenithAngle);
+    fitted.calculateSolarPosition(DATE, SITE, 1010, 11);
+
+    VectorSPA.calculateSolarPositions(epochMillis, SITE, 69, 1010, 11, azimuth, zenithAngle);
+    VectorSPA.calculateSolarPosition(DATE, SITE, 69, 1010, 11);
+
+    final SpaEphemeris ephemeris = SPA.calculateEphemeris(DATE, 69);
+    SPA.calculateSolarPositions(ephemeris, sites, 1010, 11, azimuth, zenithAngle);
+    SPA.calculateSolarPositions(ephemeris, sites, 1010, 11, sink);
+
+    // one point in time before the Grena range, two within it
+    final long[] mixed = {
+      DATE.minusYears(20).toInstant().toEpochMilli(), epochMillis[0], epochMillis[1]
+    };
+    SolarPositions.calculateSolarPositions(
+        mixed, SITE, 69, 1010, 11, 0.01, azimuth, zenithAngle, null);
+
+    final SolarMetrics.Snapshot snapshot = registry.snapshot();
+    assertEquals(
+        Map.of(SPA.Accuracy.FULL, 306L), snapshot.positions(SolarMetrics.Source.EPHEMERIS));
+    assertEquals(
+        Map.of(SPA.Accuracy.MEDIUM, 100L), snapshot.positions(SolarMetrics.Source.RECURRENCE));
+    assertEquals(
+        Map.of(SPA.Accuracy.FULL, 101L), snapshot.positions(SolarMetrics.Source.CHEBYSHEV));
+    // without the Vector API, VectorSPA falls back to SPA and its positions are direct ones
+    if (VectorSPA.isVectorized()) {
+      assertEquals(
+          Map.of(SPA.Accuracy.FULL, 101L), snapshot.positions(SolarMetrics.Source.VECTORIZED));
+      assertEquals(
+          Map.of(SPA.Accuracy.MEDIUM, 1L, GrenaAlgorithm.ALGORITHM_3, 2L),
+          snapshot.positions(SolarMetrics.Source.DIRECT));
+    } else {
+      assertEquals(Map.of(), snapshot.positions(SolarMetrics.Source.VECTORIZED));
+      assertEquals(
+          Map.of(SPA.Accuracy.FULL, 101L, SPA.Accuracy.MEDIUM, 1L, GrenaAlgorithm.ALGORITHM_3, 2L),
+          snapshot.positions(SolarMetrics.Source.DIRECT));
+    }
+    assertEquals(11, snapshot.batchSizes().total());
+    assertEquals(11, snapshot.positionNanos().total());
+  }
+
+  @Test
+  void testSunrise() {
+    final SolarMetrics.Registry registry = new SolarMetrics.Registry();
+    SolarMetrics.install(registry);
+
+    SPA.calculateSunriseTransitSet(DATE, 48.21, 16.37, 69);
+    SPA.calculateSunriseTransitSet(
+        DATE, 48.21, 16.37, 69, SPA.Horizon.SUNRISE_SUNSET, SPA.Horizon.CIVIL_TWILIGHT);
+    assertEquals(
+        10,
+        SPA.calculateSunriseTransitSets(
+                DATE, DATE.plusDays(10), 48.21, 16.37, 69, SPA.Horizon.SUNRISE_SUNSET)
+            .toList()
+            .size());
+    SPA.calculateSunriseTransitSets(
+        DATE, new ObserverSite[] {SITE, SITE}, 69, SPA.Horizon.SUNRISE_SUNSET);
+
+    final SolarMetrics.Snapshot snapshot = registry.snapshot();
+    assertEquals(14, snapshot.sunrises());
+    assertEquals(13, snapshot.sunriseNanos().total());
+    assertTrue(snapshot.positions().isEmpty());
+
+    // only the stream's window slides over several days; each new day needs one more
+    assertEquals(12, snapshot.cacheMisses());
+    assertEquals(18, snapshot.cacheHits());
+  }
+
+  @Test
+  void testCacheAndRejectedInputs() {
+    final SolarMetrics.Registry registry = new SolarMetrics.Registry();
+    SolarMetrics.install(registry);
+
+    // a delta T no other test uses, so the first lookup misses
+    Seasons.calculate(1987, Seasons.Event.MARCH_EQUINOX, 55.5);
+    Seasons.calculate(1987, Seasons.Event.JUNE_SOLSTICE, 55.5);
+    assertThrows(IllegalArgumentException.class, () -> new ObserverSite(91, 0, 0));
+    assertThrows(
+        IllegalArgumentException.class, () -> SPA.calculateSunriseTransitSet(DATE, 0, 181, 69));
+
+    final SolarMetrics.Snapshot snapshot = registry.snapshot();
+    assertEquals(1, snapshot.cacheMisses());
+    assertEquals(1, snapshot.cacheHits());
+    assertEquals(2, snapshot.rejectedInputs());
+  }
+
+  @Test
+  void testCustomRecorder() {
+    final AtomicInteger rejected = new AtomicInteger();
+    SolarMetrics.install(
+        new SolarMetrics.Recorder() {
+          @Override
+          public void inputRejected() {
+            rejected.incrementAndGet();
+          }
+        });
+
+    SPA.calculateSolarPosition(Instant.EPOCH, SITE, 69, 1010, 11);
+    assertThrows(IllegalArgumentException.class, () -> new ObserverSite(0, -200, 0));
+    assertEquals(1, rejected.get());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "0, 0",
+    "1, 1",
+    "2, 2",
+    "3, 2",
+    "4, 3",
+    "1023, 10",
+    "1024, 11",
+    "-5, 0",
+    "9223372036854775807, 63"
+  })
+  void testHistogramBuckets(long value, int bucket) {
+    assertEquals(bucket, SolarMetrics.Histogram.bucket(value));
+  }
+}
@@ -0,0 +1,139 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.DoubleBuffer;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarPositionGrid;
+import org.junit.jupiter.api.Test;
+
+class SolarPositionGridTest {
+
+  private static final SplittableRandom RANDOM = new SplittableRandom(17);
+
+  @Test
+  void testAgainstSpaBatch() {
+    // sizes chosen not to be multiples of the tile size
+    final long[] epochMillis = quarterHours(1100);
+    final ObserverSite[] sites = randomSites(70);
+    final double[] azimuth = new double[sites.length * epochMillis.length];
+    final double[] zenithAngle = new double[sites.length * epochMillis.length];
+
+    SolarPositionGrid.calculateSolarPositions(
+        epochMillis, sites, 69, 1000, 10, azimuth, zenithAngle);
+
+    final double[] expectedAzimuth = new double[epochMillis.length];
+    final double[] expectedZenithAngle = new double[epochMillis.length];
+    for (int i = 0; i < sites.length; i++) {
+      SPA.calculateSolarPositions(
+          epochMillis, sites[i], 69, 1000, 10, expectedAzimuth, expectedZenithAngle);
+      final int from = i * epochMillis.length;
+      final int to = from + epochMillis.length;
+      assertArrayEquals(expectedAzimuth, Arrays.copyOfRange(azimuth, from, to));
+      assertArrayEquals(expectedZenithAngle, Arrays.copyOfRange(zenithAngle, from, to));
+    }
+  }
+
+  @Test
+  void testDeterministicAcrossParallelism() {
+    final long[] epochMillis = quarterHours(600);
+    final ObserverSite[] sites = randomSites(150);
+    final int size = sites.length * epochMillis.length;
+
+    final double[] azimuth = new double[size];
+    final double[] zenithAngle = new double[size];
+    final ForkJoinPool single = new ForkJoinPool(1);
+    try {
+      SolarPositionGrid.calculateSolarPositions(
+          epochMillis, sites, 69, 1000, 10, azimuth, zenithAngle, single);
+    } finally {
+      single.shutdown();
+    }
+
+    final DoubleBuffer bufferAzimuth = DoubleBuffer.allocate(size);
+    final DoubleBuffer bufferZenithAngle = DoubleBuffer.allocate(size);
+    final ForkJoinPool multiple = new ForkJoinPool(4);
+    try {
+      SolarPositionGrid.calculateSolarPositions(
+          epochMillis, sites, 69, 1000, 10, bufferAzimuth, bufferZenithAngle, multiple);
+    } finally {
+      multiple.shutdown();
+    }
+
+    assertEquals(0, bufferAzimuth.position());
+    assertArrayEquals(azimuth, bufferAzimuth.array());
+    assertArrayEquals(zenithAngle, bufferZenithAngle.array());
+  }
+
+  @Test
+  void rejectsIllegalArguments() {
+    final long[] epochMillis = quarterHours(10);
+    final ObserverSite[] sites = randomSites(3);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SolarPositionGrid.calculateSolarPositions(
+                epochMillis, sites, 69, 1000, 10, new double[30], new double[29]));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SolarPositionGrid.calculateSolarPositions(
+                epochMillis,
+                sites,
+                69,
+                1000,
+                10,
+                DoubleBuffer.allocate(29),
+                DoubleBuffer.allocate(30),
+                ForkJoinPool.commonPool()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SolarPositionGrid.calculateSolarPositions(
+                epochMillis,
+                sites,
+                69,
+                1000,
+                10,
+                DoubleBuffer.allocate(30).asReadOnlyBuffer(),
+                DoubleBuffer.allocate(30),
+                ForkJoinPool.commonPool()));
+
+    // more positions than fit into an array
+    final ObserverSite[] manySites = new ObserverSite[70000];
+    Arrays.fill(manySites, sites[0]);
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SolarPositionGrid.calculateSolarPositions(
+                quarterHours(70000), manySites, 69, 1000, 10, new double[0], new double[0]));
+  }
+
+  private static long[] quarterHours(int count) {
+    final long start = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    final long[] epochMillis = new long[count];
+    for (int i = 0; i < count; i++) {
+      epochMillis[i] = (start + i * 900L) * 1000;
+    }
+    return epochMillis;
+  }
+
+  private static ObserverSite[] randomSites(int count) {
+    final ObserverSite[] sites = new ObserverSite[count];
+    for (int i = 0; i < count; i++) {
+      sites[i] =
+          new ObserverSite(
+              RANDOM.nextDouble(-89, 89), RANDOM.nextDouble(-180, 180), RANDOM.nextDouble(0, 3000));
+    }
+    return sites;
+  }
+}
@@ -0,0 +1,153 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarPositionSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SolarPositionSeriesTest {
+
+  /** Maximum angular distance from SPA, as documented. */
+  private static final double TOLERANCE = 1e-9;
+
+  private static final ObserverSite SITE = new ObserverSite(39.742476, -105.1786, 1830.14);
+
+  @ParameterizedTest
+  @CsvSource({
+    "2003-10-17T12:30:30Z, 60, 5000",
+    "-1500-06-21T00:00:00Z, 1, 3000",
+    "5800-01-01T00:00:00Z, 3600, 3000",
+    "5990-01-01T00:00:00Z, 3600, 3000",
+    "-2000-01-01T00:00:00Z, 3600, 3000",
+    "-1500-01-01T00:00:00Z, 3600, 3000",
+    "2023-01-01T00:00:00Z, 86400, 2000",
+    // across Julian date jumps: the leap day of 1000 and the calendar reform
+    "1000-01-01T00:00:00Z, 3600, 3000",
+    "1582-09-20T00:00:00Z, 3600, 1500"
+  })
+  void testAgainstSpa(ZonedDateTime start, long stepSeconds, int count) {
+    final long[] epochMillis = new long[count];
+    for (int i = 0; i < count; i++) {
+      epochMillis[i] = (start.toEpochSecond() + i * stepSeconds) * 1000;
+    }
+    final double[] expectedAzimuth = new double[count];
+    final double[] expectedZenithAngle = new double[count];
+    SPA.calculateSolarPositions(
+        epochMillis, SITE, 67, 820, 11, expectedAzimuth, expectedZenithAngle);
+
+    final SolarPositionSeries series =
+        SolarPositionSeries.of(start, Duration.ofSeconds(stepSeconds), count, SITE, 67, 820, 11);
+
+    // consume in odd-sized chunks to cover resumption across buffers and anchors
+    final double[] azimuth = new double[count];
+    final double[] zenithAngle = new double[count];
+    int offset = 0;
+    while (series.remaining() > 0) {
+      assertEquals(epochMillis[offset], series.nextEpochMillis());
+      offset += series.next(azimuth, zenithAngle, offset, Math.min(777, count - offset));
+    }
+    assertEquals(count, offset);
+    assertEquals(0, series.next(azimuth, zenithAngle));
+
+    for (int i = 0; i < count; i++) {
+      final double distance =
+          angularDistance(expectedAzimuth[i], expectedZenithAngle[i], azimuth[i], zenithAngle[i]);
+      assertTrue(distance < TOLERANCE, "deviation at " + i + ": " + distance);
+    }
+  }
+
+  @Test
+  void testReducedAccuracy() {
+    final ZonedDateTime start = ZonedDateTime.of(2023, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    final int count = 2000;
+
+    final long[] epochMillis = new long[count];
+    for (int i = 0; i < count; i++) {
+      epochMillis[i] = (start.toEpochSecond() + i * 60L) * 1000;
+    }
+    final double[] expectedAzimuth = new double[count];
+    final double[] expectedZenithAngle = new double[count];
+    SPA.calculateSolarPositions(
+        epochMillis, SITE, 67, 820, 11, SPA.Accuracy.MEDIUM, expectedAzimuth, expectedZenithAngle);
+
+    final double[] azimuth = new double[count];
+    final double[] zenithAngle = new double[count];
+    assertEquals(
+        count,
+        SolarPositionSeries.of(
+                start, Duration.ofMinutes(1), count, SITE, 67, 820, 11, SPA.Accuracy.MEDIUM)
+            .next(azimuth, zenithAngle));
+
+    for (int i = 0; i < count; i++) {
+      final double distance =
+          angularDistance(expectedAzimuth[i], expectedZenithAngle[i], azimuth[i], zenithAngle[i]);
+      assertTrue(distance < TOLERANCE, "deviation at " + i + ": " + distance);
+    }
+  }
+
+  private static double angularDistance(
+      double azimuth1, double zenithAngle1, double azimuth2, double zenithAngle2) {
+    final double z1 = Math.toRadians(zenithAngle1);
+    final double z2 = Math.toRadians(zenithAngle2);
+    final double sinHalfZ = Math.sin((z1 - z2) / 2);
+    final double sinHalfAzimuth = Math.sin(Math.toRadians(azimuth1 - azimuth2) / 2);
+    final double h =
+        sinHalfZ * sinHalfZ + Math.sin(z1) * Math.sin(z2) * sinHalfAzimuth * sinHalfAzimuth;
+    return Math.toDegrees(2 * Math.asin(Math.sqrt(h)));
+  }
+
+  @Test
+  void testSinkMatchesArrays() {
+    final ZonedDateTime start = ZonedDateTime.of(2023, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    final int count = 3000;
+
+    final double[] azimuth = new double[count];
+    final double[] zenithAngle = new double[count];
+    SolarPositionSeries.of(start, Duration.ofMinutes(1), count, SITE, 67, 820, 11)
+        .next(azimuth, zenithAngle);
+
+    final SolarPositionSeries series =
+        SolarPositionSeries.of(start, Duration.ofMinutes(1), count, SITE, 67, 820, 11);
+    final int[] calls = new int[1];
+    while (series.remaining() > 0) {
+      series.next(
+          (index, a, z) -> {
+            assertEquals(calls[0]++, index);
+            assertEquals(azimuth[index], a, 0);
+            assertEquals(zenithAngle[index], z, 0);
+          },
+          1000);
+    }
+    assertEquals(count, calls[0]);
+  }
+
+  @Test
+  void rejectsIllegalArguments() {
+    final ZonedDateTime start = ZonedDateTime.of(2023, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SolarPositionSeries.of(start, Duration.ZERO, 10, SITE, 67, 820, 11));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SolarPositionSeries.of(start, Duration.ofMillis(1500), 10, SITE, 67, 820, 11));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SolarPositionSeries.of(start, Duration.ofMinutes(1), -1, SITE, 67, 820, 11));
+
+    final SolarPositionSeries series =
+        SolarPositionSeries.of(start, Duration.ofMinutes(1), 10, SITE, 67, 820, 11);
+    assertThrows(IllegalArgumentException.class, () -> series.next(new double[10], new double[5]));
+    assertThrows(
+        IllegalArgumentException.class, () -> series.next(new double[10], new double[10], 5, 10));
+  }
+}
@@ -0,0 +1,261 @@
+package net.e175.klaus.solarpositioning.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import net.e175.klaus.solarpositioning.GrenaAlgorithm;
+import net.e175.klaus.solarpositioning.ObserverSite;
+import net.e175.klaus.solarpositioning.SPA;
+import net.e175.klaus.solarpositioning.SolarPosition;
+import net.e175.klaus.solarpositioning.SolarPositionAlgorithm;
+import net.e175.klaus.solarpositioning.SolarPositions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SolarPositionsTest {
+
+  private static final ObserverSite SITE = new ObserverSite(48.21, 16.37, 200);
+  private static final NearHorizon NEAR_HORIZON = new NearHorizon();
+
+  @ParameterizedTest
+  @CsvSource({
+    "2023-06-21T12:00:00Z, 1, ALGORITHM_1",
+    "2023-06-21T12:00:00Z, 0.2, ALGORITHM_1",
+    "2023-06-21T12:00:00Z, 0.05, ALGORITHM_2",
+    "2023-06-21T12:00:00Z, 0.01, ALGORITHM_3",
+    "2023-06-21T12:00:00Z, 0.005, ALGORITHM_5",
+    "2023-06-21T12:00:00Z, 0.002, MEDIUM",
+    "2023-06-21T12:00:00Z, 0.001, HIGH",
+    "2023-06-21T12:00:00Z, 0.0001, HIGH",
+    "2023-06-21T12:00:00Z, 0.00001, FULL",
+    "2023-06-21T12:00:00Z, 0, FULL",
+    "2010-01-01T00:00:00Z, 1, ALGORITHM_1",
+    "2009-12-31T23:59:59Z, 1, MEDIUM",
+    "2110-12-31T23:59:59Z, 1, ALGORITHM_1",
+    "2111-01-01T00:00:00Z, 1, MEDIUM",
+    "1700-01-01T00:00:00Z, 0.0001, HIGH",
+  })
+  void testSelect(Instant instant, double maxError, String expected) {
+    assertEquals(expected, SolarPositions.select(instant, maxError).toString());
+  }
+
+  @Test
+  void testCalculateUsesSelectedAlgorithmWithoutRefraction() {
+    final ZonedDateTime date = ZonedDateTime.of(2023, 6, 21, 14, 30, 0, 0, ZoneOffset.ofHours(2));
+
+    for (double maxError : new double[] {1, 0.02, 0.001, 0}) {
+      final SolarPositionAlgorithm expectedAlgorithm =
+          SolarPositions.select(date.toInstant(), maxError);
+      final SolarPosition expected =
+          expectedAlgorithm.calculateSolarPosition(date, SITE, 69, Double.NaN, Double.NaN);
+
+      assertEquals(
+          expected, SolarPositions.calculate(date, SITE, 69, Double.NaN, Double.NaN, maxError));
+
+      final List<SolarPositionAlgorithm> selected = new ArrayList<>();
+      assertEquals(
+          expected,
+          SolarPositions.calculate(
+              date.toInstant(),
+              SITE,
+              69,
+              Double.NaN,
+              Double.NaN,
+              maxError,
+              (index, algorithm) -> {
+                assertEquals(0, index);
+                selected.add(algorithm);
+              }));
+      assertEquals(List.of(expectedAlgorithm), selected);
+    }
+  }
+
+  @Test
+  void testSeriesAcrossValidityBoundary() {
+    final long start = Instant.parse("2009-12-31T12:00:00Z").toEpochMilli();
+    final long[] epochMillis = new long[100];
+    for (int i = 0; i < epochMillis.length; i++) {
+      epochMillis[i] = start + i * 1234567L;
+    }
+
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    final SolarPositionAlgorithm[] selected = new SolarPositionAlgorithm[epochMillis.length];
+    SolarPositions.calculateSolarPositions(
+        epochMillis,
+        SITE,
+        69,
+        1010,
+        11,
+        0.1,
+        azimuth,
+        zenithAngle,
+        (index, algorithm) -> selected[index] = algorithm);
+
+    assertSame(SPA.Accuracy.MEDIUM, selected[0]);
+    assertSame(GrenaAlgorithm.ALGORITHM_2, selected[selected.length - 1]);
+    for (int i = 0; i < epochMillis.length; i++) {
+      final Instant instant = Instant.ofEpochMilli(epochMillis[i]);
+      assertSame(SolarPositions.select(instant, 0.1), selected[i]);
+
+      final List<SolarPositionAlgorithm> single = new ArrayList<>();
+      final SolarPosition expected =
+          SolarPositions.calculate(
+              instant, SITE, 69, 1010, 11, 0.1, (index, algorithm) -> single.add(algorithm));
+      assertEquals(List.of(selected[i]), single);
+      assertEquals(expected.azimuth(), azimuth[i]);
+      assertEquals(expected.zenithAngle(), zenithAngle[i]);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0.2, 0.04, 0.01, 0.003, 0.0012, 0.00002})
+  void testErrorBudgetWithRefractionNearHorizon(double maxError) {
+    final long[] epochMillis = NEAR_HORIZON.epochMillis;
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    final List<SolarPositionAlgorithm> selected = new ArrayList<>();
+    SolarPositions.calculateSolarPositions(
+        epochMillis,
+        SITE,
+        69,
+        1010,
+        11,
+        maxError,
+        azimuth,
+        zenithAngle,
+        (index, algorithm) -> selected.add(algorithm));
+
+    for (int i = 0; i < epochMillis.length; i++) {
+      final double error =
+          angularDistance(
+              azimuth[i], zenithAngle[i], NEAR_HORIZON.azimuth[i], NEAR_HORIZON.zenithAngle[i]);
+      assertTrue(error <= maxError, Instant.ofEpochMilli(epochMillis[i]) + ": " + error);
+    }
+    assertTrue(
+        selected.contains(SolarPositions.select(Instant.ofEpochMilli(epochMillis[0]), maxError)));
+  }
+
+  /**
+   * Points in time every 7 minutes through 2024 at which the sun is between 2 degrees below and 5
+   * degrees above the horizon, with their SPA positions including refraction.
+   */
+  private static final class NearHorizon {
+    final long[] epochMillis;
+    final double[] azimuth;
+    final double[] zenithAngle;
+
+    NearHorizon() {
+      final long start = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+      final long[] all = new long[366 * 86400 / 420];
+      for (int i = 0; i < all.length; i++) {
+        all[i] = start + i * 420_000L;
+      }
+      final double[] allAzimuth = new double[all.length];
+      final double[] allZenithAngle = new double[all.length];
+      SPA.calculateSolarPositions(all, SITE, 69, 1010, 11, allAzimuth, allZenithAngle);
+
+      int count = 0;
+      for (int i = 0; i < all.length; i++) {
+        if (allZenithAngle[i] >= 85 && allZenithAngle[i] <= 92) {
+          all[count] = all[i];
+          allAzimuth[count] = allAzimuth[i];
+          allZenithAngle[count++] = allZenithAngle[i];
+        }
+      }
+      epochMillis = Arrays.copyOf(all, count);
+      azimuth = Arrays.copyOf(allAzimuth, count);
+      zenithAngle = Arrays.copyOf(allZenithAngle, count);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"MEDIUM, 0.0012", "HIGH, 0.00002"})
+  void testSpaErrorsAreAngularDistances(SPA.Accuracy accuracy, double maxError) {
+    final SplittableRandom random = new SplittableRandom(23);
+    final long minMillis = Instant.parse("-2000-01-01T00:00:00Z").toEpochMilli();
+    final long maxMillis = Instant.parse("6000-01-01T00:00:00Z").toEpochMilli();
+
+    final long[] epochMillis = new long[100];
+    final double[] fullAzimuth = new double[epochMillis.length];
+    final double[] fullZenithAngle = new double[epochMillis.length];
+    final double[] azimuth = new double[epochMillis.length];
+    final double[] zenithAngle = new double[epochMillis.length];
+    double max = 0;
+    for (int s = 0; s < 300; s++) {
+      final ObserverSite site =
+          new ObserverSite(random.nextDouble(-89, 89), random.nextDouble(-180, 180), 0);
+      for (int i = 0; i < epochMillis.length; i++) {
+        epochMillis[i] = random.nextLong(minMillis, maxMillis) / 1000 * 1000;
+      }
+      SPA.calculateSolarPositions(
+          epochMillis, site, 67, Double.NaN, Double.NaN, fullAzimuth, fullZenithAngle);
+      accuracy.calculateSolarPositions(
+          epochMillis, site, 67, Double.NaN, Double.NaN, azimuth, zenithAngle);
+      for (int i = 0; i < epochMillis.length; i++) {
+        max =
+            Math.max(
+                max,
+                angularDistance(azimuth[i], zenithAngle[i], fullAzimuth[i], fullZenithAngle[i]));
+      }
+    }
+
+    assertTrue(max <= maxError, accuracy + " max error " + max + " too large");
+    assertTrue(max > maxError / 2, accuracy + " max error " + max);
+    assertSame(accuracy, SolarPositions.select(Instant.parse("1800-01-01T00:00:00Z"), maxError));
+  }
+
+  @ParameterizedTest
+  @EnumSource(SPA.Accuracy.class)
+  void testAccuracyAsAlgorithm(SPA.Accuracy accuracy) {
+    final ZonedDateTime date = ZonedDateTime.of(1850, 3, 1, 9, 15, 30, 0, ZoneOffset.UTC);
+
+    final SolarPosition expected = SPA.calculateSolarPosition(date, SITE, 10, 1010, 11, accuracy);
+    assertEquals(expected, accuracy.calculateSolarPosition(date, SITE, 10, 1010, 11));
+
+    final long[] epochMillis = {date.toInstant().toEpochMilli()};
+    final double[] azimuth = new double[1];
+    final double[] zenithAngle = new double[1];
+    accuracy.calculateSolarPositions(epochMillis, SITE, 10, 1010, 11, azimuth, zenithAngle);
+    assertArrayEquals(new double[] {expected.azimuth()}, azimuth);
+    assertArrayEquals(new double[] {expected.zenithAngle()}, zenithAngle);
+  }
+
+  private static double angularDistance(
+      double azimuth1, double zenithAngle1, double azimuth2, double zenithAngle2) {
+    final double z1 = Math.toRadians(zenithAngle1);
+    final double z2 = Math.toRadians(zenithAngle2);
+    final double sinHalfZ = Math.sin((z1 - z2) / 2);
+    final double sinHalfAzimuth = Math.sin(Math.toRadians(azimuth1 - azimuth2) / 2);
+    // haversine formula, which unlike the law of cosines stays accurate for tiny distances
+    final double h =
+        sinHalfZ * sinHalfZ + Math.sin(z1) * Math.sin(z2) * sinHalfAzimuth * sinHalfAzimuth;
+    return Math.toDegrees(2 * Math.asin(Math.sqrt(h)));
+  }
+
+  @Test
+  void rejectsIllegalMaxError() {
+    final Instant instant = Instant.parse("2023-06-21T12:00:00Z");
+
+    assertThrows(IllegalArgumentException.class, () -> SolarPositions.select(instant, -0.1));
+    assertThrows(IllegalArgumentException.class, () -> SolarPositions.select(instant, Double.NaN));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            SolarPositions.calculateSolarPositions(
+                new long[1], SITE, 69, 1010, 11, -1, new double[1], new double[1], null));
+  }
+}